@@ -17,10 +17,23 @@ java {
     targetCompatibility = JavaVersion.VERSION_1_8
 }
 
+sourceSets {
+    getByName("test") {
+        resources {
+            srcDirs.add(File("src/main/resources"))
+        }
+    }
+    create("jmh") {
+        compileClasspath += getByName("main").output + getByName("main").compileClasspath
+        runtimeClasspath += getByName("main").output + getByName("main").runtimeClasspath
+    }
+}
+
 dependencies {
     val junit = "5.3.2"
     val junitPlatform = "1.3.2"
     val testfx = "4.0.15-alpha"
+    val jmh = "1.21"
 
     compile("org.jetbrains:annotations:16.0.3")
 
@@ -31,14 +44,9 @@ dependencies {
     testCompile("org.testfx:testfx-junit5:$testfx")
     testRuntime("org.junit.jupiter:junit-jupiter-engine:$junit")
     testRuntime("org.junit.platform:junit-platform-console:$junitPlatform")
-}
 
-sourceSets {
-    getByName("test") {
-        resources {
-            srcDirs.add(File("src/main/resources"))
-        }
-    }
+    "jmhCompile"("org.openjdk.jmh:jmh-core:$jmh")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:$jmh")
 }
 
 tasks {
@@ -46,6 +54,45 @@ tasks {
         useJUnitPlatform()
     }
 
+    register<JavaExec>("batch") {
+        group = "application"
+        description = "Checks, and optionally solves, level files without the GUI. Pass options with --args."
+
+        classpath = sourceSets["main"].runtimeClasspath
+        main = "main.SokobanCli"
+    }
+
+    register<JavaExec>("generate") {
+        group = "application"
+        description = "Generates solvable levels into a directory. Pass options with --args."
+
+        classpath = sourceSets["main"].runtimeClasspath
+        main = "main.GeneratorCli"
+    }
+
+    register<JavaExec>("dedup") {
+        group = "application"
+        description = "Reports levels which are duplicates up to symmetry. Pass options with --args."
+
+        classpath = sourceSets["main"].runtimeClasspath
+        main = "main.DedupCli"
+    }
+
+    register<JavaExec>("jmh") {
+        group = "verification"
+        description = "Runs the JMH benchmarks, writing the results to build/reports/jmh/results.json."
+
+        val results = File("$buildDir/reports/jmh/results.json")
+        classpath = sourceSets["jmh"].runtimeClasspath
+        main = "org.openjdk.jmh.Main"
+        // extra JMH options, e.g. -PjmhArgs="MapBenchmark -f 1 -wi 2"
+        args = listOf("-rf", "json", "-rff", results.path) +
+                (project.findProperty("jmhArgs") as String? ?: "").split(" ").filter { it.isNotBlank() }
+
+        dependsOn("jmhClasses")
+        doFirst { results.parentFile.mkdirs() }
+    }
+
     getByName<Wrapper>("wrapper") {
         gradleVersion = "5.0"
         distributionType = Wrapper.DistributionType.ALL
@@ -0,0 +1,151 @@
+package model;
+
+import model.Exceptions.InvalidMapException;
+import model.Generator.GeneratedLevel;
+import model.Generator.LevelGenerator;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedWriter;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Map files used by the benchmarks.
+ * <p>
+ * A map is named either after one of the shipped maps in {@code assets/maps}, e.g. {@code 10-hard}; as
+ * {@code synthetic-N}, which is an open N-by-N room with a row of crates next to their destinations on every other
+ * row; or as {@code generated-RxC-N}, e.g. {@code generated-16x16-6}, which is the level {@link LevelGenerator} makes
+ * with R rows, C columns and N crates from seed 0.
+ */
+public final class BenchmarkMaps {
+    private static final String SYNTHETIC_PREFIX = "synthetic-";
+    private static final String GENERATED_PREFIX = "generated-";
+
+    private BenchmarkMaps() {
+    }
+
+    /**
+     * @param name Name of the map
+     * @return Path of a file holding the map. Synthetic maps are written into a temporary file.
+     */
+    @NotNull
+    public static Path resolve(@NotNull String name) {
+        if (name.startsWith(SYNTHETIC_PREFIX)) {
+            return writeSynthetic(Integer.parseInt(name.substring(SYNTHETIC_PREFIX.length())));
+        }
+        if (name.startsWith(GENERATED_PREFIX)) {
+            return writeGenerated(name);
+        }
+
+        URL url = BenchmarkMaps.class.getClassLoader().getResource("assets/maps/" + name + ".txt");
+        if (url == null) {
+            throw new IllegalArgumentException("Unknown map: " + name);
+        }
+        try {
+            return Paths.get(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * @param name Name of the map
+     * @return A freshly loaded level of the map.
+     */
+    @NotNull
+    public static GameLevel load(@NotNull String name) {
+        return load(resolve(name));
+    }
+
+    /**
+     * @param path Path of the map file
+     * @return A freshly loaded level of the map.
+     */
+    @NotNull
+    public static GameLevel load(@NotNull Path path) {
+        GameLevel level = new GameLevel();
+        try {
+            level.loadMap(path.toString());
+        } catch (FileNotFoundException | InvalidMapException e) {
+            throw new IllegalStateException("Cannot load " + path, e);
+        }
+        return level;
+    }
+
+    /**
+     * Generates a level, accepting any number of pushes since only its size matters to the benchmarks.
+     *
+     * @param name Name of the map, in the form {@code generated-RxC-N}
+     * @return Path of the temporary file.
+     */
+    @NotNull
+    private static Path writeGenerated(@NotNull String name) {
+        final String[] parts = name.substring(GENERATED_PREFIX.length()).split("[x-]");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Generated maps are named generated-RxC-N: " + name);
+        }
+
+        final LevelGenerator generator = new LevelGenerator(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+                Integer.parseInt(parts[2]), 0, Integer.MAX_VALUE);
+        final GeneratedLevel level = generator.generate(0);
+        if (level == null) {
+            throw new IllegalStateException("Unable to generate " + name);
+        }
+
+        try {
+            Path path = Files.createTempFile(name + "-", ".txt");
+            path.toFile().deleteOnExit();
+            Files.write(path, level.toLevelFile(LevelFile.Format.PLAIN));
+            return path;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes an open {@code size}-by-{@code size} room, with the player at the top-left corner.
+     *
+     * @param size Number of rows and columns, including the surrounding walls
+     * @return Path of the temporary file.
+     */
+    @NotNull
+    private static Path writeSynthetic(int size) {
+        if (size < 5) {
+            throw new IllegalArgumentException("Synthetic maps must be at least 5x5");
+        }
+
+        try {
+            Path path = Files.createTempFile(SYNTHETIC_PREFIX + size + "-", ".txt");
+            path.toFile().deleteOnExit();
+
+            try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                writer.write(size + "\n" + size + "\n");
+
+                char[] row = new char[size];
+                for (int r = 0; r < size; ++r) {
+                    for (int c = 0; c < size; ++c) {
+                        row[c] = r == 0 || c == 0 || r == size - 1 || c == size - 1 ? '#' : '.';
+                    }
+                    if (r == 1) {
+                        row[1] = '@';
+                    } else if (r >= 2 && r < size - 2 && r % 2 == 0) {
+                        row[size / 2] = 'c';
+                        row[size / 2 + 1] = 'C';
+                    }
+                    writer.write(row);
+                    writer.write('\n');
+                }
+            }
+            return path;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of loading a level and of checking its win and deadlock conditions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameLevelBenchmark {
+    @Param({"01-easy", "10-hard", "13-extreme", "synthetic-10", "synthetic-100", "synthetic-1000"})
+    public String mapName;
+
+    private Path path;
+    private GameLevel level;
+
+    @Setup
+    public void setUp() {
+        path = BenchmarkMaps.resolve(mapName);
+        level = BenchmarkMaps.load(path);
+    }
+
+    @Benchmark
+    public boolean isWin() {
+        return level.isWin();
+    }
+
+    @Benchmark
+    public boolean isDeadlocked() {
+        return level.isDeadlocked();
+    }
+
+    @Benchmark
+    public GameLevel loadMap() {
+        return BenchmarkMaps.load(path);
+    }
+}
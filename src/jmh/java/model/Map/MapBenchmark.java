@@ -0,0 +1,83 @@
+package model.Map;
+
+import model.BenchmarkMaps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of moving the player and of the move history.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapBenchmark {
+    @Param({"01-easy", "10-hard", "13-extreme", "synthetic-10", "synthetic-100", "synthetic-1000"})
+    public String mapName;
+
+    private Map map;
+    private boolean right;
+
+    /**
+     * Reloads the map, so that every iteration starts from the initial position.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        map = BenchmarkMaps.load(mapName).getMap();
+        right = false;
+    }
+
+    /**
+     * Moves the player left and right alternately. Crates which get pushed stay pushed, so on the shipped maps this
+     * mixes walking, pushing and blocked moves.
+     */
+    @Benchmark
+    public boolean movePlayer() {
+        right = !right;
+        return map.movePlayer(right ? Map.Direction.RIGHT : Map.Direction.LEFT);
+    }
+
+    /**
+     * Saves a history entry and discards it again, which is what happens on a blocked move.
+     */
+    @Benchmark
+    public boolean historySave() {
+        Map.History history = map.getHistory();
+        history.save(Map.Direction.UP);
+        history.pop();
+        return history.isEmpty();
+    }
+
+    /**
+     * Makes a move the way the gameplay pane does, then undoes it, leaving the map unchanged.
+     */
+    @Benchmark
+    public boolean historySaveRestore() {
+        right = !right;
+        Map.Direction d = right ? Map.Direction.RIGHT : Map.Direction.LEFT;
+
+        Map.History history = map.getHistory();
+        history.save(d);
+        if (map.movePlayer(d)) {
+            history.restore();
+            return true;
+        } else {
+            history.pop();
+            return false;
+        }
+    }
+}
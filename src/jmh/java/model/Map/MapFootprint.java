@@ -0,0 +1,43 @@
+package model.Map;
+
+import model.BenchmarkMaps;
+
+import java.nio.file.Path;
+
+/**
+ * Prints how much heap a loaded map takes, both in its compact form and once {@link Map#getCells()} has created its
+ * view cells for the callers which still ask for them.
+ * <p>
+ * Run with the jmh classpath, passing the map names as arguments, e.g. {@code synthetic-2000 13-extreme}.
+ */
+public class MapFootprint {
+    public static void main(String[] args) {
+        final String[] names = args.length == 0 ? new String[]{"synthetic-1000", "synthetic-2000"} : args;
+
+        for (String name : names) {
+            final Path path = BenchmarkMaps.resolve(name);
+
+            final long before = usedHeap();
+            final Map map = BenchmarkMaps.load(path).getMap();
+            final long compact = usedHeap();
+            map.getCells();
+            map.getDestTiles();
+            final long withCells = usedHeap();
+
+            System.out.printf("%s (%dx%d, %d crates): compact %.1f MB, with cells %.1f MB%n",
+                    name, map.getRows(), map.getCols(), map.getCrates().size(),
+                    (compact - before) / 1e6, (withCells - before) / 1e6);
+        }
+    }
+
+    /**
+     * @return Bytes of heap in use after collecting garbage.
+     */
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; ++i) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
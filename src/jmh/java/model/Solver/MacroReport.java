@@ -0,0 +1,44 @@
+package model.Solver;
+
+import model.BenchmarkMaps;
+
+import java.nio.file.Paths;
+
+/**
+ * Prints how much tunnel macros save {@link AStarSolver} for each map: the nodes expanded, states stored and average
+ * branching factor, i.e. successors generated per node expanded, with and without the macros.
+ * <p>
+ * Run with the jmh classpath, passing map names or paths of map files as arguments, e.g. {@code 10-hard
+ * levels/corridor.txt}.
+ */
+public class MacroReport {
+    public static void main(String[] args) {
+        final String[] names = args.length == 0 ? new String[]{
+                "01-easy", "02-easy", "03-easy", "04-easy", "05-normal", "06-normal", "07-normal", "08-normal",
+                "09-hard", "10-hard", "11-hard", "12-hard", "13-extreme", "14-impossible"} : args;
+
+        System.out.println("map,pushes,nodes_plain,nodes_macro,nodes_ratio,states_plain,states_macro,branching_plain,branching_macro");
+        for (String name : names) {
+            final Board board = Board.fromMap((name.endsWith(".txt")
+                    ? BenchmarkMaps.load(Paths.get(name)) : BenchmarkMaps.load(name)).getMap());
+            final GoalDistances distances = new GoalDistances(board);
+
+            final AStarSolver plain = new AStarSolver(board, distances);
+            plain.setTunnelMacros(false);
+            final SolverResult plainResult = plain.solve();
+            final AStarSolver macro = new AStarSolver(board, distances);
+            final SolverResult macroResult = macro.solve();
+
+            if (plainResult.getPushes() != macroResult.getPushes()) {
+                System.err.printf("%s: %d pushes without macros but %d with%n", name, plainResult.getPushes(),
+                        macroResult.getPushes());
+            }
+            System.out.printf("%s,%d,%d,%d,%.2f,%d,%d,%.2f,%.2f%n", name, macroResult.getPushes(),
+                    plainResult.getNodes(), macroResult.getNodes(),
+                    (double) plainResult.getNodes() / Math.max(1, macroResult.getNodes()),
+                    plainResult.getStates(), macroResult.getStates(),
+                    (double) plain.getGenerated() / Math.max(1, plainResult.getNodes()),
+                    (double) macro.getGenerated() / Math.max(1, macroResult.getNodes()));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package model.Solver;
+
+import model.BenchmarkMaps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling of {@link ParallelSolver} with the number of worker threads, on shipped maps and on larger generated ones,
+ * whose searches store tens of thousands to a million states.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ParallelSolverBenchmark {
+    @Param({"10-hard", "13-extreme", "generated-14x14-5", "generated-16x16-5"})
+    public String mapName;
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int threads;
+
+    private Board board;
+
+    @Setup
+    public void setUp() {
+        board = Board.fromMap(BenchmarkMaps.load(mapName).getMap());
+    }
+
+    @Benchmark
+    public SolverResult parallel() {
+        return new ParallelSolver(board, threads).solve();
+    }
+}
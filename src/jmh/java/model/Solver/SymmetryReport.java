@@ -0,0 +1,46 @@
+package model.Solver;
+
+import model.BenchmarkMaps;
+
+import java.nio.file.Paths;
+
+/**
+ * Prints how much symmetry reduction saves for each map: the number of symmetries of the board, and the states stored
+ * and time taken by {@link BfsSolver} and {@link AStarSolver} with and without the reduction.
+ * <p>
+ * Run with the jmh classpath, passing map names or paths of map files as arguments, e.g. {@code 05-normal
+ * levels/open.txt}.
+ */
+public class SymmetryReport {
+    public static void main(String[] args) {
+        final String[] names = args.length == 0 ? new String[]{"02-easy", "05-normal", "10-hard", "13-extreme"} : args;
+
+        System.out.println("map,symmetries,solver,pushes,states_full,states_reduced,states_ratio,ms_full,ms_reduced,time_ratio");
+        for (String name : names) {
+            final Board board = Board.fromMap((name.endsWith(".txt")
+                    ? BenchmarkMaps.load(Paths.get(name)) : BenchmarkMaps.load(name)).getMap());
+            final int symmetries = new BoardSymmetry(board).getOrder();
+            final GoalDistances distances = new GoalDistances(board);
+
+            // warm up both paths, so the first map is not measured against a cold JIT
+            new BfsSolver(board).solve();
+            new AStarSolver(board, distances, false).solve();
+
+            print(name, symmetries, "bfs",
+                    new BfsSolver(board, new PackedVisitedSet(new StateCodec(board))).solve(),
+                    new BfsSolver(board).solve());
+            print(name, symmetries, "astar",
+                    new AStarSolver(board, distances, false).solve(),
+                    new AStarSolver(board, distances, true).solve());
+        }
+    }
+
+    private static void print(String name, int symmetries, String solver, SolverResult full, SolverResult reduced) {
+        // times under a millisecond are too coarse to compare
+        final String timeRatio = full.getTimeMillis() == 0 || reduced.getTimeMillis() == 0 ? ""
+                : String.format("%.2f", (double) full.getTimeMillis() / reduced.getTimeMillis());
+        System.out.printf("%s,%d,%s,%d,%d,%d,%.2f,%d,%d,%s%n", name, symmetries, solver, reduced.getPushes(),
+                full.getStates(), reduced.getStates(), (double) full.getStates() / Math.max(1, reduced.getStates()),
+                full.getTimeMillis(), reduced.getTimeMillis(), timeRatio);
+    }
+}
@@ -0,0 +1,141 @@
+package model.Solver;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import model.BenchmarkMaps;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prints the garbage collection pauses caused by filling each kind of {@link VisitedSet} with random states of a map:
+ * the number of pauses, their total and longest duration, the heap in use afterwards, and the time taken.
+ * <p>
+ * Run with the jmh classpath, passing the map name, the number of states and optionally the kinds of set to compare,
+ * out of {@code hash}, {@code packed}, {@code direct} and {@code mapped}, e.g. {@code 13-extreme 20000000 hash direct}.
+ * Since earlier runs leave the heap in a different shape, the kinds are best compared one per JVM, with the heap
+ * limited by {@code -Xmx}.
+ */
+public class VisitedSetGcReport {
+    public static void main(String[] args) throws IOException {
+        final String name = args.length > 0 ? args[0] : "13-extreme";
+        final int count = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        final List<String> kinds = args.length > 2 ? Arrays.asList(args).subList(2, args.length)
+                : Arrays.asList("hash", "packed", "direct", "mapped");
+
+        final Board board = Board.fromMap(BenchmarkMaps.load(name).getMap());
+        final StateCodec codec = new StateCodec(board);
+
+        final AtomicLong pauses = new AtomicLong();
+        final AtomicLong pauseMillis = new AtomicLong();
+        final AtomicLong maxPauseMillis = new AtomicLong();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) gc).addNotificationListener((notification, handback) -> {
+                if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                    return;
+                }
+                final long duration = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData())
+                        .getGcInfo().getDuration();
+                pauses.incrementAndGet();
+                pauseMillis.addAndGet(duration);
+                maxPauseMillis.accumulateAndGet(duration, Math::max);
+            }, null, null);
+        }
+
+        System.out.println("map,set,states,stored,gc_pauses,gc_ms,gc_max_ms,heap_mb,ms");
+        for (String kind : kinds) {
+            final Path directory = kind.equals("mapped") ? Files.createTempDirectory("visited") : null;
+            VisitedSet states = create(kind, codec, directory);
+
+            usedHeap();
+            pauses.set(0);
+            pauseMillis.set(0);
+            maxPauseMillis.set(0);
+
+            final long startTime = System.currentTimeMillis();
+            final Random random = new Random(count);
+            for (int i = 0; i < count; ++i) {
+                states.add(randomState(board, random));
+            }
+            final long timeMillis = System.currentTimeMillis() - startTime;
+            // collections are reported asynchronously, so read them before the final collection below
+            final long gcPauses = pauses.get();
+            final long gcMillis = pauseMillis.get();
+            final long gcMaxMillis = maxPauseMillis.get();
+            final long heap = usedHeap();
+
+            System.out.printf("%s,%s,%d,%d,%d,%d,%d,%.1f,%d%n", name, kind, count, states.size(), gcPauses, gcMillis,
+                    gcMaxMillis, heap / 1e6, timeMillis);
+
+            if (states instanceof OffHeapVisitedSet) {
+                ((OffHeapVisitedSet) states).close();
+            }
+            states = null;
+            if (directory != null) {
+                Files.delete(directory);
+            }
+        }
+    }
+
+    /**
+     * @param kind      Kind of set
+     * @param codec     Codec of the board
+     * @param directory Directory for the mapped file, if the kind is {@code mapped}
+     * @return An empty set of the given kind.
+     */
+    private static VisitedSet create(String kind, StateCodec codec, Path directory) throws IOException {
+        switch (kind) {
+            case "hash":
+                return new HashVisitedSet();
+            case "packed":
+                return new PackedVisitedSet(codec);
+            case "direct":
+                return new OffHeapVisitedSet(codec);
+            case "mapped":
+                return new OffHeapVisitedSet(codec, directory);
+            default:
+                throw new IllegalArgumentException("Unknown set: " + kind);
+        }
+    }
+
+    /**
+     * @return A state with the crates of the board on random floor cells and the player on another one.
+     */
+    private static SearchState randomState(Board board, Random random) {
+        final int numCrates = board.getInitialState().getCrates().length;
+        final List<Integer> cells = new ArrayList<>(numCrates + 1);
+        while (cells.size() <= numCrates) {
+            final int cell = random.nextInt(board.size());
+            if (board.isFloor(cell) && !cells.contains(cell)) {
+                cells.add(cell);
+            }
+        }
+
+        final int[] crates = new int[numCrates];
+        for (int i = 0; i < numCrates; ++i) {
+            crates[i] = cells.get(i);
+        }
+        Arrays.sort(crates);
+        return new SearchState(crates, cells.get(numCrates));
+    }
+
+    /**
+     * @return Bytes of heap in use after collecting garbage.
+     */
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; ++i) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
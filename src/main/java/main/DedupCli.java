@@ -0,0 +1,231 @@
+package main;
+
+import model.CanonicalLevel;
+import model.Exceptions.InvalidMapException;
+import model.GameLevel;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Command-line entry point which finds duplicate levels among a batch of level files.
+ * <p>
+ * Levels are duplicates if they have the same {@link CanonicalLevel canonical form}, i.e. they only differ by rotation,
+ * mirroring, areas the player cannot enter, or where the player stands. Files are read and fingerprinted in parallel,
+ * and the report lists every cluster of two or more duplicates, largest first.
+ */
+public class DedupCli {
+    private static final String USAGE = String.join("\n",
+            "Usage: DedupCli [options] <map file or directory>...",
+            "",
+            "Directories are searched recursively for .txt files.",
+            "",
+            "Options:",
+            "  --threads=N        Number of levels to process at once (default: number of processors)",
+            "  --output=FILE      File to write the report to (default: standard output)"
+    );
+
+    /**
+     * Number of files fingerprinted by a single task.
+     */
+    private static final int BATCH_SIZE = 256;
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private Path output = null;
+    private final List<Path> inputs = new ArrayList<>();
+
+    /**
+     * Exits with 0 if there are no duplicates, 1 if there are, and 2 if the arguments or files cannot be used.
+     *
+     * @param args Command-line arguments, see {@link #USAGE}
+     */
+    public static void main(String[] args) {
+        DedupCli cli = new DedupCli();
+
+        String error = cli.parseArgs(args);
+        if (error != null) {
+            System.err.println(error);
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        try {
+            System.exit(cli.run() ? 0 : 1);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("I/O error: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * @param args Command-line arguments
+     * @return Why the arguments are invalid, or {@code null} if they are fine.
+     */
+    @Nullable
+    private String parseArgs(@NotNull String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                inputs.add(Paths.get(arg));
+                continue;
+            }
+
+            final int eq = arg.indexOf('=');
+            final String name = eq == -1 ? arg : arg.substring(0, eq);
+            final String value = eq == -1 ? null : arg.substring(eq + 1);
+            if (value == null) {
+                return "Missing value of " + name;
+            }
+
+            try {
+                switch (name) {
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        if (threads < 1) {
+                            return "Number of threads must be positive";
+                        }
+                        break;
+                    case "--output":
+                        output = Paths.get(value);
+                        break;
+                    default:
+                        return "Unknown option: " + name;
+                }
+            } catch (NumberFormatException e) {
+                return "Invalid number: " + value;
+            }
+        }
+
+        if (inputs.isEmpty()) {
+            return "No map files given";
+        }
+        return null;
+    }
+
+    /**
+     * Fingerprints every level, and writes the clusters of duplicates.
+     *
+     * @return Whether there are no duplicates.
+     * @throws IOException if the inputs cannot be listed or the report cannot be written.
+     */
+    private boolean run() throws IOException {
+        final long startTime = System.currentTimeMillis();
+        final List<Path> files = collectFiles();
+
+        final Map<CanonicalLevel.Fingerprint, List<Path>> clusters = new ConcurrentHashMap<>();
+        final AtomicInteger invalid = new AtomicInteger();
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> batches = new ArrayList<>();
+            for (int start = 0; start < files.size(); start += BATCH_SIZE) {
+                final List<Path> batch = files.subList(start, Math.min(start + BATCH_SIZE, files.size()));
+                batches.add(pool.submit(() -> {
+                    for (Path file : batch) {
+                        final CanonicalLevel.Fingerprint f = fingerprint(file);
+                        if (f == null) {
+                            invalid.incrementAndGet();
+                        } else {
+                            clusters.computeIfAbsent(f, k -> Collections.synchronizedList(new ArrayList<>())).add(file);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> b : batches) {
+                b.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Fingerprinting a level failed unexpectedly", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        final List<Map.Entry<CanonicalLevel.Fingerprint, List<Path>>> duplicates = clusters.entrySet().stream()
+                .filter(e -> e.getValue().size() > 1)
+                .peek(e -> Collections.sort(e.getValue()))
+                .sorted(Comparator.<Map.Entry<CanonicalLevel.Fingerprint, List<Path>>>comparingInt(e -> -e.getValue().size())
+                        .thenComparing(e -> e.getValue().get(0)))
+                .collect(Collectors.toList());
+
+        try (Writer out = output == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            for (Map.Entry<CanonicalLevel.Fingerprint, List<Path>> e : duplicates) {
+                out.write("cluster " + e.getKey() + " (" + e.getValue().size() + " levels)\n");
+                for (Path p : e.getValue()) {
+                    out.write("  " + p + "\n");
+                }
+            }
+
+            final int redundant = duplicates.stream().mapToInt(e -> e.getValue().size() - 1).sum();
+            out.write(String.format("%d files, %d invalid, %d distinct levels, %d clusters of duplicates, %d redundant files, %d ms%n",
+                    files.size(), invalid.get(), clusters.size(), duplicates.size(), redundant,
+                    System.currentTimeMillis() - startTime));
+        }
+
+        return duplicates.isEmpty();
+    }
+
+    /**
+     * @return All level files among the inputs, with directories expanded, in sorted order.
+     * @throws IOException if a directory cannot be listed.
+     */
+    @NotNull
+    private List<Path> collectFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path input : inputs) {
+            if (Files.isDirectory(input)) {
+                try (Stream<Path> walk = Files.walk(input)) {
+                    files.addAll(walk
+                            .filter(Files::isRegularFile)
+                            .filter(p -> p.getFileName().toString().endsWith(".txt"))
+                            .sorted()
+                            .collect(Collectors.toList()));
+                }
+            } else {
+                files.add(input);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * @param file Level file
+     * @return Fingerprint of the canonical form of the level, or {@code null} if the file is not a valid level.
+     */
+    @Nullable
+    private static CanonicalLevel.Fingerprint fingerprint(@NotNull Path file) {
+        GameLevel level = new GameLevel();
+        try {
+            level.loadMap(file.toString());
+        } catch (FileNotFoundException | InvalidMapException | RuntimeException e) {
+            // Scanner throws runtime exceptions on truncated or non-numeric headers and missing rows
+            return null;
+        }
+        return CanonicalLevel.of(level.getMap()).getFingerprint();
+    }
+}
@@ -0,0 +1,223 @@
+package main;
+
+import model.Generator.GeneratedLevel;
+import model.Generator.LevelGenerator;
+import model.LevelFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Command-line entry point which generates levels into a directory, from which they can be played like any other
+ * level directory.
+ * <p>
+ * Levels are generated in parallel. Level {@code i} is always generated from the same seed and written to the same
+ * file, so the output does not depend on the number of threads.
+ */
+public class GeneratorCli {
+    private static final String USAGE = String.join("\n",
+            "Usage: GeneratorCli [options] <output directory>",
+            "",
+            "Options:",
+            "  --count=N          Number of levels to generate (default: 100)",
+            "  --rows=N           Number of rows, including the outer walls (default: 10)",
+            "  --cols=N           Number of columns, including the outer walls (default: 10)",
+            "  --crates=N         Number of crates (default: 3)",
+            "  --min-pushes=N     Minimum number of pushes of a solution (default: 10)",
+            "  --max-pushes=N     Maximum number of pushes of a solution (default: 60)",
+            "  --candidates=N     Number of accepted candidates to keep the hardest of (default: 4)",
+            "  --seed=N           Seed of the first level (default: 0). The same seed and options always give the",
+            "                     same levels",
+            "  --threads=N        Number of levels to generate at once (default: number of processors)",
+            "  --format=FORMAT    Level file format: plain, rle (default: plain)"
+    );
+
+    /**
+     * Spreads the seeds of consecutive levels apart.
+     */
+    private static final long SEED_STEP = 0x9E3779B97F4A7C15L;
+
+    private int count = 100;
+    private int rows = 10;
+    private int cols = 10;
+    private int crates = 3;
+    private int minPushes = 10;
+    private int maxPushes = 60;
+    private int candidates = 4;
+    private long seed = 0;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private LevelFile.Format format = LevelFile.Format.PLAIN;
+    private Path output = null;
+
+    /**
+     * Exits with 0 if all levels were generated, 1 if some could not be, and 2 if the arguments or the output
+     * directory cannot be used.
+     *
+     * @param args Command-line arguments, see {@link #USAGE}
+     */
+    public static void main(String[] args) {
+        GeneratorCli cli = new GeneratorCli();
+
+        String error = cli.parseArgs(args);
+        if (error != null) {
+            System.err.println(error);
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        try {
+            System.exit(cli.run() ? 0 : 1);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("I/O error: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * @param args Command-line arguments
+     * @return Why the arguments are invalid, or {@code null} if they are fine.
+     */
+    @Nullable
+    private String parseArgs(@NotNull String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                if (output != null) {
+                    return "More than one output directory given";
+                }
+                output = Paths.get(arg);
+                continue;
+            }
+
+            final int eq = arg.indexOf('=');
+            final String name = eq == -1 ? arg : arg.substring(0, eq);
+            final String value = eq == -1 ? null : arg.substring(eq + 1);
+            if (value == null) {
+                return "Missing value of " + name;
+            }
+
+            try {
+                switch (name) {
+                    case "--count":
+                        count = Integer.parseInt(value);
+                        break;
+                    case "--rows":
+                        rows = Integer.parseInt(value);
+                        break;
+                    case "--cols":
+                        cols = Integer.parseInt(value);
+                        break;
+                    case "--crates":
+                        crates = Integer.parseInt(value);
+                        break;
+                    case "--min-pushes":
+                        minPushes = Integer.parseInt(value);
+                        break;
+                    case "--max-pushes":
+                        maxPushes = Integer.parseInt(value);
+                        break;
+                    case "--candidates":
+                        candidates = Integer.parseInt(value);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        break;
+                    case "--format":
+                        if (value.equals("plain")) {
+                            format = LevelFile.Format.PLAIN;
+                        } else if (value.equals("rle")) {
+                            format = LevelFile.Format.RLE;
+                        } else {
+                            return "Unknown format: " + value;
+                        }
+                        break;
+                    default:
+                        return "Unknown option: " + name;
+                }
+            } catch (NumberFormatException e) {
+                return "Invalid number: " + value;
+            }
+        }
+
+        if (output == null) {
+            return "No output directory given";
+        }
+        if (count < 1 || threads < 1 || candidates < 1) {
+            return "Number of levels, threads and candidates must be positive";
+        }
+        if (rows < 5 || cols < 5) {
+            return "Levels must be at least 5x5";
+        }
+        if (crates < 1) {
+            return "Number of crates must be positive";
+        }
+        if (minPushes > maxPushes) {
+            return "Minimum pushes exceed maximum pushes";
+        }
+        return null;
+    }
+
+    /**
+     * Generates the levels, writing each into the output directory in order, as soon as it and the levels before it
+     * are done.
+     *
+     * @return Whether every level was generated.
+     * @throws IOException if the output directory or a level file cannot be written.
+     */
+    private boolean run() throws IOException {
+        Files.createDirectories(output);
+
+        final LevelGenerator generator = new LevelGenerator(rows, cols, crates, minPushes, maxPushes);
+        generator.setCandidates(candidates);
+
+        final int digits = Math.max(4, Integer.toString(count).length());
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        final List<Future<GeneratedLevel>> levels = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            final long levelSeed = seed + i * SEED_STEP;
+            levels.add(pool.submit(() -> generator.generate(levelSeed)));
+        }
+
+        final long startTime = System.currentTimeMillis();
+        int generated = 0;
+        try {
+            for (int i = 0; i < count; ++i) {
+                GeneratedLevel level = levels.get(i).get();
+                Path file = output.resolve(String.format("gen-%0" + digits + "d.txt", i + 1));
+                if (level == null) {
+                    System.out.printf("%s skipped: no candidate accepted%n", file.getFileName());
+                    continue;
+                }
+
+                ++generated;
+                LevelFile.write(file, level.toLevelFile(format));
+                System.out.printf("%s pushes=%d nodes=%d attempts=%d seed=%d%n",
+                        file.getFileName(), level.getPushes(), level.getNodes(), level.getAttempts(), level.getSeed());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Generating a level failed unexpectedly", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        final long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+        System.out.printf("Generated %d of %d levels in %d ms (%.0f levels per minute)%n",
+                generated, count, elapsed, generated * 60000.0 / elapsed);
+        return generated == count;
+    }
+}
@@ -0,0 +1,184 @@
+package main;
+
+import model.Solver.SolverResult;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of checking a single level file from the command line.
+ */
+final class LevelReport {
+    /**
+     * Overall outcome of a level.
+     */
+    enum Status {
+        /**
+         * The file could not be loaded, or is not a playable level.
+         */
+        INVALID,
+        /**
+         * The level is playable, and solving was not requested.
+         */
+        VALID,
+        SOLVED,
+        UNSOLVABLE,
+        /**
+         * The solver ran out of time.
+         */
+        TIMEOUT;
+
+        /**
+         * @return Name of the status as written in reports.
+         */
+        String getLabel() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final String file;
+    private final Status status;
+    private final int pushes;
+    private final long nodes;
+    private final long timeMillis;
+    private final String error;
+    private final List<Integer> thresholds;
+
+    private LevelReport(@NotNull String file, @NotNull Status status, int pushes, long nodes, long timeMillis,
+                        @Nullable String error, @Nullable List<Integer> thresholds) {
+        this.file = file;
+        this.status = status;
+        this.pushes = pushes;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+        this.error = error;
+        this.thresholds = thresholds == null ? null : Collections.unmodifiableList(thresholds);
+    }
+
+    /**
+     * @param file       Path of the level file
+     * @param error      Why the level is invalid
+     * @param timeMillis Time taken to check the level
+     * @return Report of an invalid level.
+     */
+    static LevelReport invalid(@NotNull String file, @NotNull String error, long timeMillis) {
+        return new LevelReport(file, Status.INVALID, -1, 0, timeMillis, error, null);
+    }
+
+    /**
+     * @param file       Path of the level file
+     * @param timeMillis Time taken to check the level
+     * @return Report of a valid level which was not solved.
+     */
+    static LevelReport valid(@NotNull String file, long timeMillis) {
+        return new LevelReport(file, Status.VALID, -1, 0, timeMillis, null, null);
+    }
+
+    /**
+     * @param file       Path of the level file
+     * @param result     Outcome of the solver
+     * @param timeMillis Time taken to check and solve the level
+     * @return Report of a valid level which the solver ran on.
+     */
+    static LevelReport solved(@NotNull String file, @NotNull SolverResult result, long timeMillis) {
+        return solved(file, result, null, timeMillis);
+    }
+
+    /**
+     * @param file       Path of the level file
+     * @param result     Outcome of the solver
+     * @param thresholds Bound of each iteration of an iterative-deepening solver, or {@code null} for other solvers
+     * @param timeMillis Time taken to check and solve the level
+     * @return Report of a valid level which the solver ran on.
+     */
+    static LevelReport solved(@NotNull String file, @NotNull SolverResult result, @Nullable List<Integer> thresholds,
+                              long timeMillis) {
+        Status status;
+        switch (result.getStatus()) {
+            case SOLVED:
+                status = Status.SOLVED;
+                break;
+            case UNSOLVABLE:
+                status = Status.UNSOLVABLE;
+                break;
+            default:
+                status = Status.TIMEOUT;
+                break;
+        }
+        return new LevelReport(file, status, result.getPushes(), result.getNodes(), timeMillis, null, thresholds);
+    }
+
+    String getFile() {
+        return file;
+    }
+
+    Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return Whether the level is playable.
+     */
+    boolean isValid() {
+        return status != Status.INVALID;
+    }
+
+    /**
+     * @return Whether the level can be solved, or {@code null} if that is not known.
+     */
+    @Nullable
+    Boolean isSolvable() {
+        switch (status) {
+            case SOLVED:
+                return true;
+            case UNSOLVABLE:
+                return false;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return Minimum number of pushes of a solution, or -1 if the level was not solved.
+     */
+    int getPushes() {
+        return pushes;
+    }
+
+    /**
+     * @return Number of states expanded by the solver.
+     */
+    long getNodes() {
+        return nodes;
+    }
+
+    long getTimeMillis() {
+        return timeMillis;
+    }
+
+    /**
+     * @return Number of iterations of an iterative-deepening solver, or -1 if no such solver ran.
+     */
+    int getIterations() {
+        return thresholds == null ? -1 : thresholds.size();
+    }
+
+    /**
+     * @return Bound of each iteration of an iterative-deepening solver in increasing order, or {@code null} if no such
+     * solver ran.
+     */
+    @Nullable
+    List<Integer> getThresholds() {
+        return thresholds;
+    }
+
+    /**
+     * @return Why the level is invalid, or {@code null} if it is valid.
+     */
+    @Nullable
+    String getError() {
+        return error;
+    }
+}
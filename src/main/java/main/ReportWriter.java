@@ -0,0 +1,195 @@
+package main;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Streams {@link LevelReport}s out as they complete. Every report is flushed as soon as it is written, so partial
+ * results are available while a batch is still running.
+ */
+abstract class ReportWriter {
+    protected final Writer out;
+
+    /**
+     * @param out Writer to write the reports to
+     */
+    protected ReportWriter(@NotNull Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * @param format Name of a format
+     * @return Whether {@link #create(String, Writer)} supports the format.
+     */
+    static boolean isFormat(@NotNull String format) {
+        return format.equals("csv") || format.equals("json");
+    }
+
+    /**
+     * @param format Name of the format, either {@code csv} or {@code json}
+     * @param out    Writer to write the reports to
+     * @return A writer of the given format, or {@code null} if the format is unknown.
+     */
+    @Nullable
+    static ReportWriter create(@NotNull String format, @NotNull Writer out) {
+        switch (format) {
+            case "csv":
+                return new Csv(out);
+            case "json":
+                return new Json(out);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Writes anything which comes before the first report.
+     */
+    abstract void begin() throws IOException;
+
+    /**
+     * Writes a single report.
+     */
+    abstract void write(@NotNull LevelReport report) throws IOException;
+
+    /**
+     * Writes anything which comes after the last report.
+     */
+    abstract void end() throws IOException;
+
+    /**
+     * @param values    Values to join, or {@code null}
+     * @param separator Separator between the values
+     * @return The values joined by the separator, or the empty string if there are none.
+     */
+    static String join(@Nullable List<Integer> values, @NotNull String separator) {
+        return values == null ? "" : values.stream().map(String::valueOf).collect(Collectors.joining(separator));
+    }
+
+    /**
+     * Comma-separated values with a header row.
+     */
+    private static class Csv extends ReportWriter {
+        private Csv(@NotNull Writer out) {
+            super(out);
+        }
+
+        @Override
+        void begin() throws IOException {
+            out.write("file,valid,status,solvable,pushes,nodes,time_ms,iterations,thresholds,error\n");
+            out.flush();
+        }
+
+        @Override
+        void write(@NotNull LevelReport report) throws IOException {
+            Boolean solvable = report.isSolvable();
+            out.write(quote(report.getFile()) + ','
+                    + report.isValid() + ','
+                    + report.getStatus().getLabel() + ','
+                    + (solvable == null ? "" : solvable.toString()) + ','
+                    + (report.getPushes() < 0 ? "" : Integer.toString(report.getPushes())) + ','
+                    + report.getNodes() + ','
+                    + report.getTimeMillis() + ','
+                    + (report.getIterations() < 0 ? "" : Integer.toString(report.getIterations())) + ','
+                    + join(report.getThresholds(), " ") + ','
+                    + (report.getError() == null ? "" : quote(report.getError())) + '\n');
+            out.flush();
+        }
+
+        @Override
+        void end() throws IOException {
+            out.flush();
+        }
+
+        /**
+         * @return The value quoted if it contains any special character.
+         */
+        private static String quote(@NotNull String value) {
+            if (value.indexOf(',') == -1 && value.indexOf('"') == -1 && value.indexOf('\n') == -1 && value.indexOf('\r') == -1) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    /**
+     * A JSON array of objects, one per line.
+     */
+    private static class Json extends ReportWriter {
+        private boolean first = true;
+
+        private Json(@NotNull Writer out) {
+            super(out);
+        }
+
+        @Override
+        void begin() throws IOException {
+            out.write("[");
+            out.flush();
+        }
+
+        @Override
+        void write(@NotNull LevelReport report) throws IOException {
+            Boolean solvable = report.isSolvable();
+            List<Integer> thresholds = report.getThresholds();
+            out.write((first ? "\n" : ",\n")
+                    + "{\"file\":" + quote(report.getFile())
+                    + ",\"valid\":" + report.isValid()
+                    + ",\"status\":" + quote(report.getStatus().getLabel())
+                    + ",\"solvable\":" + solvable
+                    + ",\"pushes\":" + (report.getPushes() < 0 ? "null" : Integer.toString(report.getPushes()))
+                    + ",\"nodes\":" + report.getNodes()
+                    + ",\"timeMs\":" + report.getTimeMillis()
+                    + ",\"iterations\":" + (thresholds == null ? "null" : Integer.toString(thresholds.size()))
+                    + ",\"thresholds\":" + (thresholds == null ? "null" : '[' + join(thresholds, ",") + ']')
+                    + ",\"error\":" + (report.getError() == null ? "null" : quote(report.getError()))
+                    + "}");
+            out.flush();
+            first = false;
+        }
+
+        @Override
+        void end() throws IOException {
+            out.write("\n]\n");
+            out.flush();
+        }
+
+        /**
+         * @return The value as a JSON string literal.
+         */
+        private static String quote(@NotNull String value) {
+            StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+            for (char c : value.toCharArray()) {
+                switch (c) {
+                    case '"':
+                        sb.append("\\\"");
+                        break;
+                    case '\\':
+                        sb.append("\\\\");
+                        break;
+                    case '\n':
+                        sb.append("\\n");
+                        break;
+                    case '\r':
+                        sb.append("\\r");
+                        break;
+                    case '\t':
+                        sb.append("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            sb.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            sb.append(c);
+                        }
+                }
+            }
+            return sb.append('"').toString();
+        }
+    }
+}
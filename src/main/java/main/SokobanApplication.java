@@ -1,9 +1,20 @@
 package main;
 
 import javafx.application.Application;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonType;
 import javafx.stage.Stage;
+import model.Exceptions.InvalidMapException;
+import model.LevelIndex;
+import model.LevelManager;
+import model.Replay.SessionJournal;
+import model.Solver.DeadlockPatterns;
 import viewmodel.SceneManager;
 
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Optional;
+
 /**
  * Main application
  */
@@ -15,7 +26,72 @@ public class SokobanApplication extends Application {
 
     @Override
     public void start(Stage primaryStage) {
+        try {
+            LevelManager.getInstance().setLevelIndex(new LevelIndex(LevelIndex.defaultPath()));
+        } catch (IOException e) {
+            System.err.println("Unable to open level index, metrics will not be cached: " + e.getMessage());
+            LevelManager.getInstance().setLevelIndex(new LevelIndex());
+        }
+        LevelManager.getInstance().getGameLevel().setDeadlockPatternDirectory(DeadlockPatterns.defaultDirectory());
         SceneManager.getInstance().setStage(primaryStage);
+
+        SessionJournal.Session session = null;
+        try {
+            session = SessionJournal.read(SessionJournal.defaultPath());
+            LevelManager.getInstance().setJournal(new SessionJournal(SessionJournal.defaultPath()));
+        } catch (IOException e) {
+            System.err.println("Unable to open session journal: " + e.getMessage());
+        }
+
+        if (session != null) {
+            if (promptResume(session)) {
+                try {
+                    LevelManager.getInstance().resumeSession(session);
+                    SceneManager.getInstance().showGamePlayScene();
+                    return;
+                } catch (FileNotFoundException | InvalidMapException e) {
+                    System.err.println("Unable to resume " + session.getLevelFile() + ": " + e.getMessage());
+                    LevelManager.getInstance().resetLevelTimer();
+                }
+            }
+            // declined or failed, so that it is not offered again on the next launch
+            LevelManager.getInstance().endSession();
+        }
+
         SceneManager.getInstance().showMainMenuScene();
     }
+
+    @Override
+    public void stop() {
+        SessionJournal journal = LevelManager.getInstance().getJournal();
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("Unable to close session journal: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Asks the user whether to continue the level which was being played when the game last exited.
+     *
+     * @param session The unfinished session
+     * @return Whether the user wants to resume.
+     */
+    private static boolean promptResume(SessionJournal.Session session) {
+        if (System.getenv("CI") != null && System.getenv("CI").equals("true")) {
+            System.out.println("CI environment detected: Skipping popup");
+            return false;
+        }
+
+        Alert box = new Alert(Alert.AlertType.CONFIRMATION);
+        box.setTitle("Confirm");
+        box.setHeaderText("Resume previous game?");
+        box.setContentText(session.getLevelFile().getFileName() + " was left unfinished.");
+        box.getButtonTypes().setAll(ButtonType.NO, ButtonType.YES);
+
+        Optional<ButtonType> result = box.showAndWait();
+        return result.isPresent() && result.get().equals(ButtonType.YES);
+    }
 }
@@ -0,0 +1,363 @@
+package main;
+
+import model.Exceptions.InvalidMapException;
+import model.GameLevel;
+import model.Map.Map;
+import model.Solver.AStarSolver;
+import model.Solver.Board;
+import model.Solver.DeadlockPatterns;
+import model.Solver.ExternalBfsSolver;
+import model.Solver.IdaStarSolver;
+import model.Solver.ParallelSolver;
+import model.Solver.Solver;
+import model.Solver.SolverResult;
+import model.Solver.SolverType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static model.DaemonThreads.daemonThreadFactory;
+
+/**
+ * Command-line entry point which checks, and optionally solves, a batch of level files without starting the GUI.
+ * <p>
+ * Levels are processed in parallel, and a report line is written for each level as soon as it completes, so the
+ * order of the output follows completion rather than the order of the input.
+ */
+public class SokobanCli {
+    private static final String USAGE = String.join("\n",
+            "Usage: SokobanCli [options] <map file or directory>...",
+            "",
+            "Directories are searched recursively for .txt files.",
+            "",
+            "Options:",
+            "  --solve            Also solve every valid level",
+            "  --solver=NAME      Solver to use: bfs, parallel, bidirectional, astar, idastar, external",
+            "                     (default: astar). idastar runs in constant memory, and reports its iterations",
+            "                     and thresholds. external keeps its search on disk",
+            "  --threads=N        Number of levels to process at once (default: number of processors)",
+            "                     The parallel solver shares the processors out among the levels",
+            "  --timeout=SECONDS  Time limit for solving a single level, 0 for none (default: 60)",
+            "  --temp-dir=DIR     Directory for the files of the external solver (default: system temp directory)",
+            "  --memory=MB        Memory for buffering states of each external solve (default: 64)",
+            "  --progress         Print every layer completed by the external solver to standard error",
+            "  --patterns=DIR     Learn deadlock patterns with the astar solver, keeping them per level in DIR",
+            "  --format=FORMAT    Report format: csv, json (default: csv)",
+            "  --output=FILE      File to write the report to (default: standard output)"
+    );
+
+    private boolean solve = false;
+    private SolverType solverType = SolverType.ASTAR;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long timeoutMillis = TimeUnit.SECONDS.toMillis(60);
+    private Path tempDirectory = Paths.get(System.getProperty("java.io.tmpdir"));
+    private long memoryBudget = ExternalBfsSolver.DEFAULT_MEMORY_BUDGET;
+    private boolean progress = false;
+    private Path patternDirectory = null;
+    private String format = "csv";
+    private Path output = null;
+    private final List<Path> inputs = new ArrayList<>();
+
+    /**
+     * Exits with 0 if all levels are valid, 1 if any level is invalid, and 2 if the arguments or files cannot be used.
+     *
+     * @param args Command-line arguments, see {@link #USAGE}
+     */
+    public static void main(String[] args) {
+        SokobanCli cli = new SokobanCli();
+
+        String error = cli.parseArgs(args);
+        if (error != null) {
+            System.err.println(error);
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        try {
+            System.exit(cli.run() ? 0 : 1);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("I/O error: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * @param args Command-line arguments
+     * @return Why the arguments are invalid, or {@code null} if they are fine.
+     */
+    @Nullable
+    private String parseArgs(@NotNull String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                inputs.add(Paths.get(arg));
+                continue;
+            }
+
+            final int eq = arg.indexOf('=');
+            final String name = eq == -1 ? arg : arg.substring(0, eq);
+            final String value = eq == -1 ? null : arg.substring(eq + 1);
+            if (!name.equals("--solve") && !name.equals("--progress") && value == null) {
+                return "Missing value of " + name;
+            }
+
+            try {
+                switch (name) {
+                    case "--solve":
+                        solve = true;
+                        break;
+                    case "--solver":
+                        solverType = SolverType.fromName(value);
+                        if (solverType == null) {
+                            return "Unknown solver: " + value;
+                        }
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        if (threads < 1) {
+                            return "Number of threads must be positive";
+                        }
+                        break;
+                    case "--timeout":
+                        timeoutMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(value));
+                        if (timeoutMillis < 0) {
+                            return "Timeout must not be negative";
+                        }
+                        break;
+                    case "--temp-dir":
+                        tempDirectory = Paths.get(value);
+                        if (!Files.isDirectory(tempDirectory)) {
+                            return "Not a directory: " + value;
+                        }
+                        break;
+                    case "--memory":
+                        final long megabytes = Long.parseLong(value);
+                        if (megabytes <= 0) {
+                            return "Memory must be positive";
+                        }
+                        memoryBudget = megabytes << 20;
+                        break;
+                    case "--progress":
+                        progress = true;
+                        break;
+                    case "--patterns":
+                        patternDirectory = Paths.get(value);
+                        break;
+                    case "--format":
+                        format = value;
+                        break;
+                    case "--output":
+                        output = Paths.get(value);
+                        break;
+                    default:
+                        return "Unknown option: " + name;
+                }
+            } catch (NumberFormatException e) {
+                return "Invalid number: " + value;
+            }
+        }
+
+        if (inputs.isEmpty()) {
+            return "No map files given";
+        }
+        if (!ReportWriter.isFormat(format)) {
+            return "Unknown format: " + format;
+        }
+        return null;
+    }
+
+    /**
+     * Checks every level, writing the reports as they complete.
+     *
+     * @return Whether every level is valid.
+     * @throws IOException if the inputs cannot be listed or the report cannot be written.
+     */
+    private boolean run() throws IOException {
+        final List<Path> files = collectFiles();
+
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        final ScheduledExecutorService timer =
+                Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("solver-timeout"));
+        final CompletionService<LevelReport> completion = new ExecutorCompletionService<>(pool);
+        files.forEach(f -> completion.submit(() -> check(f, timer)));
+
+        boolean allValid = true;
+        try (Writer out = output == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            // the format was checked while parsing the arguments
+            ReportWriter writer = Objects.requireNonNull(ReportWriter.create(format, out));
+
+            writer.begin();
+            for (int i = 0; i < files.size(); ++i) {
+                LevelReport report = completion.take().get();
+                allValid &= report.isValid();
+                writer.write(report);
+            }
+            writer.end();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            allValid = false;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                // the external solver could not use its files
+                throw (UncheckedIOException) e.getCause();
+            }
+            throw new IllegalStateException("Checking a level failed unexpectedly", e.getCause());
+        } finally {
+            pool.shutdownNow();
+            timer.shutdownNow();
+        }
+
+        return allValid;
+    }
+
+    /**
+     * @return All level files among the inputs, with directories expanded, in sorted order.
+     * @throws IOException if a directory cannot be listed.
+     */
+    @NotNull
+    private List<Path> collectFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path input : inputs) {
+            if (Files.isDirectory(input)) {
+                try (Stream<Path> walk = Files.walk(input)) {
+                    files.addAll(walk
+                            .filter(Files::isRegularFile)
+                            .filter(p -> p.getFileName().toString().endsWith(".txt"))
+                            .sorted()
+                            .collect(Collectors.toList()));
+                }
+            } else {
+                files.add(input);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Loads a level, checks it, and solves it if requested.
+     *
+     * @param file  Level file
+     * @param timer Executor which cancels solvers running out of time
+     * @return Report of the level.
+     */
+    @NotNull
+    private LevelReport check(@NotNull Path file, @NotNull ScheduledExecutorService timer) {
+        final long startTime = System.currentTimeMillis();
+
+        GameLevel level = new GameLevel();
+        try {
+            level.loadMap(file.toString());
+        } catch (FileNotFoundException e) {
+            return LevelReport.invalid(file.toString(), "File not found", System.currentTimeMillis() - startTime);
+        } catch (InvalidMapException e) {
+            return LevelReport.invalid(file.toString(), e.getMessage(), System.currentTimeMillis() - startTime);
+        } catch (RuntimeException e) {
+            // Scanner throws these on truncated or non-numeric headers and missing rows
+            return LevelReport.invalid(file.toString(), "Malformed map file: " + e, System.currentTimeMillis() - startTime);
+        }
+
+        String error = validate(level.getMap());
+        if (error != null) {
+            return LevelReport.invalid(file.toString(), error, System.currentTimeMillis() - startTime);
+        }
+        if (!solve) {
+            return LevelReport.valid(file.toString(), System.currentTimeMillis() - startTime);
+        }
+
+        Board board = Board.fromMap(level.getMap());
+        Solver solver = createSolver(board);
+        if (progress && solver instanceof ExternalBfsSolver) {
+            ((ExternalBfsSolver) solver).setProgressListener(stats -> System.err.println(file + ": " + stats));
+        }
+        DeadlockPatterns patterns = null;
+        if (patternDirectory != null && solver instanceof AStarSolver) {
+            try {
+                patterns = new DeadlockPatterns(board, patternDirectory.resolve(DeadlockPatterns.fileName(board)));
+                ((AStarSolver) solver).setDeadlockPatterns(patterns);
+            } catch (IOException e) {
+                System.err.println("Unable to load deadlock patterns of " + file + ": " + e.getMessage());
+            }
+        }
+
+        ScheduledFuture<?> timeout = timeoutMillis == 0 ? null
+                : timer.schedule(solver::cancel, timeoutMillis, TimeUnit.MILLISECONDS);
+        SolverResult result = solver.solve();
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+
+        if (patterns != null) {
+            try {
+                patterns.save();
+            } catch (IOException e) {
+                System.err.println("Unable to save deadlock patterns of " + file + ": " + e.getMessage());
+            }
+        }
+
+        List<Integer> thresholds = solver instanceof IdaStarSolver ? ((IdaStarSolver) solver).getThresholds() : null;
+        return LevelReport.solved(file.toString(), result, thresholds, System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * @param board Board to solve
+     * @return A new solver of the chosen type. A parallel solver gets an equal share of the processors, since as many
+     * levels as there are threads are solved at once, and an external solver uses the chosen directory and memory.
+     */
+    @NotNull
+    private Solver createSolver(@NotNull Board board) {
+        switch (solverType) {
+            case PARALLEL:
+                return new ParallelSolver(board, Math.max(1, Runtime.getRuntime().availableProcessors() / threads));
+            case EXTERNAL:
+                return new ExternalBfsSolver(board, tempDirectory, memoryBudget);
+            default:
+                return solverType.create(board);
+        }
+    }
+
+    /**
+     * Checks the same rules as the level editor does before saving, apart from the player, which
+     * {@link Map#initialize(int, int, char[][])} already checks.
+     *
+     * @param map Loaded map
+     * @return Why the map is not a playable level, or {@code null} if it is.
+     */
+    @Nullable
+    private static String validate(@NotNull Map map) {
+        final int numCrates = map.getCrates().size();
+        final int numDests = map.getNumDestTiles();
+
+        if (numCrates < 1 || numDests < 1) {
+            return "At least 1 crate and destination are required";
+        } else if (numCrates != numDests) {
+            return "Imbalanced number of crates and destinations";
+        } else if (map.getRows() < 3 || map.getCols() < 3) {
+            return "Minimum size is 3 rows and 3 cols";
+        }
+        return null;
+    }
+}
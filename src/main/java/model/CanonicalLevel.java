@@ -0,0 +1,293 @@
+package model;
+
+import model.Map.Map;
+import model.Map.Occupant.Crate;
+import model.Map.Occupant.Occupant;
+import model.Map.Occupant.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * The canonical form of a level, which is the same for all levels that only differ in ways which do not matter for
+ * playing them:
+ * <ul>
+ * <li>Rotation and mirroring: of the eight orientations, the one whose level file sorts first is picked.</li>
+ * <li>Areas the player can never enter, including extra walls around the level: every cell which cannot be reached
+ * from the player, even by pushing crates out of the way, becomes a wall, and the level is cropped to a single layer
+ * of walls around what is left. Crates and destinations out of reach are kept where they are, walled in on their own,
+ * so that the canonical form has as many crates and destinations as the level.</li>
+ * <li>Where the player stands within the area it can walk around in without pushing: the player is moved to the first
+ * cell of that area in row-major order.</li>
+ * </ul>
+ * The canonical form is identified by a 128-bit fingerprint, which is the MD5 digest of its level file.
+ */
+public final class CanonicalLevel {
+    private static final char WALL = '#';
+    private static final char TILE = '.';
+    private static final char DEST = 'C';
+    private static final char PLAYER = '@';
+    private static final char PLAYER_ON_DEST = '&';
+    private static final char CRATE = 'c';
+    private static final char CRATE_ON_DEST = '$';
+
+    private final byte[] levelFile;
+    private final Fingerprint fingerprint;
+
+    /**
+     * A 128-bit fingerprint of a canonical level.
+     */
+    public static final class Fingerprint {
+        private final long high;
+        private final long low;
+
+        public Fingerprint(long high, long low) {
+            this.high = high;
+            this.low = low;
+        }
+
+        public long getHigh() {
+            return high;
+        }
+
+        public long getLow() {
+            return low;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Fingerprint)) {
+                return false;
+            }
+            final Fingerprint f = (Fingerprint) o;
+            return high == f.high && low == f.low;
+        }
+
+        @Override
+        public int hashCode() {
+            // the bits of a digest are already evenly spread
+            return (int) low;
+        }
+
+        /**
+         * @return The fingerprint as 32 hexadecimal digits.
+         */
+        @Override
+        public String toString() {
+            return String.format("%016x%016x", high, low);
+        }
+    }
+
+    private CanonicalLevel(@NotNull byte[] levelFile) {
+        this.levelFile = levelFile;
+
+        try {
+            final ByteBuffer digest = ByteBuffer.wrap(MessageDigest.getInstance("MD5").digest(levelFile));
+            this.fingerprint = new Fingerprint(digest.getLong(), digest.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is required to be supported by every Java platform", e);
+        }
+    }
+
+    /**
+     * @param map A level, as loaded
+     * @return The canonical form of the level.
+     */
+    @NotNull
+    public static CanonicalLevel of(@NotNull Map map) {
+        final int rows = map.getRows();
+        final int cols = map.getCols();
+
+        // the terrain and contents of each cell, with crates and the player left out
+        final char[] cells = new char[rows * cols];
+        final boolean[] crate = new boolean[rows * cols];
+        int player = -1;
+        for (int r = 0; r < rows; ++r) {
+            for (int c = 0; c < cols; ++c) {
+                final int i = r * cols + c;
+                cells[i] = map.isWall(r, c) ? WALL : map.isDest(r, c) ? DEST : TILE;
+
+                final Occupant o = map.getOccupant(r, c);
+                crate[i] = o instanceof Crate;
+                if (o instanceof Player) {
+                    player = i;
+                }
+            }
+        }
+        if (player == -1) {
+            throw new IllegalArgumentException("The level has no player");
+        }
+
+        // cells reachable when crates are no obstacle, and crates and destinations out of reach, since dropping those
+        // would change the level; everything else is walled off
+        final boolean[] inside = flood(cells, null, rows, cols, player);
+        for (int i = 0; i < inside.length; ++i) {
+            inside[i] |= crate[i] || cells[i] == DEST;
+        }
+        int top = rows;
+        int bottom = -1;
+        int left = cols;
+        int right = -1;
+        for (int i = 0; i < inside.length; ++i) {
+            if (inside[i]) {
+                top = Math.min(top, i / cols);
+                bottom = Math.max(bottom, i / cols);
+                left = Math.min(left, i % cols);
+                right = Math.max(right, i % cols);
+            }
+        }
+
+        final int h = bottom - top + 3;
+        final int w = right - left + 3;
+        final char[] cropped = new char[h * w];
+        final boolean[] croppedCrate = new boolean[h * w];
+        int croppedPlayer = -1;
+        for (int r = 0; r < h; ++r) {
+            for (int c = 0; c < w; ++c) {
+                final int i = r * w + c;
+                final int src = (r + top - 1) * cols + (c + left - 1);
+                final boolean in = r > 0 && r < h - 1 && c > 0 && c < w - 1 && inside[src];
+                cropped[i] = in ? cells[src] : WALL;
+                croppedCrate[i] = in && crate[src];
+                if (in && src == player) {
+                    croppedPlayer = i;
+                }
+            }
+        }
+
+        // where the player can walk without pushing
+        final boolean[] region = flood(cropped, croppedCrate, h, w, croppedPlayer);
+
+        byte[] best = null;
+        for (int t = 0; t < 8; ++t) {
+            final byte[] candidate = orient(cropped, croppedCrate, region, h, w, t);
+            if (best == null || compare(candidate, best) < 0) {
+                best = candidate;
+            }
+        }
+        return new CanonicalLevel(best);
+    }
+
+    /**
+     * Finds the cells reachable from a cell, through cells which are not walls, nor blocked.
+     *
+     * @param cells   Terrain of each cell
+     * @param blocked Whether each cell is blocked, or {@code null} if none are
+     * @param rows    Number of rows
+     * @param cols    Number of columns
+     * @param start   Cell to start from
+     * @return Whether each cell is reachable.
+     */
+    @NotNull
+    private static boolean[] flood(@NotNull char[] cells, @Nullable boolean[] blocked, int rows, int cols, int start) {
+        final boolean[] seen = new boolean[cells.length];
+        final int[] queue = new int[cells.length];
+        int tail = 0;
+        queue[tail++] = start;
+        seen[start] = true;
+
+        for (int head = 0; head < tail; ++head) {
+            final int i = queue[head];
+            final int r = i / cols;
+            final int c = i % cols;
+            for (int d = 0; d < 4; ++d) {
+                final int nr = r + (d == 0 ? -1 : d == 1 ? 1 : 0);
+                final int nc = c + (d == 2 ? -1 : d == 3 ? 1 : 0);
+                if (nr < 0 || nr >= rows || nc < 0 || nc >= cols) {
+                    continue;
+                }
+
+                final int n = nr * cols + nc;
+                if (!seen[n] && cells[n] != WALL && (blocked == null || !blocked[n])) {
+                    seen[n] = true;
+                    queue[tail++] = n;
+                }
+            }
+        }
+        return seen;
+    }
+
+    /**
+     * Writes the level in one of its eight orientations, with the player on the first cell of its region.
+     *
+     * @param cells  Terrain of each cell
+     * @param crate  Whether each cell holds a crate
+     * @param region Whether each cell is in the region of the player
+     * @param h      Number of rows
+     * @param w      Number of columns
+     * @param t      Orientation: bit 0 transposes, bit 1 flips the rows, and bit 2 flips the columns
+     * @return The level file of the level in that orientation.
+     */
+    @NotNull
+    private static byte[] orient(@NotNull char[] cells, @NotNull boolean[] crate, @NotNull boolean[] region,
+                                 int h, int w, int t) {
+        final boolean transpose = (t & 1) != 0;
+        final boolean flipRows = (t & 2) != 0;
+        final boolean flipCols = (t & 4) != 0;
+        final int rows = transpose ? w : h;
+        final int cols = transpose ? h : w;
+
+        final int[] source = new int[rows * cols];
+        int player = -1;
+        for (int r = 0; r < rows; ++r) {
+            for (int c = 0; c < cols; ++c) {
+                int sr = transpose ? c : r;
+                int sc = transpose ? r : c;
+                if (flipRows) {
+                    sr = h - 1 - sr;
+                }
+                if (flipCols) {
+                    sc = w - 1 - sc;
+                }
+
+                final int i = r * cols + c;
+                source[i] = sr * w + sc;
+                if (player == -1 && region[source[i]]) {
+                    player = i;
+                }
+            }
+        }
+
+        final int playerCell = player;
+        return LevelFile.encode(rows, cols, (r, c) -> {
+            final int i = r * cols + c;
+            final int s = source[i];
+            final boolean dest = cells[s] == DEST;
+            if (i == playerCell) {
+                return dest ? PLAYER_ON_DEST : PLAYER;
+            } else if (crate[s]) {
+                return dest ? CRATE_ON_DEST : CRATE;
+            }
+            return cells[s];
+        }, LevelFile.Format.PLAIN);
+    }
+
+    private static int compare(@NotNull byte[] a, @NotNull byte[] b) {
+        final int n = Math.min(a.length, b.length);
+        for (int i = 0; i < n; ++i) {
+            if (a[i] != b[i]) {
+                return a[i] - b[i];
+            }
+        }
+        return a.length - b.length;
+    }
+
+    /**
+     * @return The canonical form as the contents of a level file.
+     */
+    @NotNull
+    public byte[] toLevelFile() {
+        return levelFile.clone();
+    }
+
+    @NotNull
+    public Fingerprint getFingerprint() {
+        return fingerprint;
+    }
+}
@@ -0,0 +1,38 @@
+package model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the named daemon threads of the background executors, so that none of them keeps the application running
+ * once its last window is closed.
+ */
+public final class DaemonThreads {
+    private DaemonThreads() {
+    }
+
+    /**
+     * @param name Name of the threads
+     * @return A factory of daemon threads with the given name and normal priority.
+     */
+    @NotNull
+    public static ThreadFactory daemonThreadFactory(@NotNull String name) {
+        return daemonThreadFactory(name, Thread.NORM_PRIORITY);
+    }
+
+    /**
+     * @param name     Name of the threads
+     * @param priority Priority of the threads, e.g. {@link Thread#MIN_PRIORITY} for work nobody is waiting for
+     * @return A factory of daemon threads with the given name and priority.
+     */
+    @NotNull
+    public static ThreadFactory daemonThreadFactory(@NotNull String name, int priority) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            t.setPriority(priority);
+            return t;
+        };
+    }
+}
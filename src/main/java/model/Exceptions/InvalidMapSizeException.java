@@ -0,0 +1,13 @@
+package model.Exceptions;
+
+/**
+ * Thrown when a row of the map file does not have as many columns as the header says.
+ */
+public class InvalidMapSizeException extends InvalidMapException {
+    /**
+     * @param s The exception message
+     */
+    public InvalidMapSizeException(String s) {
+        super(s);
+    }
+}
@@ -0,0 +1,13 @@
+package model.Exceptions;
+
+/**
+ * Thrown when a recorded replay cannot be parsed
+ */
+public class InvalidReplayException extends Exception {
+    /**
+     * @param s The exception message
+     */
+    public InvalidReplayException(String s) {
+        super(s);
+    }
+}
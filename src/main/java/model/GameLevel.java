@@ -3,25 +3,42 @@ package model;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import model.Exceptions.InvalidMapException;
-import model.Map.Cell;
 import model.Map.Map;
 import model.Map.Occupant.Crate;
 import model.Map.Occupant.Player;
-import model.Map.Occupiable.DestTile;
-import model.Map.Occupiable.Occupiable;
+import model.Solver.Board;
+import model.Solver.DeadlockPatterns;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static model.DaemonThreads.daemonThreadFactory;
 
 /**
  * A class that loads, stores, modifies, and keeps track of the game map win/deadlock condition. Also keeps tracks
  * of information about this current level, e.g. how many moves the player has made.
  */
 public class GameLevel {
+    /**
+     * Learns and saves deadlock patterns, so that moves are not held up by searching or writing files.
+     */
+    private static final ExecutorService PATTERN_SAVER =
+            Executors.newSingleThreadExecutor(daemonThreadFactory("deadlock-patterns"));
 
     private final IntegerProperty numPushes = new SimpleIntegerProperty(0);
     private Map map;
+    private Path patternDirectory = null;
+    //Terrain and deadlock patterns of the loaded map, created the first time the simple deadlock check passes
+    private Board board;
+    private DeadlockPatterns patterns;
+    //Increased by every check, so that learning from a position the player has left is given up
+    private volatile long learnGeneration = 0;
 
     public IntegerProperty numPushesProperty() {
         return numPushes;
@@ -32,7 +49,16 @@ public class GameLevel {
     }
 
     /**
-     * Loads and reads the map line by line, instantiates and initializes map
+     * @param directory Directory to keep the learned deadlock patterns of each level in, or {@code null} to only keep
+     *                  them in memory until another map is loaded. Takes effect the next time a map is loaded.
+     */
+    public void setDeadlockPatternDirectory(@Nullable Path directory) {
+        this.patternDirectory = directory;
+    }
+
+    /**
+     * Loads and reads the map line by line, instantiates and initializes map. Rows may be in either format of
+     * {@link LevelFile}.
      *
      * @param filename the map text filename
      * @throws InvalidMapException when the map is invalid
@@ -47,31 +73,94 @@ public class GameLevel {
 
             char[][] rep = new char[numRows][numCols];
             for (int r = 0; r < numRows; r++) {
-                String row = reader.nextLine();
-                for (int c = 0; c < numCols; c++) {
-                    rep[r][c] = row.charAt(c);
-                }
+                LevelFile.decodeRow(reader.nextLine(), r, rep[r]);
             }
 
             map = new Map();
             map.initialize(numRows, numCols, rep);
+            board = null;
+            patterns = null;
         }
     }
 
+    /**
+     * Puts the loaded map back into its initial position without reading the file again, and resets the number of
+     * moves.
+     */
+    public void reset() {
+        map.reset();
+        numPushes.set(0);
+    }
+
     /**
      * @return Whether or not the win condition has been satisfied
      */
     public boolean isWin() {
-        return map.getDestTiles().parallelStream().allMatch(DestTile::isCompleted);
+        return map.isEveryDestTileCompleted();
     }
 
     /**
-     * When no crates can be moved but the game is not won, then deadlock has occurred
+     * When no crates can be moved but the game is not won, then deadlock has occurred. Otherwise, the position is
+     * checked against the known {@link DeadlockPatterns} of the level. Groups of crates next to each other are searched
+     * for new patterns in the background, so a deadlock found that way is reported by the next check.
      *
      * @return Whether deadlock has occurred
      */
     public boolean isDeadlocked() {
-        return map.getCrates().parallelStream().anyMatch(c -> !isCrateOnDestTile(c) && !isCrateMovable(c)) && !isWin();
+        if (isWin()) {
+            return false;
+        }
+        if (map.getCrates().parallelStream().anyMatch(c -> !isCrateOnDestTile(c) && !isCrateMovable(c))) {
+            return true;
+        }
+
+        final DeadlockPatterns p = getDeadlockPatterns();
+        final int[] crates = map.getCrates().stream().mapToInt(c -> board.toIndex(c.getR(), c.getC())).toArray();
+        final Player player = map.getPlayer();
+        final int playerCell = board.toIndex(player.getR(), player.getC());
+        if (p.matches(crates, playerCell)) {
+            return true;
+        }
+
+        final long gen = ++learnGeneration;
+        final boolean save = patternDirectory != null;
+        PATTERN_SAVER.execute(() -> {
+            // one group per call, so that a check on the FX thread waits for at most one search; stop once the player
+            // has moved on, since only the latest position is worth searching
+            for (int c : crates) {
+                if (gen != learnGeneration || p.isDeadlockedAround(crates, playerCell, c)) {
+                    break;
+                }
+            }
+            if (save && p.isModified()) {
+                try {
+                    p.save();
+                } catch (IOException e) {
+                    System.err.println("Unable to save deadlock patterns: " + e.getMessage());
+                }
+            }
+        });
+        return false;
+    }
+
+    /**
+     * @return Deadlock patterns of the loaded map, loaded from the pattern directory the first time.
+     */
+    private DeadlockPatterns getDeadlockPatterns() {
+        if (patterns == null) {
+            board = Board.fromMap(map);
+            if (patternDirectory != null) {
+                try {
+                    patterns = new DeadlockPatterns(board, patternDirectory.resolve(DeadlockPatterns.fileName(board)));
+                } catch (IOException e) {
+                    System.err.println("Unable to load deadlock patterns: " + e.getMessage());
+                }
+            }
+            if (patterns == null) {
+                patterns = new DeadlockPatterns(board);
+            }
+        }
+        return patterns;
     }
 
     /**
@@ -81,7 +170,7 @@ public class GameLevel {
      * @return True if crate is on a destination tile.
      */
     private boolean isCrateOnDestTile(Crate c) {
-        return map.getDestTiles().parallelStream().anyMatch(dt -> dt.getOccupant().orElse(null) == c);
+        return map.isDest(c.getR(), c.getC());
     }
 
     /**
@@ -91,21 +180,17 @@ public class GameLevel {
      * @return True if the crate can still be moved.
      */
     private boolean isCrateMovable(Crate c) {
-        final Cell[][] cells = map.getCells();
-
-        Cell leftCell = c.getR() - 1 >= 0 ? cells[c.getR() - 1][c.getC()] : null;
-        Cell rightCell = c.getR() + 1 < cells.length ? cells[c.getR() + 1][c.getC()] : null;
-        Cell upCell = c.getC() - 1 >= 0 ? cells[c.getR()][c.getC() - 1] : null;
-        Cell downCell = c.getC() + 1 < cells[c.getR()].length ? cells[c.getR()][c.getC() + 1] : null;
+        final int r = c.getR();
+        final int col = c.getC();
 
-        if (leftCell instanceof Occupiable && rightCell instanceof Occupiable) {
-            if (!(((Occupiable) leftCell).getOccupant().orElse(null) instanceof Player && ((Occupiable) rightCell).getOccupant().orElse(null) instanceof Player)) {
+        if (!map.isWall(r - 1, col) && !map.isWall(r + 1, col)) {
+            if (!(map.getOccupant(r - 1, col) instanceof Player && map.getOccupant(r + 1, col) instanceof Player)) {
                 return true;
             }
         }
 
-        if (upCell instanceof Occupiable && downCell instanceof Occupiable) {
-            if (!(((Occupiable) upCell).getOccupant().orElse(null) instanceof Player && ((Occupiable) downCell).getOccupant().orElse(null) instanceof Player)) {
+        if (!map.isWall(r, col - 1) && !map.isWall(r, col + 1)) {
+            if (!(map.getOccupant(r, col - 1) instanceof Player && map.getOccupant(r, col + 1) instanceof Player)) {
                 return true;
             }
         }
@@ -138,7 +223,7 @@ public class GameLevel {
                 break;
         }
         if (madeMove) {
-            numPushes.setValue(numPushes.getValue() + 1);
+            numPushes.set(numPushes.get() + 1);
         }
         return madeMove;
     }
@@ -0,0 +1,81 @@
+package model.Generator;
+
+import model.LevelFile;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A level made by {@link LevelGenerator}, together with how hard the solver found it.
+ */
+public final class GeneratedLevel {
+    private final char[][] rep;
+    private final long seed;
+    private final int pushes;
+    private final long nodes;
+    private final int attempts;
+
+    /**
+     * @param rep      Cells of the level, in the format of a level file
+     * @param seed     Seed the level was generated from
+     * @param pushes   Minimum number of pushes to solve the level
+     * @param nodes    Number of states the solver expanded to solve the level
+     * @param attempts Number of candidates made, including rejected ones, before the level was picked
+     */
+    GeneratedLevel(@NotNull char[][] rep, long seed, int pushes, long nodes, int attempts) {
+        this.rep = rep;
+        this.seed = seed;
+        this.pushes = pushes;
+        this.nodes = nodes;
+        this.attempts = attempts;
+    }
+
+    public int getRows() {
+        return rep.length;
+    }
+
+    public int getCols() {
+        return rep[0].length;
+    }
+
+    /**
+     * @param r Row of the cell
+     * @param c Column of the cell
+     * @return Character of the cell in a level file.
+     */
+    public char get(int r, int c) {
+        return rep[r][c];
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return Minimum number of pushes needed to solve the level.
+     */
+    public int getPushes() {
+        return pushes;
+    }
+
+    /**
+     * @return Number of states the solver expanded to solve the level, which is used as its difficulty.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return Number of candidates made, including rejected ones, before the level was picked.
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * @param format Format of the rows
+     * @return The level as the contents of a level file.
+     */
+    @NotNull
+    public byte[] toLevelFile(@NotNull LevelFile.Format format) {
+        return LevelFile.encode(getRows(), getCols(), this::get, format);
+    }
+}
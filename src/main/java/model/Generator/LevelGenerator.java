@@ -0,0 +1,383 @@
+package model.Generator;
+
+import model.Exceptions.InvalidMapException;
+import model.Map.Map;
+import model.Solver.AStarSolver;
+import model.Solver.Board;
+import model.Solver.SolverResult;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates levels which are guaranteed to be solvable.
+ * <p>
+ * A candidate is made by carving overlapping rooms out of solid wall, placing the destinations, and putting a crate
+ * onto each of them. The crates are then pulled away from the destinations by a random walk of the player. Since every
+ * pull is a push played backwards, pushing the crates back along the same way solves the level.
+ * <p>
+ * Every candidate is solved, and rejected unless its minimal number of pushes is within the requested range. Of the
+ * accepted candidates, the one which took the solver the most states to solve is kept. The solver is limited by the
+ * number of states it expands rather than by time, so that the same seed gives the same level on any machine.
+ * <p>
+ * A generator holds no state between calls, so it can be used by several threads at once.
+ */
+public final class LevelGenerator {
+    private static final char WALL = '#';
+    private static final char TILE = '.';
+    private static final char DEST = 'C';
+    private static final char PLAYER = '@';
+    private static final char PLAYER_ON_DEST = '&';
+    private static final char CRATE = 'c';
+    private static final char CRATE_ON_DEST = '$';
+
+    private static final int[] DR = {-1, 1, 0, 0};
+    private static final int[] DC = {0, 0, -1, 1};
+
+    private final int rows;
+    private final int cols;
+    private final int numCrates;
+    private final int minPushes;
+    private final int maxPushes;
+    private int candidates = 4;
+    private int maxAttempts = 200;
+    private long maxNodes = 200_000;
+
+    /**
+     * @param rows      Number of rows of the levels, including the surrounding walls
+     * @param cols      Number of columns of the levels, including the surrounding walls
+     * @param numCrates Number of crates in the levels
+     * @param minPushes Minimum number of pushes needed to solve an accepted level
+     * @param maxPushes Maximum number of pushes needed to solve an accepted level
+     */
+    public LevelGenerator(int rows, int cols, int numCrates, int minPushes, int maxPushes) {
+        if (rows < 5 || cols < 5) {
+            throw new IllegalArgumentException("Levels must be at least 5x5");
+        }
+        if (numCrates < 1) {
+            throw new IllegalArgumentException("Levels must have at least one crate");
+        }
+        if (minPushes > maxPushes) {
+            throw new IllegalArgumentException("Minimum pushes exceed maximum pushes");
+        }
+
+        this.rows = rows;
+        this.cols = cols;
+        this.numCrates = numCrates;
+        this.minPushes = minPushes;
+        this.maxPushes = maxPushes;
+    }
+
+    /**
+     * @param candidates Number of accepted candidates to pick the hardest level from
+     */
+    public void setCandidates(int candidates) {
+        this.candidates = Math.max(1, candidates);
+    }
+
+    /**
+     * @param maxAttempts Number of candidates to make, including rejected ones, before giving up on a level
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    /**
+     * @param maxNodes Number of states the solver may expand for a single candidate. Candidates which take more are
+     *                 rejected. A limit on states rather than time keeps levels independent of the machine and its load.
+     */
+    public void setMaxNodes(long maxNodes) {
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Generates a level. The same seed always gives the same level, with the same settings.
+     *
+     * @param seed Seed of the random numbers
+     * @return The hardest accepted candidate, or {@code null} if no candidate was accepted within the maximum number
+     * of attempts.
+     */
+    @Nullable
+    public GeneratedLevel generate(long seed) {
+        final Random random = new Random(seed);
+
+        char[][] best = null;
+        SolverResult bestResult = null;
+        int accepted = 0;
+        int attempt = 0;
+        while (accepted < candidates && attempt < maxAttempts) {
+            ++attempt;
+            final char[][] rep = makeCandidate(random);
+            if (rep == null) {
+                continue;
+            }
+
+            final SolverResult result = solve(rep);
+            if (result == null || !result.isSolved() || result.getPushes() < minPushes || result.getPushes() > maxPushes) {
+                continue;
+            }
+
+            ++accepted;
+            if (bestResult == null || result.getNodes() > bestResult.getNodes()) {
+                best = rep;
+                bestResult = result;
+            }
+        }
+
+        return best == null ? null : new GeneratedLevel(best, seed, bestResult.getPushes(), bestResult.getNodes(), attempt);
+    }
+
+    /**
+     * Solves a candidate.
+     *
+     * @param rep The candidate
+     * @return Outcome of the search, or {@code null} if the candidate is not a valid map.
+     */
+    @Nullable
+    private SolverResult solve(@NotNull char[][] rep) {
+        final Map map = new Map();
+        try {
+            map.initialize(rows, cols, rep);
+        } catch (InvalidMapException e) {
+            return null;
+        }
+
+        final AStarSolver solver = new AStarSolver(Board.fromMap(map));
+        solver.setMaxNodes(maxNodes);
+        return solver.solve();
+    }
+
+    /**
+     * Makes a candidate: carves the rooms, places the destinations, and pulls the crates away from them.
+     *
+     * @param random Source of random numbers
+     * @return The candidate, or {@code null} if the rooms turned out too small, or a crate could not be moved off its
+     * destination.
+     */
+    @Nullable
+    private char[][] makeCandidate(@NotNull Random random) {
+        final boolean[] floor = carveRooms(random);
+
+        int numFloor = 0;
+        for (boolean f : floor) {
+            if (f) {
+                ++numFloor;
+            }
+        }
+        if (numFloor < numCrates * 3 + 2) {
+            return null;
+        }
+
+        final int[] floorCells = new int[numFloor];
+        for (int i = 0, n = 0; i < floor.length; ++i) {
+            if (floor[i]) {
+                floorCells[n++] = i;
+            }
+        }
+
+        // goals and the player are placed on distinct cells, by shuffling the first few floor cells
+        for (int i = 0; i <= numCrates; ++i) {
+            final int j = i + random.nextInt(numFloor - i);
+            final int tmp = floorCells[i];
+            floorCells[i] = floorCells[j];
+            floorCells[j] = tmp;
+        }
+
+        final boolean[] goal = new boolean[floor.length];
+        final boolean[] crate = new boolean[floor.length];
+        final int[] crates = Arrays.copyOf(floorCells, numCrates);
+        for (int c : crates) {
+            goal[c] = true;
+            crate[c] = true;
+        }
+        int player = floorCells[numCrates];
+
+        player = pullCrates(random, floor, crate, crates, player);
+        for (int c : crates) {
+            if (goal[c]) {
+                return null;
+            }
+        }
+
+        final char[][] rep = new char[rows][cols];
+        for (int r = 0; r < rows; ++r) {
+            for (int c = 0; c < cols; ++c) {
+                final int i = r * cols + c;
+                if (!floor[i]) {
+                    rep[r][c] = WALL;
+                } else if (i == player) {
+                    rep[r][c] = goal[i] ? PLAYER_ON_DEST : PLAYER;
+                } else if (crate[i]) {
+                    rep[r][c] = goal[i] ? CRATE_ON_DEST : CRATE;
+                } else {
+                    rep[r][c] = goal[i] ? DEST : TILE;
+                }
+            }
+        }
+        return rep;
+    }
+
+    /**
+     * Carves overlapping rectangular rooms out of solid wall. Each room after the first overlaps the floor carved so
+     * far, so the floor is always connected. The outermost rows and columns are left as walls.
+     * <p>
+     * Open areas are then broken up by single pillars of wall. A pillar is only put where all eight cells around it
+     * are floor, so that it never cuts the floor in two.
+     *
+     * @param random Source of random numbers
+     * @return Whether each cell, in row-major order, is floor.
+     */
+    @NotNull
+    private boolean[] carveRooms(@NotNull Random random) {
+        final boolean[] floor = new boolean[rows * cols];
+        final int innerRows = rows - 2;
+        final int innerCols = cols - 2;
+        final int numRooms = 2 + innerRows * innerCols / 20 + random.nextInt(3);
+
+        boolean first = true;
+        for (int room = 0, tries = 0; room < numRooms && tries < numRooms * 20; ++tries) {
+            final int h = 2 + random.nextInt(Math.min(4, innerRows - 1));
+            final int w = 2 + random.nextInt(Math.min(4, innerCols - 1));
+            final int top = 1 + random.nextInt(innerRows - h + 1);
+            final int left = 1 + random.nextInt(innerCols - w + 1);
+
+            boolean overlaps = first;
+            for (int r = top; r < top + h && !overlaps; ++r) {
+                for (int c = left; c < left + w && !overlaps; ++c) {
+                    overlaps = floor[r * cols + c];
+                }
+            }
+            if (!overlaps) {
+                continue;
+            }
+
+            for (int r = top; r < top + h; ++r) {
+                for (int c = left; c < left + w; ++c) {
+                    floor[r * cols + c] = true;
+                }
+            }
+            first = false;
+            ++room;
+        }
+
+        for (int pillar = innerRows * innerCols / 10; pillar > 0; --pillar) {
+            final int r = 1 + random.nextInt(innerRows);
+            final int c = 1 + random.nextInt(innerCols);
+            if (isOpen(floor, r, c)) {
+                floor[r * cols + c] = false;
+            }
+        }
+        return floor;
+    }
+
+    /**
+     * @return Whether a cell and all eight cells around it are floor.
+     */
+    private boolean isOpen(@NotNull boolean[] floor, int r, int c) {
+        for (int i = r - 1; i <= r + 1; ++i) {
+            for (int j = c - 1; j <= c + 1; ++j) {
+                if (!floor[i * cols + j]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Pulls the crates around by a random walk of the player. A crate at {@code x} can be pulled in direction
+     * {@code d} if the player can reach {@code x + d}, and {@code x + 2d} is free for the player to step back onto.
+     * <p>
+     * An unbiased walk mostly wanders around the destinations, so pulls taking a crate further away from where it
+     * started are preferred, which makes the number of pushes of the solution follow the number of pulls.
+     *
+     * @param random Source of random numbers
+     * @param floor  Whether each cell is floor
+     * @param crate  Whether each cell holds a crate. Updated by the pulls.
+     * @param crates Cells of the crates. Updated by the pulls.
+     * @param player Cell of the player
+     * @return Cell of the player after the pulls, picked at random among the cells reachable from there.
+     */
+    private int pullCrates(@NotNull Random random, @NotNull boolean[] floor, @NotNull boolean[] crate,
+                           @NotNull int[] crates, int player) {
+        final int[] queue = new int[floor.length];
+        final int[] seen = new int[floor.length];
+        final int[] starts = crates.clone();
+        final int[] moves = new int[crates.length * 4];
+        final int[] away = new int[crates.length * 4];
+        final int fewest = Math.max(minPushes, numCrates * 4);
+        final int numPulls = fewest + random.nextInt(Math.max(1, Math.min(maxPushes, fewest * 3) - fewest + 1));
+
+        for (int pull = 0; pull <= numPulls; ++pull) {
+            // cells reachable by the player are marked with the number of the pull
+            final int mark = pull + 1;
+            int tail = 0;
+            queue[tail++] = player;
+            seen[player] = mark;
+            for (int head = 0; head < tail; ++head) {
+                final int x = queue[head];
+                for (int d = 0; d < 4; ++d) {
+                    final int y = step(x, d);
+                    if (y != -1 && floor[y] && !crate[y] && seen[y] != mark) {
+                        seen[y] = mark;
+                        queue[tail++] = y;
+                    }
+                }
+            }
+
+            if (pull == numPulls) {
+                return queue[random.nextInt(tail)];
+            }
+
+            int numMoves = 0;
+            int numAway = 0;
+            for (int k = 0; k < crates.length; ++k) {
+                for (int d = 0; d < 4; ++d) {
+                    final int stand = step(crates[k], d);
+                    final int back = stand == -1 ? -1 : step(stand, d);
+                    if (back != -1 && seen[stand] == mark && floor[back] && !crate[back]) {
+                        moves[numMoves++] = k * 4 + d;
+                        if (distance(stand, starts[k]) > distance(crates[k], starts[k])) {
+                            away[numAway++] = k * 4 + d;
+                        }
+                    }
+                }
+            }
+            if (numMoves == 0) {
+                return queue[random.nextInt(tail)];
+            }
+
+            final int move = numAway != 0 && random.nextInt(4) != 0
+                    ? away[random.nextInt(numAway)]
+                    : moves[random.nextInt(numMoves)];
+            final int k = move / 4;
+            final int d = move % 4;
+            final int stand = step(crates[k], d);
+            crate[crates[k]] = false;
+            crate[stand] = true;
+            crates[k] = stand;
+            player = step(stand, d);
+        }
+        return player;
+    }
+
+    /**
+     * @return Manhattan distance between two cells in row-major order.
+     */
+    private int distance(int a, int b) {
+        return Math.abs(a / cols - b / cols) + Math.abs(a % cols - b % cols);
+    }
+
+    /**
+     * @param i Cell in row-major order
+     * @param d Direction, indexing {@link #DR} and {@link #DC}
+     * @return The neighbouring cell in the direction, or -1 if it is outside the level.
+     */
+    private int step(int i, int d) {
+        final int r = i / cols + DR[d];
+        final int c = i % cols + DC[d];
+        return r < 0 || r >= rows || c < 0 || c >= cols ? -1 : r * cols + c;
+    }
+}
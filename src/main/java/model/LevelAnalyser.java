@@ -0,0 +1,210 @@
+package model;
+
+import model.Exceptions.InvalidMapException;
+import model.Solver.Board;
+import model.Solver.Solver;
+import model.Solver.SolverResult;
+import model.Solver.SolverType;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import static model.DaemonThreads.daemonThreadFactory;
+
+/**
+ * Works out the {@link LevelMetrics} of the levels in a directory in the background, by solving each of them.
+ * <p>
+ * Levels found in the {@link LevelIndex} are not solved again. The others are solved one at a time, and stored into
+ * the index as they are done; the index is saved once the whole directory has been analysed. Levels which ran out of
+ * time are published but not stored, so that they are tried again by the next analysis. Starting on another
+ * directory cancels the analysis in progress.
+ */
+public class LevelAnalyser {
+    private static final long DEFAULT_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * Solves the levels, one at a time.
+     */
+    private static final ExecutorService WORKER =
+            Executors.newSingleThreadExecutor(daemonThreadFactory("level-analyser", Thread.MIN_PRIORITY));
+
+    /**
+     * Cancels searches running out of time.
+     */
+    private static final ScheduledExecutorService TIMER =
+            Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("level-analyser-timeout"));
+
+    private final LevelIndex index;
+    private final Executor publisher;
+    private final long timeoutMillis;
+
+    //Incremented by every call to start, so that the analysis of an older directory can tell it is stale
+    private volatile long generation = 0;
+    private volatile Solver running;
+
+    /**
+     * @param index         Index to look up and store metrics in
+     * @param publisher     Executor on which results are handed over, e.g. the application thread
+     * @param timeoutMillis Time limit for solving a single level
+     */
+    public LevelAnalyser(@NotNull LevelIndex index, @NotNull Executor publisher, long timeoutMillis) {
+        this.index = index;
+        this.publisher = publisher;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * @param index     Index to look up and store metrics in
+     * @param publisher Executor on which results are handed over, e.g. the application thread
+     */
+    public LevelAnalyser(@NotNull LevelIndex index, @NotNull Executor publisher) {
+        this(index, publisher, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    @NotNull
+    public LevelIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Starts analysing the levels in a directory, cancelling any analysis in progress. The metrics of every level are
+     * handed to {@code sink} on the publishing executor: those found in the index right away, and the others as they
+     * are solved. Levels which cannot be loaded are left out.
+     *
+     * @param directory  Directory of the levels
+     * @param levelNames File names of the levels
+     * @param sink       Receives the name and metrics of each level
+     */
+    public void start(@NotNull Path directory, @NotNull List<String> levelNames, @NotNull BiConsumer<String, LevelMetrics> sink) {
+        final long gen = ++generation;
+        final Solver solver = running;
+        if (solver != null) {
+            solver.cancel();
+        }
+
+        final List<String> cachedNames = new ArrayList<>();
+        final List<LevelMetrics> cached = new ArrayList<>();
+        final List<String> pending = new ArrayList<>();
+        for (String name : levelNames) {
+            final LevelMetrics m = index.get(directory.resolve(name));
+            if (m != null) {
+                cachedNames.add(name);
+                cached.add(m);
+            } else {
+                pending.add(name);
+            }
+        }
+
+        publisher.execute(() -> {
+            if (gen == generation) {
+                for (int i = 0; i < cached.size(); ++i) {
+                    sink.accept(cachedNames.get(i), cached.get(i));
+                }
+            }
+        });
+
+        if (!pending.isEmpty()) {
+            WORKER.execute(() -> analyse(gen, directory, pending, sink));
+        }
+    }
+
+    /**
+     * Cancels the analysis in progress, if any.
+     */
+    public void cancel() {
+        ++generation;
+        final Solver solver = running;
+        if (solver != null) {
+            solver.cancel();
+        }
+    }
+
+    /**
+     * Solves the levels, and stores and publishes their metrics. Runs on the worker thread.
+     *
+     * @param gen        Generation of the analysis
+     * @param directory  Directory of the levels
+     * @param levelNames File names of the levels to solve
+     * @param sink       Receives the name and metrics of each level
+     */
+    private void analyse(long gen, @NotNull Path directory, @NotNull List<String> levelNames,
+                         @NotNull BiConsumer<String, LevelMetrics> sink) {
+        try {
+            for (String name : levelNames) {
+                if (gen != generation) {
+                    return;
+                }
+
+                final Path file = directory.resolve(name);
+                final GameLevel level = new GameLevel();
+                try {
+                    level.loadMap(file.toString());
+                } catch (FileNotFoundException | InvalidMapException | RuntimeException e) {
+                    // Scanner throws runtime exceptions on malformed files; the level list reports invalid maps
+                    continue;
+                }
+
+                final SolverResult result = solve(gen, level);
+                if (gen != generation) {
+                    return;
+                }
+
+                final LevelMetrics metrics = LevelMetrics.of(level.getMap(), result);
+                if (metrics.getStatus() != SolverResult.Status.CANCELLED) {
+                    try {
+                        index.put(file, metrics);
+                    } catch (IOException e) {
+                        continue;
+                    }
+                }
+                publisher.execute(() -> {
+                    if (gen == generation) {
+                        sink.accept(name, metrics);
+                    }
+                });
+            }
+        } finally {
+            try {
+                index.save();
+            } catch (IOException e) {
+                System.err.println("Unable to save level index: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Solves a level within the time limit.
+     *
+     * @param gen   Generation of the analysis
+     * @param level The level
+     * @return Outcome of the search.
+     */
+    @NotNull
+    private SolverResult solve(long gen, @NotNull GameLevel level) {
+        final Solver solver = SolverType.ASTAR.create(Board.fromMap(level.getMap()));
+        running = solver;
+        // a call to start between the check of the generation and publishing the solver would not have cancelled it
+        if (gen != generation) {
+            solver.cancel();
+        }
+
+        final ScheduledFuture<?> timeout = TIMER.schedule(solver::cancel, timeoutMillis, TimeUnit.MILLISECONDS);
+        try {
+            return solver.solve();
+        } finally {
+            timeout.cancel(false);
+            running = null;
+        }
+    }
+}
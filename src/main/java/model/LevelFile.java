@@ -0,0 +1,198 @@
+package model;
+
+import model.Exceptions.InvalidMapException;
+import model.Exceptions.InvalidMapSizeException;
+import model.Exceptions.UnknownElementException;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Encodes, decodes and writes level files.
+ * <p>
+ * A level file holds the number of rows and the number of columns on their own lines, followed by one line per row.
+ * In the {@link Format#RLE run-length encoded} format, a cell may be preceded by a count, so that e.g. {@code 12#}
+ * stands for 12 walls. No map element is a digit, so both formats are read the same way, and rows of either kind may be
+ * mixed.
+ */
+public final class LevelFile {
+    /**
+     * Format of the rows of a level file.
+     */
+    public enum Format {
+        /**
+         * One character per cell.
+         */
+        PLAIN("Normal text file"),
+        /**
+         * Runs of 2 or more equal cells are written as a count followed by the character.
+         */
+        RLE("Run-length encoded text file");
+
+        private final String text;
+
+        Format(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    /**
+     * Provides the cells of a level to encode.
+     */
+    @FunctionalInterface
+    public interface Cells {
+        /**
+         * @param r Row of the cell
+         * @param c Column of the cell
+         * @return Character of the cell.
+         */
+        char get(int r, int c);
+    }
+
+    private LevelFile() {
+    }
+
+    /**
+     * Encodes a level into the bytes of a level file.
+     *
+     * @param rows   Number of rows
+     * @param cols   Number of columns
+     * @param cells  Cells of the level, which must be ASCII characters
+     * @param format Format of the rows
+     * @return Contents of the level file.
+     */
+    @NotNull
+    public static byte[] encode(int rows, int cols, @NotNull Cells cells, @NotNull Format format) {
+        final String header = rows + "\n" + cols + "\n";
+        // a run is never written longer than its cells, so the plain size bounds both formats
+        final byte[] buffer = new byte[header.length() + rows * (cols + 1)];
+
+        int pos = 0;
+        for (int i = 0; i < header.length(); ++i) {
+            buffer[pos++] = (byte) header.charAt(i);
+        }
+
+        for (int r = 0; r < rows; ++r) {
+            if (format == Format.PLAIN) {
+                for (int c = 0; c < cols; ++c) {
+                    buffer[pos++] = (byte) cells.get(r, c);
+                }
+            } else {
+                int c = 0;
+                while (c < cols) {
+                    final char ch = cells.get(r, c);
+                    int end = c + 1;
+                    while (end < cols && cells.get(r, end) == ch) {
+                        ++end;
+                    }
+
+                    if (end - c > 1) {
+                        pos = putCount(buffer, pos, end - c);
+                    }
+                    buffer[pos++] = (byte) ch;
+                    c = end;
+                }
+            }
+            buffer[pos++] = '\n';
+        }
+
+        return pos == buffer.length ? buffer : Arrays.copyOf(buffer, pos);
+    }
+
+    /**
+     * Writes a count in decimal.
+     *
+     * @return Position after the count.
+     */
+    private static int putCount(@NotNull byte[] buffer, int pos, int count) {
+        final int digits = Integer.toString(count).length();
+        for (int i = pos + digits - 1; i >= pos; --i) {
+            buffer[i] = (byte) ('0' + count % 10);
+            count /= 10;
+        }
+        return pos + digits;
+    }
+
+    /**
+     * Decodes a row of a level file in either format.
+     *
+     * @param line The row as read from the file
+     * @param r    Index of the row, for error messages
+     * @param out  Receives the cells of the row. Cells beyond its length are ignored.
+     * @throws InvalidMapException if a count is not followed by a cell, or the row is shorter than {@code out}.
+     */
+    public static void decodeRow(@NotNull String line, int r, @NotNull char[] out) throws InvalidMapException {
+        int c = 0;
+        int i = 0;
+        while (i < line.length() && c < out.length) {
+            int count = 1;
+            if (isDigit(line.charAt(i))) {
+                count = 0;
+                while (i < line.length() && isDigit(line.charAt(i))) {
+                    count = Math.min(count * 10 + (line.charAt(i) - '0'), out.length);
+                    ++i;
+                }
+                if (i == line.length()) {
+                    throw new UnknownElementException("Row " + r + " ends with a count");
+                }
+            }
+
+            final char ch = line.charAt(i++);
+            for (int end = Math.min(c + count, out.length); c < end; ++c) {
+                out[c] = ch;
+            }
+        }
+
+        if (c < out.length) {
+            throw new InvalidMapSizeException("Row " + r + " has " + c + " columns instead of " + out.length);
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Replaces a file with new contents, such that the file either has its old or its new contents at any time, even
+     * if writing fails half way. The contents are written into a temporary file next to it first, which is then moved
+     * over the file.
+     *
+     * @param path Path of the file
+     * @param data New contents of the file
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(@NotNull Path path, @NotNull byte[] data) throws IOException {
+        final Path target = path.toAbsolutePath();
+        final Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                final ByteBuffer buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
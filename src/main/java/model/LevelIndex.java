@@ -0,0 +1,150 @@
+package model;
+
+import model.Solver.SolverResult;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Cache of the {@link LevelMetrics} of level files, so that levels are only analysed again once they change.
+ * <p>
+ * Entries are keyed by the absolute path of the level file, and only used while the size and modification time of the
+ * file are what they were when it was analysed. The index is stored as a text file with one tab-separated entry per
+ * line; malformed lines are skipped when loading.
+ * <p>
+ * This class is thread-safe, so the index can be filled in by a background analyser while it is read.
+ */
+public class LevelIndex {
+    private final Path path;
+    private final Map<Path, Entry> entries = new HashMap<>();
+    private boolean modified = false;
+
+    private static final class Entry {
+        private final long size;
+        private final long modifiedTime;
+        private final LevelMetrics metrics;
+
+        private Entry(long size, long modifiedTime, @NotNull LevelMetrics metrics) {
+            this.size = size;
+            this.modifiedTime = modifiedTime;
+            this.metrics = metrics;
+        }
+    }
+
+    /**
+     * Creates an empty index which is only kept in memory.
+     */
+    public LevelIndex() {
+        this.path = null;
+    }
+
+    /**
+     * Loads an index.
+     *
+     * @param path Path of the index file. The file does not need to exist.
+     * @throws IOException if the file exists but cannot be read.
+     */
+    public LevelIndex(@NotNull Path path) throws IOException {
+        this.path = path;
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        final List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        for (String line : lines) {
+            final String[] fields = line.split("\t");
+            if (fields.length != 8) {
+                continue;
+            }
+
+            try {
+                final LevelMetrics metrics = new LevelMetrics(SolverResult.Status.valueOf(fields[3]),
+                        Integer.parseInt(fields[4]), Long.parseLong(fields[5]), Integer.parseInt(fields[6]),
+                        Double.parseDouble(fields[7]));
+                entries.put(Paths.get(fields[0]), new Entry(Long.parseLong(fields[1]), Long.parseLong(fields[2]), metrics));
+            } catch (IllegalArgumentException e) {
+                // NumberFormatException included
+            }
+        }
+    }
+
+    /**
+     * @return Default location of the index, in the home directory of the user.
+     */
+    @NotNull
+    public static Path defaultPath() {
+        return Paths.get(System.getProperty("user.home"), ".sokoban", "level-index.txt");
+    }
+
+    /**
+     * @param level Path of a level file
+     * @return The metrics of the level, or {@code null} if it has not been analysed, or has changed since.
+     */
+    @Nullable
+    public synchronized LevelMetrics get(@NotNull Path level) {
+        final Path key = level.toAbsolutePath().normalize();
+        final Entry e = entries.get(key);
+        if (e == null) {
+            return null;
+        }
+
+        try {
+            return Files.size(key) == e.size && Files.getLastModifiedTime(key).toMillis() == e.modifiedTime ? e.metrics : null;
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores the metrics of a level, as of the current contents of its file.
+     *
+     * @param level   Path of the level file
+     * @param metrics Metrics of the level
+     * @throws IOException if the size or modification time of the file cannot be read.
+     */
+    public synchronized void put(@NotNull Path level, @NotNull LevelMetrics metrics) throws IOException {
+        final Path key = level.toAbsolutePath().normalize();
+        entries.put(key, new Entry(Files.size(key), Files.getLastModifiedTime(key).toMillis(), metrics));
+        modified = true;
+    }
+
+    /**
+     * Writes the index to its file, replacing it atomically. Does nothing if nothing has been stored since the last
+     * save, or the index is only kept in memory.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    public synchronized void save() throws IOException {
+        if (path == null || !modified) {
+            return;
+        }
+
+        final StringBuilder text = new StringBuilder();
+        for (Map.Entry<Path, Entry> e : entries.entrySet()) {
+            final LevelMetrics m = e.getValue().metrics;
+            text.append(e.getKey()).append('\t')
+                    .append(e.getValue().size).append('\t')
+                    .append(e.getValue().modifiedTime).append('\t')
+                    .append(m.getStatus()).append('\t')
+                    .append(m.getPushes()).append('\t')
+                    .append(m.getNodes()).append('\t')
+                    .append(m.getNumCrates()).append('\t')
+                    .append(String.format(Locale.ROOT, "%.4f", m.getDeadSquareRatio())).append('\n');
+        }
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        LevelFile.write(path, text.toString().getBytes(StandardCharsets.UTF_8));
+        modified = false;
+    }
+}
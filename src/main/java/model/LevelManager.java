@@ -7,8 +7,17 @@ import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.ObservableMap;
 import javafx.scene.control.Alert;
 import model.Exceptions.InvalidMapException;
+import model.Map.Map;
+import model.Replay.Lurd;
+import model.Replay.Replay;
+import model.Replay.ReplayFile;
+import model.Replay.ReplayRecorder;
+import model.Replay.SessionJournal;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -16,9 +25,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static model.DaemonThreads.daemonThreadFactory;
+
 /**
  * Keeps track of the current GameLevel and level name. Also tracks information
  * that's related to this game level but not specific to the map of the game
@@ -26,11 +39,22 @@ import java.util.stream.Stream;
  */
 public class LevelManager {
     private static final LevelManager ourInstance = new LevelManager();
+
+    /**
+     * Writes to disk off the application thread, in the order the writes were handed over.
+     */
+    private static final ExecutorService WRITER =
+            Executors.newSingleThreadExecutor(daemonThreadFactory("level-writer"));
+
     private final ObservableList<String> levelNames = FXCollections.observableArrayList();
     private final StringProperty curLevelNameProperty = new SimpleStringProperty();
     private final IntegerProperty curGameLevelExistedDuration = new SimpleIntegerProperty();
     private final IntegerProperty curGameLevelNumRestarts = new SimpleIntegerProperty();
     private final GameLevel gameLevel = new GameLevel();
+    private final ReplayRecorder replayRecorder = new ReplayRecorder();
+    private SessionJournal journal;
+    private final ObservableMap<String, LevelMetrics> levelMetrics = FXCollections.observableHashMap();
+    private LevelAnalyser analyser;
     private Timer t = new Timer(true); //declare as daemon, so application exits when Platform.exit is called
     private String mapDirectory = "";
 
@@ -49,10 +73,168 @@ public class LevelManager {
         return gameLevel;
     }
 
+    public ReplayRecorder getReplayRecorder() {
+        return replayRecorder;
+    }
+
+    /**
+     * @param journal Journal to autosave the level being played into, or {@code null} to not autosave.
+     */
+    public void setJournal(@Nullable SessionJournal journal) {
+        this.journal = journal;
+    }
+
+    @Nullable
+    public SessionJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * @param index Index to cache the metrics of levels in, or {@code null} to not analyse levels. Takes effect the
+     *              next time the level names are loaded.
+     */
+    public void setLevelIndex(@Nullable LevelIndex index) {
+        if (analyser != null) {
+            analyser.cancel();
+        }
+        analyser = index == null ? null : new LevelAnalyser(index, Platform::runLater);
+    }
+
+    /**
+     * @return Metrics of the levels in {@link #levelNames}, keyed by level name. Filled in on the application thread
+     * as the levels are analysed in the background.
+     */
+    public ObservableMap<String, LevelMetrics> getLevelMetrics() {
+        return levelMetrics;
+    }
+
+    /**
+     * Makes a move in the current level, saving it into the history, and recording it into the replay and the
+     * journal if it succeeds.
+     *
+     * @param d Direction of the move
+     * @return Whether the move was made.
+     */
+    public boolean makeMove(@NotNull Map.Direction d) {
+        final Map map = gameLevel.getMap();
+
+        map.getHistory().save(d);
+        final boolean push = Lurd.isPush(map, d);
+        if (!gameLevel.makeMove(Lurd.toKey(Lurd.toChar(d, push)))) {
+            map.getHistory().pop();
+            return false;
+        }
+
+        replayRecorder.record(d, push, System.currentTimeMillis());
+        if (journal != null) {
+            journal.record(d, push);
+        }
+        return true;
+    }
+
+    /**
+     * Undoes the last move in the current level, removing it from the replay and recording the undo into the journal.
+     */
+    public void undoMove() {
+        gameLevel.getMap().getHistory().restore();
+        replayRecorder.undo();
+        if (journal != null) {
+            journal.undo();
+        }
+    }
+
+    /**
+     * Marks the session in the journal as ended, so that it is not offered for resuming. Called when the level is
+     * cleared or left. The journal is synced in the background.
+     */
+    public void endSession() {
+        if (journal != null) {
+            journal.end();
+            syncJournalLater(journal);
+        }
+    }
+
+    /**
+     * Syncs a journal on the writer thread.
+     *
+     * @param journal Journal to sync
+     */
+    private static void syncJournalLater(@NotNull SessionJournal journal) {
+        WRITER.execute(() -> {
+            try {
+                journal.sync();
+            } catch (IOException e) {
+                System.err.println("Unable to write session journal: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Loads the level of a session read from the journal, and replays its moves, history included, so that play
+     * continues exactly where it was left. The level timer is started.
+     *
+     * @param session Session to resume
+     * @return Whether all moves of the session could be replayed. If not, play continues after the last legal move.
+     * @throws FileNotFoundException if the level is not found.
+     * @throws InvalidMapException   if the file contains an invalid map.
+     */
+    public boolean resumeSession(@NotNull SessionJournal.Session session) throws FileNotFoundException, InvalidMapException {
+        final Path levelFile = session.getLevelFile();
+        if (levelFile.getParent() == null) {
+            throw new FileNotFoundException("Invalid level path: " + levelFile);
+        }
+
+        setMapDirectory(levelFile.getParent().toString());
+        loadLevelNamesFromDisk();
+        setLevel(levelFile.getFileName().toString());
+
+        curGameLevelNumRestarts.set(session.getNumRestarts());
+        startLevelTimer();
+        curGameLevelExistedDuration.set(session.getElapsedSeconds());
+
+        final String moves = session.getMoves();
+        int i = 0;
+        while (i < moves.length()) {
+            final Map.Direction d = Lurd.toDirection(moves.charAt(i));
+            if (d == null || !makeMove(d)) {
+                break;
+            }
+            ++i;
+        }
+
+        if (journal != null) {
+            journal.status(session.getElapsedSeconds(), session.getNumRestarts());
+            syncJournalLater(journal);
+        }
+        return i == moves.length();
+    }
+
+    /**
+     * Appends the moves recorded in the current session to the replay file of the current level, if any moves were
+     * made, and starts a new session. The file is written in the background.
+     */
+    public void saveReplay() {
+        String levelName = curLevelNameProperty.getValue();
+        if (!replayRecorder.isEmpty() && levelName != null && !levelName.isEmpty()) {
+            final Path levelFile = Paths.get(mapDirectory, levelName);
+            final Replay replay = replayRecorder.toReplay();
+            WRITER.execute(() -> {
+                try {
+                    ReplayFile.append(levelFile, replay);
+                } catch (IOException e) {
+                    System.err.println("Unable to save replay: " + e.getMessage());
+                }
+            });
+        }
+        replayRecorder.start(System.currentTimeMillis());
+    }
+
     /**
      * Clears and loads the the level names into {@link #levelNames}. Can be done succinctly using
      * Streams, Predicates, and Consumers. Load the files by alphabetical sorted order.
      * <p>
+     * Also starts analysing the levels in the background, filling in {@link #getLevelMetrics()}.
+     * <p>
      * Hints: Files.walk(Paths.get(mapDirectory), 1) returns a Stream of files 1 folder deep
      */
     public void loadLevelNamesFromDisk() {
@@ -67,8 +249,14 @@ public class LevelManager {
 
             levelNames.clear();
             levelNames.addAll(files);
+
+            levelMetrics.clear();
+            if (analyser != null) {
+                analyser.start(Paths.get(mapDirectory), files, levelMetrics::put);
+            }
         } catch (IOException e) {
             levelNames.clear();
+            levelMetrics.clear();
 
             Alert box = new Alert(Alert.AlertType.WARNING);
             box.setHeaderText("Cannot open folder");
@@ -98,6 +286,7 @@ public class LevelManager {
      * @throws InvalidMapException if the file contains an invalid map.
      */
     public void setLevel(String levelName) throws FileNotFoundException, InvalidMapException {
+        saveReplay();
         gameLevel.numPushesProperty().set(0);
         resetLevelTimer();
 
@@ -110,16 +299,50 @@ public class LevelManager {
     }
 
     /**
-     * Starts the timer, which updates {@link #curGameLevelExistedDuration} every second.
+     * Puts the current level back into its initial position without reading it from disk again. Like
+     * {@link #setLevel(String)}, the timer is reset but not started. The replay of the attempt is saved in the
+     * background, so restarting does no disk I/O on the calling thread.
+     */
+    public void restartLevel() {
+        saveReplay();
+        gameLevel.reset();
+        resetLevelTimer();
+    }
+
+    /**
+     * Starts the timer, which updates {@link #curGameLevelExistedDuration} every second. Also starts a new session in
+     * the journal, which the timer syncs right away and then every second.
      * <p>
      * Hint: {@link java.util.Timer#scheduleAtFixedRate(TimerTask, long, long)} and
      * {@link javafx.application.Platform#runLater(Runnable)} are required
      */
     public void startLevelTimer() {
+        replayRecorder.start(System.currentTimeMillis());
+
+        final SessionJournal journal = this.journal;
+        if (journal != null) {
+            journal.begin(Paths.get(mapDirectory, curLevelNameProperty.getValue()).normalize(),
+                    curGameLevelNumRestarts.get());
+        }
+
         t.scheduleAtFixedRate(new TimerTask() {
             @Override
             public void run() {
-                Platform.runLater(() -> curGameLevelExistedDuration.set(curGameLevelExistedDuration.getValue() + 1));
+                Platform.runLater(() -> {
+                    curGameLevelExistedDuration.set(curGameLevelExistedDuration.getValue() + 1);
+                    if (journal != null) {
+                        journal.status(curGameLevelExistedDuration.get(), curGameLevelNumRestarts.get());
+                    }
+                });
+
+                // batches the moves of the last second into a single write, off the application thread
+                if (journal != null) {
+                    try {
+                        journal.sync();
+                    } catch (IOException e) {
+                        System.err.println("Unable to write session journal: " + e.getMessage());
+                    }
+                }
             }
         }, 0, 1000);
     }
@@ -0,0 +1,109 @@
+package model;
+
+import model.Map.Map;
+import model.Solver.Board;
+import model.Solver.SolverResult;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Measures of how hard a level is, as found by {@link LevelAnalyser}.
+ */
+public final class LevelMetrics {
+    private final SolverResult.Status status;
+    private final int pushes;
+    private final long nodes;
+    private final int numCrates;
+    private final double deadSquareRatio;
+
+    /**
+     * @param status          Outcome of solving the level. {@link SolverResult.Status#CANCELLED} means the solver ran
+     *                        out of time.
+     * @param pushes          Minimum number of pushes to solve the level, or -1 if not solved
+     * @param nodes           Number of states the solver expanded
+     * @param numCrates       Number of crates
+     * @param deadSquareRatio Fraction of floor cells from which a crate can never reach a destination
+     */
+    public LevelMetrics(@NotNull SolverResult.Status status, int pushes, long nodes, int numCrates, double deadSquareRatio) {
+        this.status = status;
+        this.pushes = pushes;
+        this.nodes = nodes;
+        this.numCrates = numCrates;
+        this.deadSquareRatio = deadSquareRatio;
+    }
+
+    /**
+     * @param map    The level
+     * @param result Outcome of solving the level
+     * @return Metrics of the level.
+     */
+    @NotNull
+    public static LevelMetrics of(@NotNull Map map, @NotNull SolverResult result) {
+        final Board board = Board.fromMap(map);
+        int floor = 0;
+        int dead = 0;
+        for (int i = 0; i < board.size(); ++i) {
+            if (board.isFloor(i)) {
+                ++floor;
+                if (board.isDead(i)) {
+                    ++dead;
+                }
+            }
+        }
+
+        return new LevelMetrics(result.getStatus(), result.getPushes(), result.getNodes(), map.getCrates().size(),
+                floor == 0 ? 0 : (double) dead / floor);
+    }
+
+    /**
+     * @return Outcome of solving the level. {@link SolverResult.Status#CANCELLED} means the solver ran out of time.
+     */
+    @NotNull
+    public SolverResult.Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return Minimum number of pushes needed to solve the level, or -1 if it was not solved.
+     */
+    public int getPushes() {
+        return pushes;
+    }
+
+    /**
+     * @return Number of states the solver expanded. If the solver ran out of time, this is a lower bound.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    public int getNumCrates() {
+        return numCrates;
+    }
+
+    /**
+     * @return Fraction of floor cells from which a crate can never reach a destination, between 0 and 1.
+     */
+    public double getDeadSquareRatio() {
+        return deadSquareRatio;
+    }
+
+    /**
+     * @return A short description, e.g. for the level list.
+     */
+    @Override
+    public String toString() {
+        final String solution;
+        switch (status) {
+            case SOLVED:
+                solution = pushes + " pushes";
+                break;
+            case UNSOLVABLE:
+                solution = "unsolvable";
+                break;
+            default:
+                solution = "timed out";
+                break;
+        }
+        return String.format("%s, %d crates, %d nodes, %.0f%% dead", solution, numCrates, nodes, deadSquareRatio * 100);
+    }
+}
@@ -4,26 +4,53 @@ import model.Exceptions.InvalidMapException;
 import model.Exceptions.InvalidNumberOfPlayersException;
 import model.Exceptions.UnknownElementException;
 import model.Map.Occupant.Crate;
+import model.Map.Occupant.Occupant;
 import model.Map.Occupant.Player;
 import model.Map.Occupiable.DestTile;
-import model.Map.Occupiable.Occupiable;
 import model.Map.Occupiable.Tile;
+import org.jetbrains.annotations.Nullable;
 import viewmodel.LevelEditorCanvas;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Stack;
 
 /**
  * A class holding a the 2D array of cells, representing the world map
+ * <p>
+ * The terrain is stored as one byte per cell, and whatever occupies each cell is stored in a separate array. The
+ * {@link Cell} objects of {@link #getCells()} are only created when first asked for, and are views onto these arrays:
+ * every wall is the same {@link Wall} instance, and tiles read and write the occupant array.
  */
 public class Map {
-    private Cell[][] cells;
-    private ArrayList<DestTile> destTiles = new ArrayList<>();
+    private static final byte WALL = 0;
+    private static final byte TILE = 1;
+    private static final byte DEST = 2;
+
+    private int rows;
+    private int cols;
+    private byte[] terrain = new byte[0];
+    private Occupant[] occupants = new Occupant[0];
+    private int[] destinations = new int[0];
     private ArrayList<Crate> crates = new ArrayList<>();
 
     private Player player;
 
+    /**
+     * Views of the map as cells, created on demand.
+     */
+    private Cell[][] cells;
+    private ArrayList<DestTile> destTiles;
+
+    /**
+     * Initial position of the player and the crates, as loaded.
+     */
+    private int initialPlayerR;
+    private int initialPlayerC;
+    private int[] initialCrateR = new int[0];
+    private int[] initialCrateC = new int[0];
+
     private History states = new History();
 
     /**
@@ -64,7 +91,7 @@ public class Map {
          */
         public void restore() {
             State s = states.pop();
-            ((Occupiable) cells[player.getR()][player.getC()]).removeOccupant();
+            occupants[indexOf(player.getR(), player.getC())] = null;
             switch (s.playerDir) {
                 case UP:
                     player.setPos(player.getR() + 1, player.getC());
@@ -80,12 +107,12 @@ public class Map {
                     break;
             }
 
-            ((Occupiable) cells[player.getR()][player.getC()]).setOccupant(player);
+            occupants[indexOf(player.getR(), player.getC())] = player;
 
-            crates.forEach(c -> ((Occupiable) cells[c.getR()][c.getC()]).removeOccupant());
+            crates.forEach(c -> occupants[indexOf(c.getR(), c.getC())] = null);
             crates.clear();
             crates.addAll(s.crates);
-            crates.forEach(c -> ((Occupiable) cells[c.getR()][c.getC()]).setOccupant(c));
+            crates.forEach(c -> occupants[indexOf(c.getR(), c.getC())] = c);
         }
 
         /**
@@ -103,6 +130,58 @@ public class Map {
         }
     }
 
+    /**
+     * A tile whose occupant is stored in {@link #occupants}.
+     */
+    private class TileView extends Tile {
+        private final int index;
+
+        private TileView(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Optional<Occupant> getOccupant() {
+            return Optional.ofNullable(occupants[index]);
+        }
+
+        @Override
+        public void setOccupant(Occupant o) {
+            occupants[index] = o;
+        }
+
+        @Override
+        public void removeOccupant() {
+            occupants[index] = null;
+        }
+    }
+
+    /**
+     * A destination tile whose occupant is stored in {@link #occupants}.
+     */
+    private class DestTileView extends DestTile {
+        private final int index;
+
+        private DestTileView(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Optional<Occupant> getOccupant() {
+            return Optional.ofNullable(occupants[index]);
+        }
+
+        @Override
+        public void setOccupant(Occupant o) {
+            occupants[index] = o;
+        }
+
+        @Override
+        public void removeOccupant() {
+            occupants[index] = null;
+        }
+    }
+
     /**
      * This function instantiates and initializes cells, destTiles, crates to the correct map elements (e.g. the # char
      * means a wall, @ the player, etc).
@@ -113,74 +192,112 @@ public class Map {
      * @throws InvalidMapException Throw the correct exception when necessary. There should only be 1 player.
      */
     public void initialize(int rows, int cols, char[][] rep) throws InvalidMapException {
-        cells = new Cell[rows][cols];
-        destTiles = new ArrayList<>();
+        this.rows = rows;
+        this.cols = cols;
+        terrain = new byte[rows * cols];
+        occupants = new Occupant[rows * cols];
         crates = new ArrayList<>();
         player = null;
+        cells = null;
+        destTiles = null;
 
+        int numDests = 0;
         for (int r = 0; r < rows; r++) {
             for (int c = 0; c < cols; c++) {
                 LevelEditorCanvas.Brush b = LevelEditorCanvas.Brush.fromChar(rep[r][c]);
                 if (b == null)
                     throw new UnknownElementException("Unknown char: " + rep[r][c]);
 
+                final int i = indexOf(r, c);
                 switch (b) {
                     case TILE:
-                        cells[r][c] = new Tile();
+                        terrain[i] = TILE;
                         break;
                     case PLAYER_ON_TILE:
-                        if (player == null) {
-                            player = new Player(r, c);
-                            Tile t = new Tile();
-                            cells[r][c] = t;
-                            t.setOccupant(player);
-                        } else {
-                            throw new InvalidNumberOfPlayersException(">1 players found!");
-                        }
-                        break;
                     case PLAYER_ON_DEST:
                         if (player == null) {
                             player = new Player(r, c);
-                            DestTile t = new DestTile();
-                            destTiles.add(t);
-                            cells[r][c] = t;
-                            t.setOccupant(player);
+                            terrain[i] = b == LevelEditorCanvas.Brush.PLAYER_ON_DEST ? DEST : TILE;
+                            occupants[i] = player;
                         } else {
                             throw new InvalidNumberOfPlayersException(">1 players found!");
                         }
                         break;
                     case CRATE_ON_TILE:
+                    case CRATE_ON_DEST:
                         Crate crate = new Crate(r, c);
                         crates.add(crate);
-                        Tile t = new Tile();
-                        cells[r][c] = t;
-                        t.setOccupant(crate);
-                        break;
-                    case CRATE_ON_DEST:
-                        Crate crate2 = new Crate(r, c);
-                        crates.add(crate2);
-                        DestTile t2 = new DestTile();
-                        destTiles.add(t2);
-                        cells[r][c] = t2;
-                        t2.setOccupant(crate2);
+                        terrain[i] = b == LevelEditorCanvas.Brush.CRATE_ON_DEST ? DEST : TILE;
+                        occupants[i] = crate;
                         break;
                     case WALL:
-                        cells[r][c] = new Wall();
+                        terrain[i] = WALL;
                         break;
                     case DEST:
-                        DestTile d = new DestTile();
-                        cells[r][c] = d;
-                        destTiles.add(d);
+                        terrain[i] = DEST;
                         break;
                 }
+                if (terrain[i] == DEST) {
+                    numDests++;
+                }
             }
         }
 
         if (null == player)
             throw new InvalidNumberOfPlayersException("0 players found!");
+
+        destinations = new int[numDests];
+        for (int i = 0, n = 0; i < terrain.length; i++) {
+            if (terrain[i] == DEST) {
+                destinations[n++] = i;
+            }
+        }
+
+        initialPlayerR = player.getR();
+        initialPlayerC = player.getC();
+        initialCrateR = new int[crates.size()];
+        initialCrateC = new int[crates.size()];
+        for (int i = 0; i < crates.size(); i++) {
+            initialCrateR[i] = crates.get(i).getR();
+            initialCrateC[i] = crates.get(i).getC();
+        }
     }
 
+    /**
+     * Moves the player and every crate back to where they were when the map was initialized, and clears the history.
+     * Takes time proportional to the number of crates, and allocates nothing.
+     */
+    public void reset() {
+        occupants[indexOf(player.getR(), player.getC())] = null;
+        for (int i = 0; i < crates.size(); i++) {
+            Crate c = crates.get(i);
+            occupants[indexOf(c.getR(), c.getC())] = null;
+        }
+
+        // crates are interchangeable, so it does not matter which crate goes back where
+        for (int i = 0; i < crates.size(); i++) {
+            Crate c = crates.get(i);
+            c.setPos(initialCrateR[i], initialCrateC[i]);
+            occupants[indexOf(initialCrateR[i], initialCrateC[i])] = c;
+        }
+        player.setPos(initialPlayerR, initialPlayerC);
+        occupants[indexOf(initialPlayerR, initialPlayerC)] = player;
+
+        states.clear();
+    }
+
+    /**
+     * @return Destination tiles of the map. The tiles are views created on the first call, see {@link #getCells()}.
+     */
     public ArrayList<DestTile> getDestTiles() {
+        if (destTiles == null) {
+            final Cell[][] view = getCells();
+            ArrayList<DestTile> list = new ArrayList<>(destinations.length);
+            for (int i : destinations) {
+                list.add((DestTile) view[i / cols][i % cols]);
+            }
+            destTiles = list;
+        }
         return destTiles;
     }
 
@@ -188,10 +305,98 @@ public class Map {
         return crates;
     }
 
+    /**
+     * Creates the cells of the map on the first call. Walls all share a single instance, and tiles are views onto the
+     * occupants stored by this map, so they stay valid as moves are made.
+     * <p>
+     * Code which only needs to look at the map should prefer {@link #isWall(int, int)}, {@link #isDest(int, int)} and
+     * {@link #getOccupant(int, int)}, which do not create any cells.
+     *
+     * @return The cells of the map.
+     */
     public Cell[][] getCells() {
+        if (cells == null) {
+            Cell[][] view = new Cell[rows][cols];
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    final int i = indexOf(r, c);
+                    switch (terrain[i]) {
+                        case WALL:
+                            view[r][c] = Wall.INSTANCE;
+                            break;
+                        case DEST:
+                            view[r][c] = new DestTileView(i);
+                            break;
+                        default:
+                            view[r][c] = new TileView(i);
+                            break;
+                    }
+                }
+            }
+            cells = view;
+        }
         return cells;
     }
 
+    public Player getPlayer() {
+        return player;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * @param r The row coordinate
+     * @param c The column coordinate
+     * @return Whether the location is a wall or outside the map.
+     */
+    public boolean isWall(int r, int c) {
+        return !isValid(r, c) || terrain[indexOf(r, c)] == WALL;
+    }
+
+    /**
+     * @param r The row coordinate
+     * @param c The column coordinate
+     * @return Whether the location is a destination tile.
+     */
+    public boolean isDest(int r, int c) {
+        return isValid(r, c) && terrain[indexOf(r, c)] == DEST;
+    }
+
+    /**
+     * @param r The row coordinate
+     * @param c The column coordinate
+     * @return The player or crate at the location, or null if there is none or the location is outside the map.
+     */
+    @Nullable
+    public Occupant getOccupant(int r, int c) {
+        return isValid(r, c) ? occupants[indexOf(r, c)] : null;
+    }
+
+    /**
+     * @return Number of destination tiles in the map.
+     */
+    public int getNumDestTiles() {
+        return destinations.length;
+    }
+
+    /**
+     * @return Whether every destination tile holds a crate.
+     */
+    public boolean isEveryDestTileCompleted() {
+        for (int i : destinations) {
+            if (!(occupants[i] instanceof Crate)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * @return Entire history of moves made in this map.
      */
@@ -230,14 +435,14 @@ public class Map {
 
         if (isValid(newR, newC)) {
             if (isOccupiableAndNotOccupiedWithCrate(newR, newC)) {
-                ((Occupiable) cells[curR][curC]).removeOccupant();
-                ((Occupiable) cells[newR][newC]).setOccupant(player);
+                occupants[indexOf(curR, curC)] = null;
+                occupants[indexOf(newR, newC)] = player;
                 player.setPos(newR, newC);
                 return true;
-            } else if (cells[newR][newC] instanceof Occupiable) {
-                if (moveCrate((Crate) ((Occupiable) cells[newR][newC]).getOccupant().get(), d)) {
-                    ((Occupiable) cells[curR][curC]).removeOccupant();
-                    ((Occupiable) cells[newR][newC]).setOccupant(player);
+            } else if (terrain[indexOf(newR, newC)] != WALL) {
+                if (moveCrate((Crate) occupants[indexOf(newR, newC)], d)) {
+                    occupants[indexOf(curR, curC)] = null;
+                    occupants[indexOf(newR, newC)] = player;
                     player.setPos(newR, newC);
                     return true;
                 }
@@ -277,8 +482,8 @@ public class Map {
         }
 
         if (isOccupiableAndNotOccupiedWithCrate(newR, newC)) {
-            ((Occupiable) cells[curR][curC]).removeOccupant();
-            ((Occupiable) cells[newR][newC]).setOccupant(c);
+            occupants[indexOf(curR, curC)] = null;
+            occupants[indexOf(newR, newC)] = c;
             c.setPos(newR, newC);
             return true;
         } else {
@@ -287,7 +492,11 @@ public class Map {
     }
 
     private boolean isValid(int r, int c) {
-        return r >= 0 && r < cells.length && c >= 0 && c < cells[0].length;
+        return r >= 0 && r < rows && c >= 0 && c < cols;
+    }
+
+    private int indexOf(int r, int c) {
+        return r * cols + c;
     }
 
     /**
@@ -301,9 +510,8 @@ public class Map {
             return false;
         }
 
-        return cells[r][c] instanceof Occupiable &&
-                (!((Occupiable) cells[r][c]).getOccupant().isPresent()
-                        || !(((Occupiable) cells[r][c]).getOccupant().get() instanceof Crate));
+        final int i = indexOf(r, c);
+        return terrain[i] != WALL && !(occupants[i] instanceof Crate);
     }
 
     public enum Direction {
@@ -1,7 +1,11 @@
 package model.Map;
 
 /**
- * A class representing a solid wall.
+ * A class representing a solid wall. Walls have no state, so a single instance is shared by all maps.
  */
 class Wall extends Cell {
+    static final Wall INSTANCE = new Wall();
+
+    private Wall() {
+    }
 }
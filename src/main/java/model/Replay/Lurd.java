@@ -0,0 +1,133 @@
+package model.Replay;
+
+import model.Map.Map;
+import model.Map.Occupant.Crate;
+import model.Map.Occupant.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Helpers for the LURD move notation, where each move is one of {@code l}, {@code u}, {@code r} and {@code d}, in
+ * upper case if the move pushes a crate.
+ */
+public final class Lurd {
+    private Lurd() {
+    }
+
+    /**
+     * @param d    Direction of the move
+     * @param push Whether the move pushes a crate
+     * @return The LURD character of the move.
+     */
+    public static char toChar(@NotNull Map.Direction d, boolean push) {
+        char c;
+        switch (d) {
+            case UP:
+                c = 'u';
+                break;
+            case DOWN:
+                c = 'd';
+                break;
+            case LEFT:
+                c = 'l';
+                break;
+            default:
+                c = 'r';
+                break;
+        }
+        return push ? Character.toUpperCase(c) : c;
+    }
+
+    /**
+     * @param c A LURD character
+     * @return Direction of the move, or {@code null} if the character is not a move.
+     */
+    @Nullable
+    public static Map.Direction toDirection(char c) {
+        switch (c) {
+            case 'u':
+            case 'U':
+                return Map.Direction.UP;
+            case 'd':
+            case 'D':
+                return Map.Direction.DOWN;
+            case 'l':
+            case 'L':
+                return Map.Direction.LEFT;
+            case 'r':
+            case 'R':
+                return Map.Direction.RIGHT;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @param c A LURD character
+     * @return The key accepted by {@link model.GameLevel#makeMove(char)} for the move, or {@code 0} if the character
+     * is not a move.
+     */
+    public static char toKey(char c) {
+        switch (c) {
+            case 'u':
+            case 'U':
+                return 'w';
+            case 'd':
+            case 'D':
+                return 's';
+            case 'l':
+            case 'L':
+                return 'a';
+            case 'r':
+            case 'R':
+                return 'd';
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @param c A LURD character
+     * @return Whether the move pushes a crate.
+     */
+    public static boolean isPush(char c) {
+        return Character.isUpperCase(c);
+    }
+
+    /**
+     * @param c A character
+     * @return Whether the character is a LURD move.
+     */
+    public static boolean isMove(char c) {
+        return toKey(c) != 0;
+    }
+
+    /**
+     * Checks whether moving in a direction would push a crate. Must be called before the move is made.
+     *
+     * @param map Map to move in
+     * @param d   Direction of the move
+     * @return Whether the cell next to the player in direction {@code d} holds a crate.
+     */
+    public static boolean isPush(@NotNull Map map, @NotNull Map.Direction d) {
+        final Player player = map.getPlayer();
+        int r = player.getR();
+        int c = player.getC();
+        switch (d) {
+            case UP:
+                --r;
+                break;
+            case DOWN:
+                ++r;
+                break;
+            case LEFT:
+                --c;
+                break;
+            case RIGHT:
+                ++c;
+                break;
+        }
+
+        return map.getOccupant(r, c) instanceof Crate;
+    }
+}
@@ -0,0 +1,154 @@
+package model.Replay;
+
+import model.Exceptions.InvalidReplayException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The moves of a single play session of a level, in LURD notation, together with when each move was made.
+ * <p>
+ * A replay is stored as a single line of three space-separated fields: the time the session started in milliseconds
+ * since the epoch, the moves, and the number of milliseconds between each move and the one before it (or the start of
+ * the session), separated by commas.
+ */
+public final class Replay {
+    private final long startTime;
+    private final String moves;
+    private final long[] times;
+
+    /**
+     * @param startTime Time the session started, in milliseconds since the epoch
+     * @param moves     Moves in LURD notation
+     * @param times     Time of each move, in milliseconds since the start of the session. Owned by this instance
+     *                  afterwards.
+     */
+    Replay(long startTime, @NotNull String moves, @NotNull long[] times) {
+        if (moves.length() != times.length) {
+            throw new IllegalArgumentException("Expected " + moves.length() + " times, got " + times.length);
+        }
+
+        this.startTime = startTime;
+        this.moves = moves;
+        this.times = times;
+    }
+
+    /**
+     * @param moves Moves in LURD notation
+     * @return A replay of the moves, all made at the start of the session.
+     * @throws InvalidReplayException if any character is not a LURD move.
+     */
+    public static Replay of(@NotNull String moves) throws InvalidReplayException {
+        checkMoves(moves);
+        return new Replay(0, moves, new long[moves.length()]);
+    }
+
+    /**
+     * @param line A replay in the format written by {@link #toString()}
+     * @return The parsed replay.
+     * @throws InvalidReplayException if the line is not a valid replay.
+     */
+    public static Replay parse(@NotNull String line) throws InvalidReplayException {
+        final String[] fields = line.split(" ", -1);
+        if (fields.length != 3) {
+            throw new InvalidReplayException("Expected 3 fields, got " + fields.length);
+        }
+
+        final String moves = fields[1];
+        checkMoves(moves);
+
+        try {
+            final long startTime = Long.parseLong(fields[0]);
+            final String[] deltas = fields[2].isEmpty() ? new String[0] : fields[2].split(",", -1);
+            if (deltas.length != moves.length()) {
+                throw new InvalidReplayException("Expected " + moves.length() + " times, got " + deltas.length);
+            }
+
+            final long[] times = new long[deltas.length];
+            long time = 0;
+            for (int i = 0; i < deltas.length; ++i) {
+                final long delta = Long.parseLong(deltas[i]);
+                if (delta < 0) {
+                    throw new InvalidReplayException("Negative time at move " + i);
+                }
+                time += delta;
+                times[i] = time;
+            }
+
+            return new Replay(startTime, moves, times);
+        } catch (NumberFormatException e) {
+            throw new InvalidReplayException("Invalid number: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param moves Moves to check
+     * @throws InvalidReplayException if any character is not a LURD move.
+     */
+    private static void checkMoves(@NotNull String moves) throws InvalidReplayException {
+        for (int i = 0; i < moves.length(); ++i) {
+            if (!Lurd.isMove(moves.charAt(i))) {
+                throw new InvalidReplayException("Unknown move '" + moves.charAt(i) + "' at " + i);
+            }
+        }
+    }
+
+    /**
+     * @return Time the session started, in milliseconds since the epoch.
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * @return Moves in LURD notation.
+     */
+    public String getMoves() {
+        return moves;
+    }
+
+    /**
+     * @param i Index of a move
+     * @return Time of the move, in milliseconds since the start of the session.
+     */
+    public long getTime(int i) {
+        return times[i];
+    }
+
+    /**
+     * @return Number of moves.
+     */
+    public int size() {
+        return moves.length();
+    }
+
+    /**
+     * @return Number of moves which push a crate.
+     */
+    public int getNumPushes() {
+        int pushes = 0;
+        for (int i = 0; i < moves.length(); ++i) {
+            if (Lurd.isPush(moves.charAt(i))) {
+                ++pushes;
+            }
+        }
+        return pushes;
+    }
+
+    /**
+     * @return The replay as a single line, without the line terminator.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(moves.length() * 5 + 32)
+                .append(startTime).append(' ')
+                .append(moves).append(' ');
+        long prev = 0;
+        for (int i = 0; i < times.length; ++i) {
+            if (i != 0) {
+                sb.append(',');
+            }
+            sb.append(times[i] - prev);
+            prev = times[i];
+        }
+        return sb.toString();
+    }
+}
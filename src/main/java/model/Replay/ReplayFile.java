@@ -0,0 +1,88 @@
+package model.Replay;
+
+import model.Exceptions.InvalidReplayException;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores the replays of a level in a file next to the level, e.g. {@code 01-easy.lurd} for {@code 01-easy.txt}, one
+ * replay per line.
+ */
+public final class ReplayFile {
+    /**
+     * Extension of replay files.
+     */
+    public static final String EXTENSION = ".lurd";
+
+    private ReplayFile() {
+    }
+
+    /**
+     * @param levelFile Path of the level file
+     * @return Path of the replay file of the level.
+     */
+    @NotNull
+    public static Path pathOf(@NotNull Path levelFile) {
+        String name = levelFile.getFileName().toString();
+        if (name.endsWith(".txt")) {
+            name = name.substring(0, name.length() - ".txt".length());
+        }
+        return levelFile.resolveSibling(name + EXTENSION);
+    }
+
+    /**
+     * Appends a replay to the replay file of a level, creating the file if necessary.
+     *
+     * @param levelFile Path of the level file
+     * @param replay    Replay to append
+     * @throws IOException if the file cannot be written.
+     */
+    public static void append(@NotNull Path levelFile, @NotNull Replay replay) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(pathOf(levelFile), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            writer.write(replay.toString());
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * @param levelFile Path of the level file
+     * @return All replays of the level, oldest first. Empty if the level has no replay file.
+     * @throws IOException            if the file cannot be read.
+     * @throws InvalidReplayException if any line of the file is not a valid replay.
+     */
+    @NotNull
+    public static List<Replay> readAll(@NotNull Path levelFile) throws IOException, InvalidReplayException {
+        final Path path = pathOf(levelFile);
+        final List<Replay> replays = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return replays;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                ++lineNumber;
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    replays.add(Replay.parse(line));
+                } catch (InvalidReplayException e) {
+                    throw new InvalidReplayException(path + ":" + lineNumber + ": " + e.getMessage());
+                }
+            }
+        }
+        return replays;
+    }
+}
@@ -0,0 +1,46 @@
+package model.Replay;
+
+import model.GameLevel;
+import model.Map.Map;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Replays moves on a level without any rendering, as fast as {@link GameLevel#makeMove(char)} allows.
+ * <p>
+ * Nothing is saved into {@link Map.History} while replaying, so replays cannot be undone.
+ */
+public final class ReplayPlayer {
+    private ReplayPlayer() {
+    }
+
+    /**
+     * Replays moves until the end, or until a move is illegal. A move is illegal if it cannot be made, or if it
+     * pushes a crate while written in lower case, or vice versa.
+     *
+     * @param level Level to replay on, in the state the moves start from
+     * @param moves Moves in LURD notation
+     * @return Number of moves made, which is the index of the first illegal move if there is one.
+     */
+    public static int play(@NotNull GameLevel level, @NotNull CharSequence moves) {
+        final Map map = level.getMap();
+
+        for (int i = 0; i < moves.length(); ++i) {
+            final char c = moves.charAt(i);
+            final Map.Direction d = Lurd.toDirection(c);
+            if (d == null || Lurd.isPush(map, d) != Lurd.isPush(c) || !level.makeMove(Lurd.toKey(c))) {
+                return i;
+            }
+        }
+        return moves.length();
+    }
+
+    /**
+     * @param level  Level to replay on, in the state the replay starts from
+     * @param replay Replay to play
+     * @return Number of moves made, which is the index of the first illegal move if there is one.
+     * @see #play(GameLevel, CharSequence)
+     */
+    public static int play(@NotNull GameLevel level, @NotNull Replay replay) {
+        return play(level, replay.getMoves());
+    }
+}
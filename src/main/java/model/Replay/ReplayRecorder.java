@@ -0,0 +1,65 @@
+package model.Replay;
+
+import model.Map.Map;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Records the moves of a play session as they are made.
+ */
+public class ReplayRecorder {
+    private final StringBuilder moves = new StringBuilder();
+    private long[] times = new long[64];
+    private long startTime = System.currentTimeMillis();
+
+    /**
+     * Discards all recorded moves and starts a new session.
+     *
+     * @param now Current time, in milliseconds since the epoch
+     */
+    public void start(long now) {
+        moves.setLength(0);
+        startTime = now;
+    }
+
+    /**
+     * Records a successful move.
+     *
+     * @param d    Direction of the move
+     * @param push Whether the move pushed a crate
+     * @param now  Current time, in milliseconds since the epoch
+     */
+    public void record(@NotNull Map.Direction d, boolean push, long now) {
+        final int n = moves.length();
+        if (n == times.length) {
+            times = Arrays.copyOf(times, n * 2);
+        }
+
+        moves.append(Lurd.toChar(d, push));
+        times[n] = Math.max(now - startTime, n == 0 ? 0 : times[n - 1]);
+    }
+
+    /**
+     * Removes the last recorded move, if any, since it has been undone.
+     */
+    public void undo() {
+        if (moves.length() != 0) {
+            moves.setLength(moves.length() - 1);
+        }
+    }
+
+    /**
+     * @return Whether no moves have been recorded in this session.
+     */
+    public boolean isEmpty() {
+        return moves.length() == 0;
+    }
+
+    /**
+     * @return The moves recorded so far.
+     */
+    public Replay toReplay() {
+        return new Replay(startTime, moves.toString(), Arrays.copyOf(times, moves.length()));
+    }
+}
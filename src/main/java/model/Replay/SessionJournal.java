@@ -0,0 +1,325 @@
+package model.Replay;
+
+import model.Map.Map;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only journal of the level being played, from which an interrupted session can be resumed.
+ * <p>
+ * The journal is a text file, one record per line:
+ * <ul>
+ * <li>{@code L <path>}: a session of the level file at {@code path} has started. Written first.</li>
+ * <li>{@code M <moves>}: moves in LURD notation, where {@code -} undoes the previous move.</li>
+ * <li>{@code S <seconds> <restarts>}: time spent on the level and the number of restarts so far.</li>
+ * <li>{@code E}: the session has ended, and there is nothing to resume.</li>
+ * </ul>
+ * All records, including the start and end of a session, are only buffered in memory. {@link #sync()} writes them and
+ * forces them onto the disk, so it is called periodically rather than after every move; a crash loses at most the
+ * records since the last sync. A record cut short by a crash is always the last line, and is ignored when reading.
+ * <p>
+ * This class is thread-safe, so records may be added on the application thread while a timer syncs them. Adding a
+ * record never waits for the disk: a sync only holds the lock of the buffers while taking them over, and writes them
+ * under a separate lock.
+ */
+public class SessionJournal implements Closeable {
+    private static final char UNDO = '-';
+
+    private final Path path;
+    private final StringBuilder pending = new StringBuilder();
+    private final StringBuilder pendingMoves = new StringBuilder();
+    private boolean pendingTruncate = false;
+    private final FileChannel channel;
+
+    //Held while writing to the channel, so that syncs reach the file in the order they took over the buffers
+    private final Object ioLock = new Object();
+
+    /**
+     * A session read from a journal.
+     */
+    public static final class Session {
+        private final Path levelFile;
+        private final String moves;
+        private final int elapsedSeconds;
+        private final int numRestarts;
+
+        private Session(@NotNull Path levelFile, @NotNull String moves, int elapsedSeconds, int numRestarts) {
+            this.levelFile = levelFile;
+            this.moves = moves;
+            this.elapsedSeconds = elapsedSeconds;
+            this.numRestarts = numRestarts;
+        }
+
+        /**
+         * @return Path of the level file.
+         */
+        @NotNull
+        public Path getLevelFile() {
+            return levelFile;
+        }
+
+        /**
+         * @return Moves made since the level was last started or restarted, in LURD notation, with undone moves
+         * removed.
+         */
+        @NotNull
+        public String getMoves() {
+            return moves;
+        }
+
+        public int getElapsedSeconds() {
+            return elapsedSeconds;
+        }
+
+        public int getNumRestarts() {
+            return numRestarts;
+        }
+    }
+
+    /**
+     * Opens a journal for appending. A record cut short at the end of the file is removed, so that it does not run into
+     * the records written after it.
+     *
+     * @param path Path of the journal file. Its directory is created if it does not exist.
+     * @throws IOException if the file cannot be opened.
+     */
+    public SessionJournal(@NotNull Path path) throws IOException {
+        this.path = path;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        final ByteBuffer b = ByteBuffer.allocate(1);
+        long end = channel.size();
+        while (end > 0) {
+            b.clear();
+            channel.read(b, end - 1);
+            if (b.get(0) == '\n') {
+                break;
+            }
+            --end;
+        }
+        channel.truncate(end);
+        channel.position(end);
+    }
+
+    /**
+     * @return Default location of the journal, in the home directory of the user.
+     */
+    @NotNull
+    public static Path defaultPath() {
+        return Paths.get(System.getProperty("user.home"), ".sokoban", "session.journal");
+    }
+
+    /**
+     * @return Path of the journal file.
+     */
+    @NotNull
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Discards the previous session and starts a new one. The file is emptied by the next {@link #sync()}.
+     *
+     * @param levelFile   Path of the level file
+     * @param numRestarts Number of restarts of the level so far
+     */
+    public synchronized void begin(@NotNull Path levelFile, int numRestarts) {
+        pending.setLength(0);
+        pendingMoves.setLength(0);
+        pendingTruncate = true;
+
+        pending.append("L ").append(levelFile.toAbsolutePath()).append('\n');
+        pending.append("S 0 ").append(numRestarts).append('\n');
+    }
+
+    /**
+     * Records a successful move.
+     *
+     * @param d    Direction of the move
+     * @param push Whether the move pushed a crate
+     */
+    public synchronized void record(@NotNull Map.Direction d, boolean push) {
+        pendingMoves.append(Lurd.toChar(d, push));
+    }
+
+    /**
+     * Records that the last move has been undone.
+     */
+    public synchronized void undo() {
+        pendingMoves.append(UNDO);
+    }
+
+    /**
+     * Records the time spent on the level and the number of restarts.
+     *
+     * @param elapsedSeconds Time spent on the level
+     * @param numRestarts    Number of restarts of the level so far
+     */
+    public synchronized void status(int elapsedSeconds, int numRestarts) {
+        flushMoves();
+        pending.append("S ").append(elapsedSeconds).append(' ').append(numRestarts).append('\n');
+    }
+
+    /**
+     * Marks the session as ended, so that there is nothing to resume once the journal is synced.
+     */
+    public synchronized void end() {
+        flushMoves();
+        pending.append("E\n");
+    }
+
+    /**
+     * Writes all buffered records to the journal, and forces them onto the disk. Does nothing if there are none, or
+     * the journal has been closed.
+     *
+     * @throws IOException if the journal cannot be written.
+     */
+    public void sync() throws IOException {
+        synchronized (ioLock) {
+            final ByteBuffer buffer;
+            final boolean truncate;
+            synchronized (this) {
+                flushMoves();
+                if (pending.length() == 0 && !pendingTruncate) {
+                    return;
+                }
+                buffer = StandardCharsets.UTF_8.encode(pending.toString());
+                pending.setLength(0);
+                truncate = pendingTruncate;
+                pendingTruncate = false;
+            }
+
+            if (!channel.isOpen()) {
+                return;
+            }
+            if (truncate) {
+                // also moves the position back to the start
+                channel.truncate(0);
+            }
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Syncs and closes the journal, leaving any unfinished session to be resumed.
+     *
+     * @throws IOException if the journal cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (ioLock) {
+            try {
+                sync();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Turns the buffered moves into a record.
+     */
+    private void flushMoves() {
+        if (pendingMoves.length() != 0) {
+            pending.append("M ").append(pendingMoves).append('\n');
+            pendingMoves.setLength(0);
+        }
+    }
+
+    /**
+     * Reads the session in a journal.
+     *
+     * @param path Path of the journal file
+     * @return The unfinished session in the journal, or {@code null} if there is none, or the journal does not exist.
+     * Reading stops at the first malformed record, keeping what was read before it.
+     * @throws IOException if the journal cannot be read.
+     */
+    @Nullable
+    public static Session read(@NotNull Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+
+        final String text = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+
+        Path levelFile = null;
+        final StringBuilder moves = new StringBuilder();
+        int elapsedSeconds = 0;
+        int numRestarts = 0;
+
+        int start = 0;
+        int end;
+        // a line without a newline was cut short, so it is skipped
+        while ((end = text.indexOf('\n', start)) != -1) {
+            final String line = text.substring(start, end);
+            start = end + 1;
+
+            if (line.startsWith("L ")) {
+                levelFile = Paths.get(line.substring(2));
+                moves.setLength(0);
+                elapsedSeconds = 0;
+                numRestarts = 0;
+            } else if (line.startsWith("M ") && levelFile != null) {
+                if (!applyMoves(line, moves)) {
+                    break;
+                }
+            } else if (line.startsWith("S ") && levelFile != null) {
+                final String[] fields = line.split(" ");
+                try {
+                    if (fields.length != 3) {
+                        break;
+                    }
+                    elapsedSeconds = Integer.parseInt(fields[1]);
+                    numRestarts = Integer.parseInt(fields[2]);
+                } catch (NumberFormatException e) {
+                    break;
+                }
+            } else if (line.equals("E")) {
+                levelFile = null;
+            } else {
+                break;
+            }
+        }
+
+        return levelFile == null ? null : new Session(levelFile, moves.toString(), elapsedSeconds, numRestarts);
+    }
+
+    /**
+     * Applies a moves record onto the moves read so far.
+     *
+     * @param line  The record, including its {@code M } prefix
+     * @param moves Moves read so far
+     * @return Whether the record is well-formed. If not, {@code moves} is left partially updated.
+     */
+    private static boolean applyMoves(@NotNull String line, @NotNull StringBuilder moves) {
+        for (int i = 2; i < line.length(); ++i) {
+            final char c = line.charAt(i);
+            if (c == UNDO) {
+                if (moves.length() != 0) {
+                    moves.setLength(moves.length() - 1);
+                }
+            } else if (Lurd.isMove(c)) {
+                moves.append(c);
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+}
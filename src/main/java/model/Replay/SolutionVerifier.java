@@ -0,0 +1,257 @@
+package model.Replay;
+
+import model.Exceptions.InvalidMapException;
+import model.GameLevel;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.FileNotFoundException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Checks submitted solutions by replaying them.
+ * <p>
+ * Each worker thread keeps its own {@link GameLevel}. When consecutive submissions are for the same level, the level
+ * is {@link GameLevel#reset() reset} in place instead of being loaded again, so verifying a batch only loads each
+ * level about once per thread and replaying allocates nothing per move.
+ */
+public class SolutionVerifier {
+    private final int parallelism;
+    private final ThreadLocal<Engine> engine = ThreadLocal.withInitial(Engine::new);
+
+    /**
+     * A level file together with a solution submitted for it.
+     */
+    public static final class Submission {
+        private final Path level;
+        private final String moves;
+
+        /**
+         * @param level Path of the level file
+         * @param moves Solution in LURD notation
+         */
+        public Submission(@NotNull Path level, @NotNull String moves) {
+            this.level = level;
+            this.moves = moves;
+        }
+
+        public Path getLevel() {
+            return level;
+        }
+
+        public String getMoves() {
+            return moves;
+        }
+    }
+
+    /**
+     * Outcome of verifying a single submission.
+     */
+    public static final class Verdict {
+        /**
+         * Outcome of a verification.
+         */
+        public enum Status {
+            /**
+             * Every move is legal, and the level is won after the last move.
+             */
+            SOLVED,
+            /**
+             * Every move is legal, but the level is not won after the last move.
+             */
+            NOT_SOLVED,
+            /**
+             * A move cannot be made, or its push flag is wrong.
+             */
+            ILLEGAL_MOVE,
+            /**
+             * The level could not be loaded.
+             */
+            INVALID_LEVEL
+        }
+
+        private final Submission submission;
+        private final Status status;
+        private final int moves;
+        private final int pushes;
+        private final String error;
+
+        private Verdict(@NotNull Submission submission, @NotNull Status status, int moves, int pushes, @Nullable String error) {
+            this.submission = submission;
+            this.status = status;
+            this.moves = moves;
+            this.pushes = pushes;
+            this.error = error;
+        }
+
+        public Submission getSubmission() {
+            return submission;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public boolean isSolved() {
+            return status == Status.SOLVED;
+        }
+
+        /**
+         * @return Number of legal moves made. For {@link Status#ILLEGAL_MOVE}, this is the index of the first
+         * illegal move.
+         */
+        public int getMoves() {
+            return moves;
+        }
+
+        /**
+         * @return Number of pushes among the legal moves made.
+         */
+        public int getPushes() {
+            return pushes;
+        }
+
+        /**
+         * @return Index of the first illegal move, or -1 if there is none.
+         */
+        public int getFirstIllegalMove() {
+            return status == Status.ILLEGAL_MOVE ? moves : -1;
+        }
+
+        /**
+         * @return Why the level could not be loaded, or {@code null} if it was.
+         */
+        @Nullable
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            switch (status) {
+                case ILLEGAL_MOVE:
+                    return status + " at move " + moves + " ('" + submission.moves.charAt(moves) + "')";
+                case INVALID_LEVEL:
+                    return status + ": " + error;
+                default:
+                    return status + " moves=" + moves + " pushes=" + pushes;
+            }
+        }
+    }
+
+    /**
+     * A level which is kept loaded between submissions.
+     */
+    private static class Engine {
+        private final GameLevel level = new GameLevel();
+        private Path loaded = null;
+
+        /**
+         * Puts the level into its initial position, loading it if it is not the level loaded last.
+         *
+         * @param path Path of the level file
+         */
+        private void prepare(@NotNull Path path) throws FileNotFoundException, InvalidMapException {
+            if (path.equals(loaded)) {
+                level.reset();
+                return;
+            }
+
+            loaded = null;
+            level.loadMap(path.toString());
+            loaded = path;
+        }
+
+        /**
+         * @param s Submission to verify
+         * @return Verdict of the submission.
+         */
+        private Verdict verify(@NotNull Submission s) {
+            try {
+                prepare(s.level);
+            } catch (FileNotFoundException e) {
+                return new Verdict(s, Verdict.Status.INVALID_LEVEL, 0, 0, "File not found");
+            } catch (InvalidMapException e) {
+                return new Verdict(s, Verdict.Status.INVALID_LEVEL, 0, 0, e.getMessage());
+            } catch (RuntimeException e) {
+                return new Verdict(s, Verdict.Status.INVALID_LEVEL, 0, 0, "Malformed map file: " + e);
+            }
+
+            final int moves = ReplayPlayer.play(level, s.moves);
+            int pushes = 0;
+            for (int i = 0; i < moves; ++i) {
+                if (Lurd.isPush(s.moves.charAt(i))) {
+                    ++pushes;
+                }
+            }
+
+            final Verdict.Status status;
+            if (moves < s.moves.length()) {
+                status = Verdict.Status.ILLEGAL_MOVE;
+            } else if (level.isWin()) {
+                status = Verdict.Status.SOLVED;
+            } else {
+                status = Verdict.Status.NOT_SOLVED;
+            }
+            return new Verdict(s, status, moves, pushes, null);
+        }
+    }
+
+    /**
+     * @param parallelism Number of threads to verify batches with
+     */
+    public SolutionVerifier(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Verifies a single submission on the calling thread.
+     *
+     * @param submission Submission to verify
+     * @return Verdict of the submission.
+     */
+    public Verdict verify(@NotNull Submission submission) {
+        return engine.get().verify(submission);
+    }
+
+    /**
+     * Verifies a batch of submissions in parallel.
+     * <p>
+     * Submissions are grouped by level first, so that each thread mostly rewinds levels instead of loading them.
+     *
+     * @param submissions Submissions to verify
+     * @return Verdicts, in the same order as the submissions.
+     */
+    public List<Verdict> verifyAll(@NotNull List<Submission> submissions) {
+        final Integer[] order = new Integer[submissions.size()];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparing(i -> submissions.get(i).level.toString()));
+
+        final Verdict[] verdicts = new Verdict[order.length];
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> IntStream.range(0, order.length).parallel().forEach(i ->
+                    verdicts[order[i]] = verify(submissions.get(order[i]))
+            )).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while verifying", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Verification failed unexpectedly", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        return new ArrayList<>(Arrays.asList(verdicts));
+    }
+}
@@ -0,0 +1,219 @@
+package model.Solver;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Best-first search over push space, guided by {@link MatchingHeuristic}.
+ * <p>
+ * One push moves one crate by one cell, which changes the heuristic by at most one, so the heuristic is consistent and
+ * the first solved state taken from the queue uses the minimum number of pushes. Positions which the heuristic
+ * reports as deadlocked are never queued. A crate pushed into a tunnel is pushed on through it as a single move, which
+ * costs one push per cell, so that the corridor cells are not each expanded as separate positions. On symmetric
+ * boards, states are keyed by their canonical orientation, so mirror images of a state are only expanded once.
+ * <p>
+ * Every queued node keeps a snapshot of the assignment of its heuristic, so expanding it only re-assigns the crate
+ * moved into each successor, in O(n<sup>2</sup>), rather than solving the assignment from scratch.
+ */
+public class AStarSolver extends Solver {
+    private final GoalDistances distances;
+    private final boolean reduceSymmetry;
+    private DeadlockPatterns patterns;
+    private boolean tunnelMacros = true;
+    private long maxNodes = Long.MAX_VALUE;
+    private volatile long generated;
+
+    /**
+     * Entry of the open queue.
+     */
+    private static class Node implements Comparable<Node> {
+        private final SearchState state;
+        private final SearchState key;
+        private final int pushes;
+        private final int estimate;
+        private final MatchingHeuristic.Snapshot matching;
+
+        private Node(@NotNull SearchState state, @NotNull SearchState key, int pushes, int estimate,
+                     @NotNull MatchingHeuristic.Snapshot matching) {
+            this.state = state;
+            this.key = key;
+            this.pushes = pushes;
+            this.estimate = estimate;
+            this.matching = matching;
+        }
+
+        @Override
+        public int compareTo(@NotNull Node o) {
+            int byEstimate = Integer.compare(estimate, o.estimate);
+            // among equal estimates, prefer deeper nodes since they are closer to a solution
+            return byEstimate != 0 ? byEstimate : Integer.compare(o.pushes, pushes);
+        }
+    }
+
+    /**
+     * @param board Board to solve
+     */
+    public AStarSolver(@NotNull Board board) {
+        this(board, new GoalDistances(board));
+    }
+
+    /**
+     * @param board     Board to solve
+     * @param distances Precomputed distance tables of the board
+     */
+    public AStarSolver(@NotNull Board board, @NotNull GoalDistances distances) {
+        this(board, distances, true);
+    }
+
+    /**
+     * @param board          Board to solve
+     * @param distances      Precomputed distance tables of the board
+     * @param reduceSymmetry Whether to store only the canonical orientation of states if the board is symmetric
+     */
+    public AStarSolver(@NotNull Board board, @NotNull GoalDistances distances, boolean reduceSymmetry) {
+        super(board);
+        this.distances = distances;
+        this.reduceSymmetry = reduceSymmetry;
+    }
+
+    /**
+     * @param patterns Deadlock patterns of the board to prune positions with and learn new patterns into, e.g. kept
+     *                 from earlier searches, or {@code null} to not use any, which is the default. Learning makes a
+     *                 search slower, but later searches of the same board expand fewer positions.
+     */
+    public void setDeadlockPatterns(@Nullable DeadlockPatterns patterns) {
+        this.patterns = patterns;
+    }
+
+    /**
+     * @param tunnelMacros Whether to push a crate through a tunnel as a single move, which is the default. Does not
+     *                     change the number of pushes found.
+     */
+    public void setTunnelMacros(boolean tunnelMacros) {
+        this.tunnelMacros = tunnelMacros;
+    }
+
+    /**
+     * @param maxNodes Number of nodes to expand before giving up with {@link SolverResult.Status#CANCELLED}, which
+     *                 unlike a time limit gives the same outcome on every run. Unlimited by default.
+     */
+    public void setMaxNodes(long maxNodes) {
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * @return Number of successors generated by the last search, which divided by the nodes expanded gives the
+     * average branching factor.
+     */
+    public long getGenerated() {
+        return generated;
+    }
+
+    @Override
+    public SolverResult solve() {
+        final long startTime = System.currentTimeMillis();
+        final PushGenerator generator = new PushGenerator(board, tunnelMacros);
+        final MatchingHeuristic heuristic = new MatchingHeuristic(distances);
+        final BoardSymmetry symmetry = reduceSymmetry ? new BoardSymmetry(board) : null;
+        final DeadlockPatterns deadlocks = patterns;
+
+        final Map<SearchState, Integer> bestPushes = new HashMap<>();
+        final PriorityQueue<Node> open = new PriorityQueue<>();
+        final List<SearchState> successors = new ArrayList<>();
+        long nodes = 0;
+        generated = 0;
+
+        SearchState initial = board.getInitialState();
+        int h = heuristic.reset(initial.getCrates());
+        if (h == MatchingHeuristic.INFINITY) {
+            return result(SolverResult.Status.UNSOLVABLE, -1, nodes, bestPushes.size(), startTime);
+        }
+        final SearchState initialKey = symmetry == null ? initial : symmetry.canonical(initial);
+        bestPushes.put(initialKey, 0);
+        open.add(new Node(initial, initialKey, 0, h, heuristic.snapshot()));
+
+        while (!open.isEmpty()) {
+            if (isCancelled() || nodes >= maxNodes) {
+                return result(SolverResult.Status.CANCELLED, -1, nodes, bestPushes.size(), startTime);
+            }
+
+            Node n = open.poll();
+            if (bestPushes.get(n.key) < n.pushes) {
+                continue;
+            }
+            if (board.isSolved(n.state.getCrates())) {
+                return result(SolverResult.Status.SOLVED, n.pushes, nodes, bestPushes.size(), startTime);
+            }
+
+            ++nodes;
+            successors.clear();
+            generator.expand(n.state, successors);
+            heuristic.restore(n.matching);
+            generated += successors.size();
+
+            for (SearchState succ : successors) {
+                final int from = movedFrom(n.state.getCrates(), succ.getCrates());
+                final int to = movedFrom(succ.getCrates(), n.state.getCrates());
+                // the crate moved in a straight line, one push per cell
+                final int pushes = n.pushes + Math.abs(board.getRow(to) - board.getRow(from))
+                        + Math.abs(board.getCol(to) - board.getCol(from));
+                final SearchState key = symmetry == null ? succ : symmetry.canonical(succ);
+                Integer known = bestPushes.get(key);
+                if (known != null && known <= pushes) {
+                    continue;
+                }
+
+                h = heuristic.moveCrate(from, to);
+                final MatchingHeuristic.Snapshot matching = h == MatchingHeuristic.INFINITY ? null : heuristic.snapshot();
+                heuristic.restore(n.matching);
+                if (matching == null
+                        || deadlocks != null && deadlocks.isDeadlockedAround(succ.getCrates(), succ.getPlayer(), to)) {
+                    continue;
+                }
+
+                bestPushes.put(key, pushes);
+                open.add(new Node(succ, key, pushes, pushes + h, matching));
+            }
+        }
+
+        return result(SolverResult.Status.UNSOLVABLE, -1, nodes, bestPushes.size(), startTime);
+    }
+
+    /**
+     * @param a Sorted cell indices of crates
+     * @param b Sorted cell indices of crates, differing from {@code a} by a single crate
+     * @return The cell in {@code a} which is not in {@code b}.
+     */
+    static int movedFrom(@NotNull int[] a, @NotNull int[] b) {
+        int j = 0;
+        for (int x : a) {
+            while (j < b.length && b[j] < x) {
+                ++j;
+            }
+            if (j == b.length || b[j] != x) {
+                return x;
+            }
+        }
+        throw new IllegalArgumentException("Crates are identical");
+    }
+
+    /**
+     * @param status    Outcome of the search
+     * @param pushes    Number of pushes of the solution
+     * @param nodes     Number of states expanded
+     * @param states    Number of states stored
+     * @param startTime Time the search started at
+     * @return Result of the search, attributing all nodes to the current thread.
+     */
+    private SolverResult result(@NotNull SolverResult.Status status, int pushes, long nodes, long states, long startTime) {
+        return new SolverResult(status, pushes, nodes, states, System.currentTimeMillis() - startTime,
+                Collections.singletonMap(Thread.currentThread().getName(), nodes));
+    }
+}
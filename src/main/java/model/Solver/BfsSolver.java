@@ -0,0 +1,90 @@
+package model.Solver;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Single-threaded breadth-first search over push space.
+ * <p>
+ * States are expanded one layer at a time, so the first solved state found uses the minimum number of pushes.
+ */
+public class BfsSolver extends Solver {
+    private final VisitedSet visited;
+
+    /**
+     * Searches only the canonical orientation of states if the board is symmetric.
+     *
+     * @param board Board to solve
+     */
+    public BfsSolver(@NotNull Board board) {
+        this(board, new SymmetricVisitedSet(board, new PackedVisitedSet(new StateCodec(board))));
+    }
+
+    /**
+     * @param board   Board to solve
+     * @param visited Set to record visited states in
+     */
+    public BfsSolver(@NotNull Board board, @NotNull VisitedSet visited) {
+        super(board);
+        this.visited = visited;
+    }
+
+    @Override
+    public SolverResult solve() {
+        final long startTime = System.currentTimeMillis();
+        final PushGenerator generator = new PushGenerator(board);
+
+        SearchState initial = board.getInitialState();
+        visited.add(initial);
+        if (board.isSolved(initial.getCrates())) {
+            return result(SolverResult.Status.SOLVED, 0, 0, startTime);
+        }
+
+        List<SearchState> frontier = new ArrayList<>(Collections.singletonList(initial));
+        List<SearchState> successors = new ArrayList<>();
+        long nodes = 0;
+
+        for (int depth = 1; !frontier.isEmpty(); ++depth) {
+            List<SearchState> next = new ArrayList<>();
+
+            for (SearchState s : frontier) {
+                if (isCancelled()) {
+                    return result(SolverResult.Status.CANCELLED, -1, nodes, startTime);
+                }
+
+                ++nodes;
+                successors.clear();
+                generator.expand(s, successors);
+
+                for (SearchState succ : successors) {
+                    if (!visited.add(succ)) {
+                        continue;
+                    }
+                    if (board.isSolved(succ.getCrates())) {
+                        return result(SolverResult.Status.SOLVED, depth, nodes, startTime);
+                    }
+                    next.add(succ);
+                }
+            }
+
+            frontier = next;
+        }
+
+        return result(SolverResult.Status.UNSOLVABLE, -1, nodes, startTime);
+    }
+
+    /**
+     * @param status    Outcome of the search
+     * @param pushes    Number of pushes of the solution
+     * @param nodes     Number of states expanded
+     * @param startTime Time the search started at
+     * @return Result of the search, attributing all nodes to the current thread.
+     */
+    private SolverResult result(@NotNull SolverResult.Status status, int pushes, long nodes, long startTime) {
+        return new SolverResult(status, pushes, nodes, visited.size(), System.currentTimeMillis() - startTime,
+                Collections.singletonMap(Thread.currentThread().getName(), nodes));
+    }
+}
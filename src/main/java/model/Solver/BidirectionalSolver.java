@@ -0,0 +1,180 @@
+package model.Solver;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Breadth-first search from both ends: pushing crates forward from the initial position, and pulling crates backward
+ * from the solved position, until the two searches meet.
+ * <p>
+ * The two searches take turns expanding a whole layer, always picking the side with the smaller frontier. Each side
+ * records the depth of every state it has seen in its own table, and checks every new state against the table of the
+ * other side. Once a layer produces a meeting, the shortest combined depth of that layer is the minimum number of
+ * pushes.
+ * <p>
+ * The backward search starts from every crate resting on a destination, with the player in any region of the board.
+ * It is only used when there are exactly as many crates as destinations; otherwise the forward search runs alone.
+ */
+public class BidirectionalSolver extends Solver {
+    /**
+     * The direction of a search.
+     */
+    public enum Side {
+        FORWARD, BACKWARD
+    }
+
+    private final Map<SearchState, Integer> forward = new HashMap<>();
+    private final Map<SearchState, Integer> backward = new HashMap<>();
+
+    private Side meetingSide = null;
+    private long forwardNodes = 0;
+    private long backwardNodes = 0;
+
+    /**
+     * @param board Board to solve
+     */
+    public BidirectionalSolver(@NotNull Board board) {
+        super(board);
+    }
+
+    @Override
+    public SolverResult solve() {
+        final long startTime = System.currentTimeMillis();
+        final PushGenerator generator = new PushGenerator(board);
+
+        SearchState initial = board.getInitialState();
+        forward.put(initial, 0);
+        if (board.isSolved(initial.getCrates())) {
+            meetingSide = Side.FORWARD;
+            return result(SolverResult.Status.SOLVED, 0, startTime);
+        }
+
+        List<SearchState> forwardFrontier = new ArrayList<>(Collections.singletonList(initial));
+        List<SearchState> backwardFrontier = new ArrayList<>();
+        if (initial.getCrates().length == board.getNumGoals()) {
+            generator.allRegions(board.getGoals(), backwardFrontier);
+            for (SearchState s : backwardFrontier) {
+                backward.put(s, 0);
+            }
+        }
+
+        int forwardDepth = 0;
+        int backwardDepth = 0;
+        List<SearchState> successors = new ArrayList<>();
+
+        while (!forwardFrontier.isEmpty()) {
+            final boolean isForward = backwardFrontier.isEmpty() || forwardFrontier.size() <= backwardFrontier.size();
+            final List<SearchState> frontier = isForward ? forwardFrontier : backwardFrontier;
+            final Map<SearchState, Integer> own = isForward ? forward : backward;
+            final Map<SearchState, Integer> other = isForward ? backward : forward;
+            final int depth = (isForward ? forwardDepth : backwardDepth) + 1;
+
+            List<SearchState> next = new ArrayList<>();
+            int best = Integer.MAX_VALUE;
+
+            for (SearchState s : frontier) {
+                if (isCancelled()) {
+                    return result(SolverResult.Status.CANCELLED, -1, startTime);
+                }
+
+                successors.clear();
+                if (isForward) {
+                    ++forwardNodes;
+                    generator.expand(s, successors);
+                } else {
+                    ++backwardNodes;
+                    generator.expandReverse(s, successors);
+                }
+
+                for (SearchState succ : successors) {
+                    if (own.putIfAbsent(succ, depth) != null) {
+                        continue;
+                    }
+
+                    Integer otherDepth = other.get(succ);
+                    if (otherDepth == null && isForward && board.isSolved(succ.getCrates())) {
+                        otherDepth = 0;
+                    }
+                    if (otherDepth != null && depth + otherDepth < best) {
+                        best = depth + otherDepth;
+                        meetingSide = isForward ? Side.FORWARD : Side.BACKWARD;
+                    }
+
+                    next.add(succ);
+                }
+            }
+
+            if (best != Integer.MAX_VALUE) {
+                return result(SolverResult.Status.SOLVED, best, startTime);
+            }
+
+            if (isForward) {
+                forwardFrontier = next;
+                forwardDepth = depth;
+            } else {
+                // every position which can lead to the goal has been seen without meeting the forward search
+                if (next.isEmpty()) {
+                    break;
+                }
+                backwardFrontier = next;
+                backwardDepth = depth;
+            }
+        }
+
+        return result(SolverResult.Status.UNSOLVABLE, -1, startTime);
+    }
+
+    /**
+     * @return The search which generated the state where both searches met, or {@code null} if they have not met.
+     */
+    public @Nullable Side getMeetingSide() {
+        return meetingSide;
+    }
+
+    /**
+     * @return Number of states stored by the forward search.
+     */
+    public long getForwardStates() {
+        return forward.size();
+    }
+
+    /**
+     * @return Number of states stored by the backward search.
+     */
+    public long getBackwardStates() {
+        return backward.size();
+    }
+
+    /**
+     * @return Number of states expanded by the forward search.
+     */
+    public long getForwardNodes() {
+        return forwardNodes;
+    }
+
+    /**
+     * @return Number of states expanded by the backward search.
+     */
+    public long getBackwardNodes() {
+        return backwardNodes;
+    }
+
+    /**
+     * @param status    Outcome of the search
+     * @param pushes    Number of pushes of the solution
+     * @param startTime Time the search started at
+     * @return Result of the search. The number of states is the total of both sides, which can be compared against
+     * {@link BfsSolver} to see the memory saved.
+     */
+    private SolverResult result(@NotNull SolverResult.Status status, int pushes, long startTime) {
+        final long nodes = forwardNodes + backwardNodes;
+        return new SolverResult(status, pushes, nodes, forward.size() + backward.size(),
+                System.currentTimeMillis() - startTime, Collections.singletonMap(Thread.currentThread().getName(), nodes));
+    }
+}
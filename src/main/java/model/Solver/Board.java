@@ -0,0 +1,285 @@
+package model.Solver;
+
+import model.Map.Map;
+import model.Map.Occupant.Crate;
+import model.Map.Occupant.Occupant;
+import model.Map.Occupant.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable, flattened copy of the static terrain of a {@link Map}, used by the solvers.
+ * <p>
+ * Cells are addressed by a single index. The board is padded with a border of walls on every side, so that the
+ * neighbour of any floor cell is always a valid index.
+ */
+public final class Board {
+    private final int rows;
+    private final int cols;
+    private final int width;
+
+    private final boolean[] floor;
+    private final boolean[] goal;
+    private final boolean[] dead;
+    private final boolean[] tunnel;
+    private final int[] goals;
+    private final int[] offsets;
+
+    private final int[] initialCrates;
+    private final int initialPlayer;
+
+    /**
+     * @param rows     The number of rows in the map
+     * @param cols     The number of columns in the map
+     * @param floor    Whether each padded cell can be occupied
+     * @param goal     Whether each padded cell is a destination
+     * @param crates   Padded indices of the crates
+     * @param player   Padded index of the player
+     */
+    Board(int rows, int cols, @NotNull boolean[] floor, @NotNull boolean[] goal, @NotNull int[] crates, int player) {
+        this.rows = rows;
+        this.cols = cols;
+        this.width = cols + 2;
+        this.floor = floor;
+        this.goal = goal;
+        this.offsets = new int[]{-width, width, -1, 1};
+
+        List<Integer> goalList = new ArrayList<>();
+        for (int i = 0; i < goal.length; ++i) {
+            if (goal[i]) {
+                goalList.add(i);
+            }
+        }
+        this.goals = goalList.stream().mapToInt(Integer::intValue).toArray();
+
+        this.initialCrates = crates.clone();
+        Arrays.sort(this.initialCrates);
+        this.initialPlayer = player;
+
+        this.dead = computeDeadSquares();
+        this.tunnel = computeTunnels();
+    }
+
+    /**
+     * Creates a board from the current state of a map.
+     *
+     * @param map Map to copy the terrain, crates and player from.
+     * @return Board representing the map.
+     */
+    public static Board fromMap(@NotNull Map map) {
+        final int rows = map.getRows();
+        final int cols = map.getCols();
+        final int width = cols + 2;
+
+        boolean[] floor = new boolean[(rows + 2) * width];
+        boolean[] goal = new boolean[floor.length];
+        int[] crates = new int[map.getCrates().size()];
+        int numCrates = 0;
+        int player = -1;
+
+        for (int r = 0; r < rows; ++r) {
+            for (int c = 0; c < cols; ++c) {
+                if (map.isWall(r, c)) {
+                    continue;
+                }
+
+                final int i = (r + 1) * width + (c + 1);
+                floor[i] = true;
+                goal[i] = map.isDest(r, c);
+
+                Occupant o = map.getOccupant(r, c);
+                if (o instanceof Crate) {
+                    crates[numCrates++] = i;
+                } else if (o instanceof Player) {
+                    player = i;
+                }
+            }
+        }
+
+        return new Board(rows, cols, floor, goal, Arrays.copyOf(crates, numCrates), player);
+    }
+
+    /**
+     * Marks every floor cell from which a lone crate can never be pushed onto a destination.
+     * <p>
+     * This is done by "pulling" a crate backwards from every destination. A crate at {@code x} can arrive from
+     * {@code x - d} if the player has room to stand at {@code x - 2d} behind it.
+     *
+     * @return Dead square table, indexed by cell.
+     */
+    private boolean[] computeDeadSquares() {
+        boolean[] live = new boolean[floor.length];
+        int[] queue = new int[floor.length];
+        int head = 0;
+        int tail = 0;
+
+        for (int g : goals) {
+            live[g] = true;
+            queue[tail++] = g;
+        }
+
+        while (head < tail) {
+            int x = queue[head++];
+            for (int d : offsets) {
+                int from = x - d;
+                if (floor[from] && !live[from] && floor[from - d]) {
+                    live[from] = true;
+                    queue[tail++] = from;
+                }
+            }
+        }
+
+        boolean[] result = new boolean[floor.length];
+        for (int i = 0; i < floor.length; ++i) {
+            result[i] = floor[i] && !live[i];
+        }
+        return result;
+    }
+
+    /**
+     * Marks, for every cell and direction, whether a crate pushed onto the cell in that direction is in a tunnel: the
+     * crate and the player behind it both have walls on either side, and the cell is not a destination. The crate can
+     * then only go on in the same direction, and pushing it on right away never makes a solution longer.
+     *
+     * @return Tunnel table, indexed by cell times 4 plus the index of the direction in {@link #getOffsets()}.
+     */
+    private boolean[] computeTunnels() {
+        boolean[] result = new boolean[floor.length * 4];
+        for (int i = 0; i < floor.length; ++i) {
+            if (!floor[i] || goal[i]) {
+                continue;
+            }
+
+            for (int k = 0; k < 4; ++k) {
+                final int d = offsets[k];
+                // the two directions at right angles to d
+                final int side = offsets[k < 2 ? 2 : 0];
+                final int behind = i - d;
+                result[i * 4 + k] = floor[behind]
+                        && !floor[i - side] && !floor[i + side]
+                        && !floor[behind - side] && !floor[behind + side];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The number of rows in the original map.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return The number of columns in the original map.
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * @return The number of cells in the padded board.
+     */
+    public int size() {
+        return floor.length;
+    }
+
+    /**
+     * @param r The row coordinate in the original map
+     * @param c The column coordinate in the original map
+     * @return Cell index of the location.
+     */
+    public int toIndex(int r, int c) {
+        return (r + 1) * width + (c + 1);
+    }
+
+    /**
+     * @param i Cell index
+     * @return Row coordinate of the cell in the original map.
+     */
+    public int getRow(int i) {
+        return i / width - 1;
+    }
+
+    /**
+     * @param i Cell index
+     * @return Column coordinate of the cell in the original map.
+     */
+    public int getCol(int i) {
+        return i % width - 1;
+    }
+
+    /**
+     * @param d Direction to move in
+     * @return Difference in cell index when moving in the given direction.
+     */
+    public int getOffset(Map.Direction d) {
+        return offsets[d.ordinal()];
+    }
+
+    /**
+     * @return Index differences of all four directions, in the order of {@link Map.Direction#values()}.
+     */
+    int[] getOffsets() {
+        return offsets;
+    }
+
+    public boolean isFloor(int i) {
+        return floor[i];
+    }
+
+    public boolean isGoal(int i) {
+        return goal[i];
+    }
+
+    /**
+     * @param i Cell index
+     * @return Whether a crate on this cell can never reach any destination.
+     */
+    public boolean isDead(int i) {
+        return dead[i];
+    }
+
+    /**
+     * @param i Cell index
+     * @param k Index of a direction in {@link #getOffsets()}
+     * @return Whether a crate pushed onto the cell in the direction is in a tunnel, and should be pushed on.
+     */
+    boolean isTunnel(int i, int k) {
+        return tunnel[i * 4 + k];
+    }
+
+    /**
+     * @return Cell indices of all destinations, in ascending order.
+     */
+    public int[] getGoals() {
+        return goals.clone();
+    }
+
+    public int getNumGoals() {
+        return goals.length;
+    }
+
+    /**
+     * @return The search state this board was created with.
+     */
+    public SearchState getInitialState() {
+        return new PushGenerator(this).normalize(initialCrates.clone(), initialPlayer);
+    }
+
+    /**
+     * @param crates Cell indices of crates
+     * @return Whether every crate is on a destination.
+     */
+    public boolean isSolved(@NotNull int[] crates) {
+        for (int c : crates) {
+            if (!goal[c]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
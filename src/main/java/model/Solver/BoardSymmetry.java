@@ -0,0 +1,140 @@
+package model.Solver;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The rotations and mirror images which map the terrain of a {@link Board} onto itself, found when the board is
+ * loaded.
+ * <p>
+ * Pushes, dead squares and distances to the destinations all look the same under such a symmetry, so a state and its
+ * mirror images are solved by the same number of pushes and only one of them needs to be searched. The
+ * {@link #canonical(SearchState) canonical} orientation of a state is the one whose crates, in sorted order, compare
+ * smallest, with ties broken by the normalized player cell.
+ * <p>
+ * Symmetries are looked for within the bounding box of the floor cells, so walls around the level do not matter, but
+ * crates and the player do not need to be symmetric. Holds a {@link PushGenerator}, so an instance must only be used
+ * by one thread at a time.
+ */
+final class BoardSymmetry {
+    private final PushGenerator generator;
+    /**
+     * Cell index each cell maps to, for each symmetry other than the identity. Only floor cells are mapped.
+     */
+    private final int[][] maps;
+    private final int[] scratch;
+
+    /**
+     * @param board Board to find the symmetries of
+     */
+    BoardSymmetry(@NotNull Board board) {
+        this.generator = new PushGenerator(board);
+
+        int top = Integer.MAX_VALUE;
+        int bottom = -1;
+        int left = Integer.MAX_VALUE;
+        int right = -1;
+        for (int i = 0; i < board.size(); ++i) {
+            if (board.isFloor(i)) {
+                top = Math.min(top, board.getRow(i));
+                bottom = Math.max(bottom, board.getRow(i));
+                left = Math.min(left, board.getCol(i));
+                right = Math.max(right, board.getCol(i));
+            }
+        }
+        final int h = bottom - top + 1;
+        final int w = right - left + 1;
+
+        final List<int[]> found = new ArrayList<>();
+        // bit 0 transposes, bit 1 flips the rows, and bit 2 flips the columns; 0 is the identity
+        for (int t = 1; t < 8 && h > 0; ++t) {
+            final boolean transpose = (t & 1) != 0;
+            if (transpose && h != w) {
+                continue;
+            }
+
+            final int[] map = new int[board.size()];
+            boolean symmetric = true;
+            for (int i = 0; i < board.size() && symmetric; ++i) {
+                if (!board.isFloor(i)) {
+                    continue;
+                }
+
+                int r = board.getRow(i) - top;
+                int c = board.getCol(i) - left;
+                if ((t & 2) != 0) {
+                    r = h - 1 - r;
+                }
+                if ((t & 4) != 0) {
+                    c = w - 1 - c;
+                }
+                final int j = transpose ? board.toIndex(c + top, r + left) : board.toIndex(r + top, c + left);
+
+                map[i] = j;
+                symmetric = board.isFloor(j) && board.isGoal(j) == board.isGoal(i);
+            }
+            if (symmetric) {
+                found.add(map);
+            }
+        }
+
+        this.maps = found.toArray(new int[0][]);
+        this.scratch = new int[board.getInitialState().getCrates().length];
+    }
+
+    /**
+     * @return Number of symmetries of the board, including the identity, so 1 if the board is not symmetric.
+     */
+    int getOrder() {
+        return maps.length + 1;
+    }
+
+    /**
+     * @param s A state of the board
+     * @return The canonical orientation of the state, which is {@code s} itself if the board is not symmetric.
+     */
+    @NotNull
+    SearchState canonical(@NotNull SearchState s) {
+        if (maps.length == 0) {
+            return s;
+        }
+
+        final int[] crates = s.getCrates();
+        int[] best = crates;
+        int bestPlayer = s.getPlayer();
+        for (int[] map : maps) {
+            for (int i = 0; i < crates.length; ++i) {
+                scratch[i] = map[crates[i]];
+            }
+            Arrays.sort(scratch);
+
+            final int cmp = compare(scratch, best);
+            if (cmp > 0) {
+                continue;
+            }
+            // the region of the player maps onto a region whose smallest cell has to be found again
+            final int player = generator.normalizePlayer(scratch, map[s.getPlayer()]);
+            if (cmp < 0 || player < bestPlayer) {
+                best = scratch.clone();
+                bestPlayer = player;
+            }
+        }
+
+        return best == crates ? s : new SearchState(best, bestPlayer);
+    }
+
+    /**
+     * @return Lexicographic comparison of two crate arrays of the same length.
+     */
+    private static int compare(@NotNull int[] a, @NotNull int[] b) {
+        for (int i = 0; i < a.length; ++i) {
+            if (a[i] != b[i]) {
+                return Integer.compare(a[i], b[i]);
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,534 @@
+package model.Solver;
+
+import model.LevelFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Deadlock patterns of a {@link Board}, learned while searching and playing it.
+ * <p>
+ * A pattern is a small group of crates together with the region the player is in, for which a search with only those
+ * crates on the board has proven that they can never all be pushed onto destinations. Removing crates only makes a
+ * level easier, so any position which has the crates of a pattern, with the player in the same region once the other
+ * crates are taken away, is deadlocked as well.
+ * <p>
+ * Groups are taken from crates next to each other, including diagonally, since those are what block each other. The
+ * search proving a group deadlocked is bounded, and groups which could not be proven deadlocked are remembered too, so
+ * neither is searched again. Both are kept in least-recently-used order and bounded in size. Patterns can be stored
+ * in a file, one per line, as the player cell and the crate cells of the board.
+ * <p>
+ * This class is thread-safe, so patterns learned in live play can be saved in the background.
+ */
+public class DeadlockPatterns {
+    private static final int DEFAULT_CAPACITY = 1024;
+    /**
+     * Largest number of crates in a pattern.
+     */
+    private static final int MAX_CRATES = 4;
+    /**
+     * Number of states after which a group is given up on, and assumed not to be deadlocked.
+     */
+    private static final int MAX_NODES = 300;
+
+    private final Board board;
+    private final PushGenerator generator;
+    private final Path path;
+    private final int capacity;
+
+    private final Map<Pattern, Pattern> patterns;
+    private final Map<Pattern, Boolean> notDeadlocked;
+    /**
+     * Patterns containing each cell.
+     */
+    private final Map<Integer, Set<Pattern>> byCell = new HashMap<>();
+    private final int[] crateMark;
+    private int crateStamp = 0;
+    private boolean modified = false;
+    private long searches = 0;
+    /**
+     * Push distance from each cell to the nearest destination, computed on the first search.
+     */
+    private int[] goalDistance;
+
+    /**
+     * A group of crates, with the normalized player cell when only those crates are on the board.
+     */
+    private static final class Pattern {
+        private final int[] crates;
+        private final int player;
+
+        private Pattern(@NotNull int[] crates, int player) {
+            this.crates = crates;
+            this.player = player;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Pattern)) {
+                return false;
+            }
+            final Pattern p = (Pattern) o;
+            return player == p.player && Arrays.equals(crates, p.crates);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(crates) + player;
+        }
+    }
+
+    /**
+     * Creates an empty store which is only kept in memory.
+     *
+     * @param board Board the patterns are learned on
+     */
+    public DeadlockPatterns(@NotNull Board board) {
+        this(board, null, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Loads the patterns of a board.
+     *
+     * @param board Board the patterns are learned on
+     * @param path  Path of the pattern file. The file does not need to exist.
+     * @throws IOException if the file exists but cannot be read.
+     */
+    public DeadlockPatterns(@NotNull Board board, @NotNull Path path) throws IOException {
+        this(board, path, DEFAULT_CAPACITY);
+
+        if (!Files.exists(path)) {
+            return;
+        }
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            final Pattern p = parse(line);
+            if (p != null) {
+                add(p);
+            }
+        }
+        modified = false;
+    }
+
+    /**
+     * @param board    Board the patterns are learned on
+     * @param path     Path of the pattern file, or {@code null} to only keep patterns in memory
+     * @param capacity Largest number of patterns kept
+     */
+    DeadlockPatterns(@NotNull Board board, @Nullable Path path, int capacity) {
+        this.board = board;
+        this.generator = new PushGenerator(board);
+        this.path = path;
+        this.capacity = capacity;
+        this.crateMark = new int[board.size()];
+
+        this.patterns = new LinkedHashMap<Pattern, Pattern>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Pattern, Pattern> eldest) {
+                if (size() <= DeadlockPatterns.this.capacity) {
+                    return false;
+                }
+                for (int c : eldest.getKey().crates) {
+                    byCell.get(c).remove(eldest.getKey());
+                }
+                modified = true;
+                return true;
+            }
+        };
+        this.notDeadlocked = new LinkedHashMap<Pattern, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Pattern, Boolean> eldest) {
+                return size() > 4 * DeadlockPatterns.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * @return Default directory of pattern files, in the home directory of the user.
+     */
+    @NotNull
+    public static Path defaultDirectory() {
+        return Paths.get(System.getProperty("user.home"), ".sokoban", "deadlocks");
+    }
+
+    /**
+     * Patterns refer to cells by index, so a pattern file only fits boards with the same walls and destinations.
+     *
+     * @param board A board
+     * @return Name of the pattern file of the board, derived from its walls and destinations.
+     */
+    @NotNull
+    public static String fileName(@NotNull Board board) {
+        final byte[] terrain = new byte[board.size() + 8];
+        ByteBuffer.wrap(terrain).putInt(board.getRows()).putInt(board.getCols());
+        for (int i = 0; i < board.size(); ++i) {
+            terrain[8 + i] = (byte) (board.isGoal(i) ? 2 : board.isFloor(i) ? 1 : 0);
+        }
+
+        try {
+            final StringBuilder name = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("MD5").digest(terrain)) {
+                name.append(String.format("%02x", b));
+            }
+            return name.append(".txt").toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is required to be supported by every Java platform", e);
+        }
+    }
+
+    /**
+     * @return Number of patterns stored.
+     */
+    public synchronized int size() {
+        return patterns.size();
+    }
+
+    /**
+     * @return Number of groups of crates searched to find out whether they are deadlocked.
+     */
+    public synchronized long getSearches() {
+        return searches;
+    }
+
+    /**
+     * @return Whether patterns have been learned or evicted since the store was loaded or last saved.
+     */
+    public synchronized boolean isModified() {
+        return modified;
+    }
+
+    /**
+     * @param crates Cell indices of crates
+     * @param player Cell index of the player
+     * @return Whether any known pattern matches the position.
+     */
+    public synchronized boolean matches(@NotNull int[] crates, int player) {
+        markCrates(crates);
+        for (int c : crates) {
+            if (matchesAt(c, player)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks the position for patterns involving one crate, and otherwise searches the group of crates around it,
+     * learning a new pattern if the group is deadlocked. Used after pushing that crate, since patterns not involving
+     * it were already checked before the push.
+     *
+     * @param crates Cell indices of crates
+     * @param player Cell index of the player
+     * @param crate  Cell index of the crate to check around
+     * @return Whether the position is deadlocked.
+     */
+    public synchronized boolean isDeadlockedAround(@NotNull int[] crates, int player, int crate) {
+        markCrates(crates);
+        return matchesAt(crate, player) || learn(crate, player);
+    }
+
+    /**
+     * Checks the position for every known pattern, and searches every group of crates not known yet.
+     *
+     * @param crates Cell indices of crates
+     * @param player Cell index of the player
+     * @return Whether the position is deadlocked.
+     */
+    public synchronized boolean isDeadlocked(@NotNull int[] crates, int player) {
+        if (matches(crates, player)) {
+            return true;
+        }
+        for (int c : crates) {
+            if (learn(c, player)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the patterns to their file, least recently used first, replacing it atomically. Does nothing if nothing
+     * has changed since the last save, or the store is only kept in memory.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    public synchronized void save() throws IOException {
+        if (path == null || !modified) {
+            return;
+        }
+
+        final StringBuilder text = new StringBuilder();
+        for (Pattern p : patterns.keySet()) {
+            text.append(p.player);
+            for (int c : p.crates) {
+                text.append(' ').append(c);
+            }
+            text.append('\n');
+        }
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        LevelFile.write(path, text.toString().getBytes(StandardCharsets.UTF_8));
+        modified = false;
+    }
+
+    /**
+     * @param line Line of a pattern file
+     * @return The pattern on the line, or {@code null} if it is malformed or does not fit the board.
+     */
+    @Nullable
+    private Pattern parse(@NotNull String line) {
+        final String[] fields = line.trim().split(" ");
+        if (fields.length < 2 || fields.length > MAX_CRATES + 1) {
+            return null;
+        }
+
+        try {
+            final int player = Integer.parseInt(fields[0]);
+            final int[] crates = new int[fields.length - 1];
+            for (int i = 0; i < crates.length; ++i) {
+                crates[i] = Integer.parseInt(fields[i + 1]);
+            }
+            Arrays.sort(crates);
+
+            if (!isFloor(player)) {
+                return null;
+            }
+            for (int c : crates) {
+                if (!isFloor(c)) {
+                    return null;
+                }
+            }
+            return new Pattern(crates, player);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private boolean isFloor(int i) {
+        return i >= 0 && i < board.size() && board.isFloor(i);
+    }
+
+    /**
+     * Adds a pattern, evicting the least recently used one if the store is full.
+     */
+    private void add(@NotNull Pattern p) {
+        patterns.put(p, p);
+        for (int c : p.crates) {
+            byCell.computeIfAbsent(c, k -> new LinkedHashSet<>()).add(p);
+        }
+        modified = true;
+    }
+
+    /**
+     * Marks the crates of the position, for {@link #matchesAt(int, int)} and {@link #group(int)}.
+     */
+    private void markCrates(@NotNull int[] crates) {
+        if (crateStamp == Integer.MAX_VALUE) {
+            Arrays.fill(crateMark, 0);
+            crateStamp = 0;
+        }
+        ++crateStamp;
+        for (int c : crates) {
+            crateMark[c] = crateStamp;
+        }
+    }
+
+    /**
+     * @param cell   Cell index of a crate of the marked position
+     * @param player Cell index of the player
+     * @return Whether any pattern containing the crate matches the marked position.
+     */
+    private boolean matchesAt(int cell, int player) {
+        final Set<Pattern> candidates = byCell.get(cell);
+        if (candidates == null) {
+            return false;
+        }
+
+        for (Pattern p : candidates) {
+            boolean all = true;
+            for (int c : p.crates) {
+                if (crateMark[c] != crateStamp) {
+                    all = false;
+                    break;
+                }
+            }
+            if (all && generator.normalizePlayer(p.crates, player) == p.player) {
+                // touch the pattern so that it is evicted last
+                patterns.get(p);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Searches the group of crates around a crate of the marked position, if it has not been searched before.
+     *
+     * @param cell   Cell index of a crate of the marked position
+     * @param player Cell index of the player
+     * @return Whether the group was proven deadlocked.
+     */
+    private boolean learn(int cell, int player) {
+        final int[] group = group(cell);
+        if (group.length < 2) {
+            // lone crates which cannot reach a destination are dead squares already
+            return false;
+        }
+
+        final Pattern p = new Pattern(group, generator.normalizePlayer(group, player));
+        if (patterns.containsKey(p)) {
+            patterns.get(p);
+            return true;
+        }
+        if (notDeadlocked.containsKey(p)) {
+            notDeadlocked.get(p);
+            return false;
+        }
+
+        ++searches;
+        if (isUnsolvable(p)) {
+            add(p);
+            return true;
+        }
+        notDeadlocked.put(p, Boolean.TRUE);
+        return false;
+    }
+
+    /**
+     * @param cell Cell index of a crate of the marked position
+     * @return Sorted cell indices of up to {@link #MAX_CRATES} crates connected to the crate through adjacent cells,
+     * nearest first.
+     */
+    @NotNull
+    private int[] group(int cell) {
+        final int[] offsets = board.getOffsets();
+        final int width = offsets[1];
+        final int[] neighbours = {-width - 1, -width, -width + 1, -1, 1, width - 1, width, width + 1};
+
+        final List<Integer> found = new ArrayList<>();
+        final Set<Integer> seen = new HashSet<>();
+        found.add(cell);
+        seen.add(cell);
+        for (int head = 0; head < found.size() && found.size() < MAX_CRATES; ++head) {
+            final int c = found.get(head);
+            for (int d : neighbours) {
+                final int n = c + d;
+                if (n >= 0 && n < crateMark.length && crateMark[n] == crateStamp && seen.add(n)) {
+                    found.add(n);
+                    if (found.size() == MAX_CRATES) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        final int[] group = found.stream().mapToInt(Integer::intValue).toArray();
+        Arrays.sort(group);
+        return group;
+    }
+
+    /**
+     * Searches all positions reachable with only the crates of a pattern on the board, those closest to being solved
+     * first, so that groups which are not deadlocked are usually done with quickly.
+     *
+     * @param p Pattern to search from
+     * @return Whether the search ran out of positions without every crate reaching a destination.
+     */
+    private boolean isUnsolvable(@NotNull Pattern p) {
+        if (board.isSolved(p.crates)) {
+            return false;
+        }
+        if (goalDistance == null) {
+            goalDistance = nearestGoalDistances();
+        }
+
+        final SearchState start = new SearchState(p.crates.clone(), p.player);
+        final Set<SearchState> seen = new HashSet<>();
+        final PriorityQueue<SearchState> queue = new PriorityQueue<>(Comparator.comparingInt(this::distanceToGoals));
+        final List<SearchState> successors = new ArrayList<>();
+        seen.add(start);
+        queue.add(start);
+
+        while (!queue.isEmpty()) {
+            if (seen.size() > MAX_NODES) {
+                return false;
+            }
+
+            successors.clear();
+            generator.expand(queue.poll(), successors);
+            for (SearchState s : successors) {
+                if (board.isSolved(s.getCrates())) {
+                    return false;
+                }
+                if (seen.add(s)) {
+                    queue.add(s);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Sum of the push distances of the crates of a state to their nearest destinations.
+     */
+    private int distanceToGoals(@NotNull SearchState s) {
+        int sum = 0;
+        for (int c : s.getCrates()) {
+            sum += goalDistance[c];
+        }
+        return sum;
+    }
+
+    /**
+     * Pulls a crate away from all destinations at once, same as finding dead squares.
+     *
+     * @return Push distance from each cell to the nearest destination, for cells which are not dead.
+     */
+    @NotNull
+    private int[] nearestGoalDistances() {
+        final int[] offsets = board.getOffsets();
+        final int[] dist = new int[board.size()];
+        final int[] queue = new int[board.size()];
+        Arrays.fill(dist, -1);
+
+        int tail = 0;
+        for (int g : board.getGoals()) {
+            dist[g] = 0;
+            queue[tail++] = g;
+        }
+        for (int head = 0; head < tail; ++head) {
+            final int x = queue[head];
+            for (int d : offsets) {
+                final int from = x - d;
+                if (dist[from] == -1 && board.isFloor(from) && board.isFloor(from - d)) {
+                    dist[from] = dist[x] + 1;
+                    queue[tail++] = from;
+                }
+            }
+        }
+        return dist;
+    }
+}
@@ -0,0 +1,563 @@
+package model.Solver;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Breadth-first search which keeps its layers on disk instead of in memory, so that it can prove levels solvable or
+ * unsolvable within a fixed memory budget.
+ * <p>
+ * Each layer is streamed from its file and expanded. Successors are collected in memory until the budget is reached,
+ * then sorted, de-duplicated and written out as a run file. Once the layer is expanded, all runs are merged together
+ * with the sorted file of every state visited so far. Any state not already visited forms the next layer, and the
+ * visited file is rewritten with the new states included. Since pushes cannot be undone, a state may reappear from any
+ * earlier layer, which is why the whole visited file takes part in the merge.
+ * <p>
+ * All files are read and written sequentially through {@link FileChannel}s, and are placed in a new temporary
+ * directory which is deleted once the search ends.
+ */
+public class ExternalBfsSolver extends Solver {
+    /**
+     * Number of bytes of heap used for buffering successors by default.
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+
+    /**
+     * Estimated heap size of a {@link SearchState} with no crates, used to convert the memory budget into a number of
+     * states.
+     */
+    private static final int STATE_OVERHEAD_BYTES = 64;
+
+    /**
+     * Size of the buffer of each open file.
+     */
+    private static final int IO_BUFFER_BYTES = 1 << 16;
+
+    private final Path tempRoot;
+    private final long memoryBudget;
+    private final List<LayerStats> layerStats = new ArrayList<>();
+    private Consumer<LayerStats> progressListener = null;
+
+    private Path workDir;
+    private int fileCounter = 0;
+    private int cellBytes;
+    private int recordBytes;
+
+    /**
+     * Statistics of a single BFS layer.
+     */
+    public static final class LayerStats {
+        private final int depth;
+        private final long states;
+        private final int runs;
+        private final long bytesWritten;
+        private final long timeMillis;
+
+        private LayerStats(int depth, long states, int runs, long bytesWritten, long timeMillis) {
+            this.depth = depth;
+            this.states = states;
+            this.runs = runs;
+            this.bytesWritten = bytesWritten;
+            this.timeMillis = timeMillis;
+        }
+
+        /**
+         * @return Number of pushes from the initial position to the states in this layer.
+         */
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * @return Number of new states in this layer.
+         */
+        public long getStates() {
+            return states;
+        }
+
+        /**
+         * @return Number of sorted run files written while generating this layer.
+         */
+        public int getRuns() {
+            return runs;
+        }
+
+        /**
+         * @return Total bytes written to disk while generating this layer, including runs and the visited file.
+         */
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        public long getTimeMillis() {
+            return timeMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "layer " + depth + ": " + states + " states, " + runs + " runs, " + bytesWritten + " bytes, " + timeMillis + "ms";
+        }
+    }
+
+    /**
+     * Creates a solver which keeps its files in the default temporary directory, within the default memory budget.
+     *
+     * @param board Board to solve
+     */
+    public ExternalBfsSolver(@NotNull Board board) {
+        this(board, Paths.get(System.getProperty("java.io.tmpdir")), DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * @param board        Board to solve
+     * @param tempRoot     Directory to create the working directory in
+     * @param memoryBudget Approximate number of bytes of heap to use for buffering successors
+     */
+    public ExternalBfsSolver(@NotNull Board board, @NotNull Path tempRoot, long memoryBudget) {
+        super(board);
+        this.tempRoot = tempRoot;
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * @param listener Callback invoked after every layer is completed, or {@code null} to remove it
+     */
+    public void setProgressListener(@Nullable Consumer<LayerStats> listener) {
+        this.progressListener = listener;
+    }
+
+    /**
+     * @return Statistics of every layer completed so far.
+     */
+    public List<LayerStats> getLayerStats() {
+        return Collections.unmodifiableList(layerStats);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException if the layer files cannot be read or written.
+     */
+    @Override
+    public SolverResult solve() {
+        final long startTime = System.currentTimeMillis();
+
+        try {
+            workDir = Files.createTempDirectory(tempRoot, "sokoban-bfs");
+            try {
+                return search(startTime);
+            } finally {
+                try (Stream<Path> files = Files.list(workDir)) {
+                    files.forEach(f -> f.toFile().delete());
+                }
+                Files.delete(workDir);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to access layer files", e);
+        }
+    }
+
+    /**
+     * Runs the search inside {@link #workDir}.
+     *
+     * @param startTime Time the search started at
+     * @return Outcome of the search.
+     * @throws IOException if the layer files cannot be read or written.
+     */
+    private SolverResult search(long startTime) throws IOException {
+        final PushGenerator generator = new PushGenerator(board);
+        final SearchState initial = board.getInitialState();
+        final int numCrates = initial.getCrates().length;
+        final int maxBuffered = (int) Math.max(1, Math.min(Integer.MAX_VALUE - 8,
+                memoryBudget / (STATE_OVERHEAD_BYTES + 4L * numCrates)));
+
+        cellBytes = board.size() <= 0xFFFF ? 2 : 4;
+        recordBytes = (numCrates + 1) * cellBytes;
+
+        long nodes = 0;
+        long visitedStates = 1;
+
+        if (board.isSolved(initial.getCrates())) {
+            return result(SolverResult.Status.SOLVED, 0, nodes, visitedStates, startTime);
+        }
+
+        Path layer = newFile();
+        Path visited = newFile();
+        try (RecordWriter layerOut = new RecordWriter(layer); RecordWriter visitedOut = new RecordWriter(visited)) {
+            layerOut.write(initial);
+            visitedOut.write(initial);
+        }
+
+        final List<SearchState> buffer = new ArrayList<>();
+        final List<SearchState> successors = new ArrayList<>();
+
+        for (int depth = 1; ; ++depth) {
+            final long layerStart = System.currentTimeMillis();
+            final List<Path> runs = new ArrayList<>();
+            long bytesWritten = 0;
+
+            try (RecordReader in = new RecordReader(layer)) {
+                SearchState s;
+                while ((s = in.readState()) != null) {
+                    if (isCancelled()) {
+                        return result(SolverResult.Status.CANCELLED, -1, nodes, visitedStates, startTime);
+                    }
+
+                    ++nodes;
+                    successors.clear();
+                    generator.expand(s, successors);
+
+                    for (SearchState succ : successors) {
+                        if (board.isSolved(succ.getCrates())) {
+                            return result(SolverResult.Status.SOLVED, depth, nodes, visitedStates, startTime);
+                        }
+                        buffer.add(succ);
+                    }
+
+                    if (buffer.size() >= maxBuffered) {
+                        bytesWritten += writeRun(buffer, runs);
+                    }
+                }
+            }
+            if (!buffer.isEmpty()) {
+                bytesWritten += writeRun(buffer, runs);
+            }
+
+            Files.delete(layer);
+            layer = newFile();
+            Path newVisited = newFile();
+
+            final long states = mergeRuns(runs, visited, layer, newVisited);
+            if (states < 0) {
+                return result(SolverResult.Status.CANCELLED, -1, nodes, visitedStates, startTime);
+            }
+            bytesWritten += Files.size(layer) + Files.size(newVisited);
+            visitedStates += states;
+
+            for (Path run : runs) {
+                Files.delete(run);
+            }
+            Files.delete(visited);
+            visited = newVisited;
+
+            LayerStats stats = new LayerStats(depth, states, runs.size(), bytesWritten, System.currentTimeMillis() - layerStart);
+            layerStats.add(stats);
+            if (progressListener != null) {
+                progressListener.accept(stats);
+            }
+
+            if (states == 0) {
+                return result(SolverResult.Status.UNSOLVABLE, -1, nodes, visitedStates, startTime);
+            }
+        }
+    }
+
+    /**
+     * Sorts and de-duplicates the buffered states, writes them into a new run file, and clears the buffer.
+     *
+     * @param buffer States to write
+     * @param runs   List to add the new run file to
+     * @return Number of bytes written.
+     * @throws IOException if the run cannot be written.
+     */
+    private long writeRun(@NotNull List<SearchState> buffer, @NotNull List<Path> runs) throws IOException {
+        buffer.sort(STATE_ORDER);
+
+        Path run = newFile();
+        long bytes = 0;
+        try (RecordWriter out = new RecordWriter(run)) {
+            SearchState last = null;
+            for (SearchState s : buffer) {
+                if (!s.equals(last)) {
+                    out.write(s);
+                    bytes += recordBytes;
+                    last = s;
+                }
+            }
+        }
+
+        runs.add(run);
+        buffer.clear();
+        return bytes;
+    }
+
+    /**
+     * Merges sorted runs with the sorted visited file.
+     *
+     * @param runs       Sorted run files of the new layer
+     * @param visited    Sorted file of all previously visited states
+     * @param layerOut   File to write states which were not visited before
+     * @param visitedOut File to write the union of all states
+     * @return Number of states written into {@code layerOut}, or -1 if the search was cancelled during the merge.
+     * @throws IOException if any of the files cannot be read or written.
+     */
+    private long mergeRuns(@NotNull List<Path> runs, @NotNull Path visited, @NotNull Path layerOut, @NotNull Path visitedOut) throws IOException {
+        final PriorityQueue<Cursor> queue = new PriorityQueue<>(Math.max(1, runs.size() + 1), Comparator.comparing((Cursor c) -> c.current, ExternalBfsSolver::compareRecords));
+        final List<Cursor> cursors = new ArrayList<>();
+        long states = 0;
+
+        try (RecordWriter layerWriter = new RecordWriter(layerOut); RecordWriter visitedWriter = new RecordWriter(visitedOut)) {
+            cursors.add(new Cursor(new RecordReader(visited), true));
+            for (Path run : runs) {
+                cursors.add(new Cursor(new RecordReader(run), false));
+            }
+            for (Cursor c : cursors) {
+                if (c.advance()) {
+                    queue.add(c);
+                }
+            }
+
+            final List<Cursor> equal = new ArrayList<>();
+            while (!queue.isEmpty()) {
+                // a merge reads every state visited so far, so it can take as long as expanding the layer
+                if (isCancelled()) {
+                    return -1;
+                }
+
+                Cursor first = queue.poll();
+                equal.clear();
+                equal.add(first);
+                while (!queue.isEmpty() && compareRecords(queue.peek().current, first.current) == 0) {
+                    equal.add(queue.poll());
+                }
+
+                boolean seen = false;
+                for (Cursor c : equal) {
+                    seen |= c.isVisited;
+                }
+
+                visitedWriter.write(first.current);
+                if (!seen) {
+                    layerWriter.write(first.current);
+                    ++states;
+                }
+
+                for (Cursor c : equal) {
+                    if (c.advance()) {
+                        queue.add(c);
+                    }
+                }
+            }
+        } finally {
+            for (Cursor c : cursors) {
+                c.reader.close();
+            }
+        }
+
+        return states;
+    }
+
+    /**
+     * @return Path of a new, not yet created file inside the working directory.
+     */
+    private Path newFile() {
+        return workDir.resolve("layer-" + (fileCounter++) + ".bin");
+    }
+
+    /**
+     * @param status        Outcome of the search
+     * @param pushes        Number of pushes of the solution
+     * @param nodes         Number of states expanded
+     * @param visitedStates Number of states written to disk
+     * @param startTime     Time the search started at
+     * @return Result of the search, attributing all nodes to the current thread.
+     */
+    private SolverResult result(@NotNull SolverResult.Status status, int pushes, long nodes, long visitedStates, long startTime) {
+        return new SolverResult(status, pushes, nodes, visitedStates, System.currentTimeMillis() - startTime,
+                Collections.singletonMap(Thread.currentThread().getName(), nodes));
+    }
+
+    /**
+     * Orders states the same way as their records compare, i.e. by player and then by each crate.
+     */
+    private static final Comparator<SearchState> STATE_ORDER = (a, b) -> {
+        int result = Integer.compare(a.getPlayer(), b.getPlayer());
+        final int[] ac = a.getCrates();
+        final int[] bc = b.getCrates();
+        for (int i = 0; result == 0 && i < ac.length; ++i) {
+            result = Integer.compare(ac[i], bc[i]);
+        }
+        return result;
+    };
+
+    /**
+     * @param a A record
+     * @param b Another record of the same length
+     * @return Result of comparing the records as unsigned big-endian numbers.
+     */
+    private static int compareRecords(@NotNull byte[] a, @NotNull byte[] b) {
+        for (int i = 0; i < a.length; ++i) {
+            int result = Integer.compare(a[i] & 0xFF, b[i] & 0xFF);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Position of a reader within a merge.
+     */
+    private static final class Cursor {
+        private final RecordReader reader;
+        private final boolean isVisited;
+        private byte[] current;
+
+        private Cursor(@NotNull RecordReader reader, boolean isVisited) {
+            this.reader = reader;
+            this.isVisited = isVisited;
+        }
+
+        /**
+         * @return Whether there was another record to move to.
+         * @throws IOException if the file cannot be read.
+         */
+        private boolean advance() throws IOException {
+            current = reader.read();
+            return current != null;
+        }
+    }
+
+    /**
+     * Writes fixed-size records sequentially into a file.
+     */
+    private final class RecordWriter implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_BYTES);
+
+        private RecordWriter(@NotNull Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        }
+
+        private void write(@NotNull SearchState s) throws IOException {
+            ensureSpace();
+            putCell(s.getPlayer());
+            for (int c : s.getCrates()) {
+                putCell(c);
+            }
+        }
+
+        private void write(@NotNull byte[] record) throws IOException {
+            ensureSpace();
+            buffer.put(record);
+        }
+
+        private void putCell(int cell) {
+            if (cellBytes == 2) {
+                buffer.putShort((short) cell);
+            } else {
+                buffer.putInt(cell);
+            }
+        }
+
+        private void ensureSpace() throws IOException {
+            if (buffer.remaining() < recordBytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Reads fixed-size records sequentially from a file.
+     */
+    private final class RecordReader implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_BYTES);
+
+        private RecordReader(@NotNull Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            buffer.limit(0);
+        }
+
+        /**
+         * @return The next record, or {@code null} at the end of the file.
+         * @throws IOException if the file cannot be read.
+         */
+        private @Nullable byte[] read() throws IOException {
+            if (!fill()) {
+                return null;
+            }
+
+            byte[] record = new byte[recordBytes];
+            buffer.get(record);
+            return record;
+        }
+
+        /**
+         * @return The next record decoded as a state, or {@code null} at the end of the file.
+         * @throws IOException if the file cannot be read.
+         */
+        private @Nullable SearchState readState() throws IOException {
+            if (!fill()) {
+                return null;
+            }
+
+            final int player = getCell();
+            final int[] crates = new int[recordBytes / cellBytes - 1];
+            for (int i = 0; i < crates.length; ++i) {
+                crates[i] = getCell();
+            }
+            return new SearchState(crates, player);
+        }
+
+        private int getCell() {
+            return cellBytes == 2 ? buffer.getShort() & 0xFFFF : buffer.getInt();
+        }
+
+        /**
+         * @return Whether a whole record is available in the buffer.
+         * @throws IOException if the file cannot be read.
+         */
+        private boolean fill() throws IOException {
+            if (buffer.remaining() >= recordBytes) {
+                return true;
+            }
+
+            buffer.compact();
+            while (buffer.position() < recordBytes && channel.read(buffer) >= 0) {
+                // keep reading until a whole record is available or the file ends
+            }
+            buffer.flip();
+            return buffer.remaining() >= recordBytes;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
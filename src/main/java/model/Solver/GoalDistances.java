@@ -0,0 +1,77 @@
+package model.Solver;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed push distances from every cell to every destination of a {@link Board}.
+ * <p>
+ * A distance is the minimum number of pushes to move a lone crate from a cell onto a destination, ignoring all other
+ * crates. It is therefore never more than the real number of pushes needed. The tables are immutable once built, and
+ * can be shared between threads.
+ */
+public final class GoalDistances {
+    /**
+     * Distance of a cell from which a crate can never reach the destination.
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final Board board;
+    private final int[][] distances;
+
+    /**
+     * @param board Board to compute distances for
+     */
+    public GoalDistances(@NotNull Board board) {
+        this.board = board;
+
+        final int[] goals = board.getGoals();
+        final int[] offsets = board.getOffsets();
+        final int[] queue = new int[board.size()];
+
+        distances = new int[goals.length][];
+        for (int g = 0; g < goals.length; ++g) {
+            int[] dist = new int[board.size()];
+            Arrays.fill(dist, UNREACHABLE);
+
+            // pull a crate away from the destination, same as finding dead squares
+            int head = 0;
+            int tail = 0;
+            dist[goals[g]] = 0;
+            queue[tail++] = goals[g];
+            while (head < tail) {
+                final int x = queue[head++];
+                for (int d : offsets) {
+                    final int from = x - d;
+                    if (dist[from] == UNREACHABLE && board.isFloor(from) && board.isFloor(from - d)) {
+                        dist[from] = dist[x] + 1;
+                        queue[tail++] = from;
+                    }
+                }
+            }
+
+            distances[g] = dist;
+        }
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * @return Number of destinations.
+     */
+    public int getNumGoals() {
+        return distances.length;
+    }
+
+    /**
+     * @param goal Index of the destination, in the order of {@link Board#getGoals()}
+     * @param cell Cell index of the crate
+     * @return Minimum number of pushes to move a crate from the cell onto the destination, or {@link #UNREACHABLE}.
+     */
+    public int get(int goal, int cell) {
+        return distances[goal][cell];
+    }
+}
@@ -0,0 +1,23 @@
+package model.Solver;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Single-threaded {@link VisitedSet} backed by a {@link HashSet}.
+ */
+public class HashVisitedSet implements VisitedSet {
+    private final Set<SearchState> states = new HashSet<>();
+
+    @Override
+    public boolean add(@NotNull SearchState s) {
+        return states.add(s);
+    }
+
+    @Override
+    public long size() {
+        return states.size();
+    }
+}
@@ -0,0 +1,335 @@
+package model.Solver;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Iterative-deepening A*: repeated depth-first searches over push space, each bounded by an estimate of the total
+ * number of pushes, guided by {@link MatchingHeuristic}. The bound starts at the estimate of the initial position and
+ * is raised to the smallest estimate which exceeded it after every iteration, so like {@link AStarSolver} the first
+ * solution found uses the minimum number of pushes.
+ * <p>
+ * Only the current path is kept: pushes are made on a single crate array and undone after their subtree has been
+ * searched, and the heuristic is updated by moving the crate there and back. Positions already seen in the current
+ * iteration at no more pushes are skipped with the help of a transposition table of fixed size, keyed by Zobrist
+ * hashes of the crates and the normalized player, in which newer positions replace older ones. Memory use is thus
+ * independent of the size of the search, at the cost of expanding positions again in every iteration.
+ * <p>
+ * Crates are pushed through tunnels as single moves, as in {@link PushGenerator}.
+ */
+public class IdaStarSolver extends Solver {
+    /**
+     * Number of transposition table entries used by default, taking 3 MiB.
+     */
+    public static final int DEFAULT_TABLE_SIZE = 1 << 18;
+
+    /**
+     * Number of nodes expanded between checks for cancellation.
+     */
+    private static final int CANCEL_CHECK_INTERVAL = 1024;
+
+    private final GoalDistances distances;
+    private final int[] offsets;
+    private final long[] crateKeys;
+    private final long[] playerKeys;
+    private final long[] tableKeys;
+    private final int[] tablePushes;
+    private final List<Integer> thresholds = Collections.synchronizedList(new ArrayList<>());
+
+    // state of the search in progress
+    private MatchingHeuristic heuristic;
+    private int[] crates;
+    private boolean[] crateAt;
+    private long hash;
+    private int nextBound;
+    private long nodes;
+    private long stored;
+    private boolean stopped;
+    private int[] reached;
+    private int[] queue;
+    private int stamp;
+    private final List<int[]> movesByDepth = new ArrayList<>();
+
+    /**
+     * @param board Board to solve
+     */
+    public IdaStarSolver(@NotNull Board board) {
+        this(board, new GoalDistances(board), DEFAULT_TABLE_SIZE);
+    }
+
+    /**
+     * @param board     Board to solve
+     * @param distances Precomputed distance tables of the board
+     * @param tableSize Number of entries of the transposition table, a power of two, each taking 12 bytes
+     * @throws IllegalArgumentException if the table size is not a positive power of two.
+     */
+    public IdaStarSolver(@NotNull Board board, @NotNull GoalDistances distances, int tableSize) {
+        super(board);
+        if (tableSize <= 0 || Integer.bitCount(tableSize) != 1) {
+            throw new IllegalArgumentException("Table size must be a positive power of two: " + tableSize);
+        }
+
+        this.distances = distances;
+        this.offsets = board.getOffsets();
+        this.tableKeys = new long[tableSize];
+        this.tablePushes = new int[tableSize];
+
+        // fixed seed, so that searches are repeatable
+        final Random random = new Random(board.size());
+        this.crateKeys = new long[board.size()];
+        this.playerKeys = new long[board.size()];
+        for (int i = 0; i < board.size(); ++i) {
+            crateKeys[i] = random.nextLong();
+            playerKeys[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * @return Number of iterations of the last search, i.e. the number of bounds tried.
+     */
+    public int getIterations() {
+        return thresholds.size();
+    }
+
+    /**
+     * @return Bound on the total number of pushes of each iteration of the last search, in increasing order.
+     */
+    public List<Integer> getThresholds() {
+        synchronized (thresholds) {
+            return new ArrayList<>(thresholds);
+        }
+    }
+
+    @Override
+    public SolverResult solve() {
+        final long startTime = System.currentTimeMillis();
+        final SearchState initial = board.getInitialState();
+
+        heuristic = new MatchingHeuristic(distances);
+        crates = initial.getCrates().clone();
+        crateAt = new boolean[board.size()];
+        reached = new int[board.size()];
+        queue = new int[board.size()];
+        hash = 0;
+        for (int c : crates) {
+            crateAt[c] = true;
+            hash ^= crateKeys[c];
+        }
+        nodes = 0;
+        stopped = false;
+        thresholds.clear();
+
+        final int h = heuristic.reset(crates);
+        if (h == MatchingHeuristic.INFINITY) {
+            return result(SolverResult.Status.UNSOLVABLE, -1, startTime);
+        }
+
+        int bound = h;
+        while (true) {
+            thresholds.add(bound);
+            Arrays.fill(tableKeys, 0);
+            stored = 0;
+            nextBound = Integer.MAX_VALUE;
+
+            final int pushes = search(initial.getPlayer(), 0, h, bound, 0);
+            if (pushes >= 0) {
+                return result(SolverResult.Status.SOLVED, pushes, startTime);
+            }
+            if (stopped) {
+                return result(SolverResult.Status.CANCELLED, -1, startTime);
+            }
+            if (nextBound == Integer.MAX_VALUE) {
+                // nothing was cut off by the bound, so the whole space has been searched
+                return result(SolverResult.Status.UNSOLVABLE, -1, startTime);
+            }
+            bound = nextBound;
+        }
+    }
+
+    /**
+     * Searches the current position depth-first, leaving the position as it was on return.
+     *
+     * @param player Cell index of the player
+     * @param pushes Number of pushes made to reach the position
+     * @param h      Heuristic value of the position
+     * @param bound  Bound on the total number of pushes of this iteration
+     * @param depth  Number of moves made to reach the position
+     * @return Total number of pushes of the solution found, or -1 if there is none within the bound or the search has
+     * been stopped.
+     */
+    private int search(int player, int pushes, int h, int bound, int depth) {
+        final int estimate = pushes + h;
+        if (estimate > bound) {
+            nextBound = Math.min(nextBound, estimate);
+            return -1;
+        }
+        if (h == 0 && board.isSolved(crates)) {
+            return pushes;
+        }
+        if (nodes++ % CANCEL_CHECK_INTERVAL == 0 && isCancelled()) {
+            stopped = true;
+            return -1;
+        }
+
+        if (!visit(floodFill(player), pushes)) {
+            return -1;
+        }
+
+        // collect the moves first, since the reachable cells are overwritten further down
+        final int count = collectMoves(depth);
+        final int[] moves = movesByDepth.get(depth);
+        for (int m = 0; m < count; m += 3) {
+            final int i = moves[m];
+            final int target = moves[m + 1];
+            final int d = moves[m + 2];
+            final int from = crates[i];
+
+            moveCrate(i, from, target);
+            final int childH = heuristic.moveCrate(from, target);
+            final int result = childH == MatchingHeuristic.INFINITY ? -1
+                    : search(target - d, pushes + (target - from) / d, childH, bound, depth + 1);
+            heuristic.moveCrate(target, from);
+            moveCrate(i, target, from);
+
+            if (result >= 0 || stopped) {
+                return result;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Records the current position in the transposition table.
+     *
+     * @param player Normalized cell index of the player
+     * @param pushes Number of pushes made to reach the position
+     * @return Whether the position should be searched, i.e. it has not been searched in this iteration with as few
+     * pushes, as far as the table remembers.
+     */
+    private boolean visit(int player, int pushes) {
+        // 0 marks an empty slot
+        final long key = (hash ^ playerKeys[player]) | 1;
+        final int slot = (int) (key ^ key >>> 32) & (tableKeys.length - 1);
+        if (tableKeys[slot] == key) {
+            if (tablePushes[slot] <= pushes) {
+                return false;
+            }
+        } else if (tableKeys[slot] == 0) {
+            ++stored;
+        }
+
+        tableKeys[slot] = key;
+        tablePushes[slot] = pushes;
+        return true;
+    }
+
+    /**
+     * Stores every push the player can walk to from the cells marked by the last {@link #floodFill(int)} into the
+     * move buffer of the given depth, as triples of crate index, target cell and direction offset.
+     *
+     * @param depth Number of moves made to reach the position
+     * @return Number of ints stored.
+     */
+    private int collectMoves(int depth) {
+        while (movesByDepth.size() <= depth) {
+            movesByDepth.add(new int[crates.length * offsets.length * 3]);
+        }
+        final int[] moves = movesByDepth.get(depth);
+
+        int count = 0;
+        for (int i = 0; i < crates.length; ++i) {
+            final int c = crates[i];
+            for (int k = 0; k < offsets.length; ++k) {
+                final int d = offsets[k];
+                int target = c + d;
+                if (reached[c - d] != stamp || !isFree(target)) {
+                    continue;
+                }
+                while (board.isTunnel(target, k) && isFree(target + d)) {
+                    target += d;
+                }
+
+                moves[count++] = i;
+                moves[count++] = target;
+                moves[count++] = d;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param cell Cell index
+     * @return Whether a crate can be pushed onto the cell, i.e. it is a floor cell which is not dead and not holding
+     * a crate.
+     */
+    private boolean isFree(int cell) {
+        return board.isFloor(cell) && !board.isDead(cell) && !crateAt[cell];
+    }
+
+    /**
+     * Moves a crate in place, updating the occupancy table and the hash.
+     *
+     * @param i    Index into the crates of the crate to move
+     * @param from Current cell index of the crate
+     * @param to   New cell index of the crate
+     */
+    private void moveCrate(int i, int from, int to) {
+        crates[i] = to;
+        crateAt[from] = false;
+        crateAt[to] = true;
+        hash ^= crateKeys[from] ^ crateKeys[to];
+    }
+
+    /**
+     * Marks every cell the player can walk to from {@code start} with a new stamp, treating crates as obstacles.
+     *
+     * @param start Cell index of the player
+     * @return The smallest reachable cell index.
+     */
+    private int floodFill(int start) {
+        if (stamp == Integer.MAX_VALUE) {
+            Arrays.fill(reached, 0);
+            stamp = 0;
+        }
+        ++stamp;
+
+        int head = 0;
+        int tail = 0;
+        int min = start;
+
+        reached[start] = stamp;
+        queue[tail++] = start;
+        while (head < tail) {
+            final int x = queue[head++];
+            if (x < min) {
+                min = x;
+            }
+
+            for (int d : offsets) {
+                final int y = x + d;
+                if (reached[y] != stamp && board.isFloor(y) && !crateAt[y]) {
+                    reached[y] = stamp;
+                    queue[tail++] = y;
+                }
+            }
+        }
+        return min;
+    }
+
+    /**
+     * @param status    Outcome of the search
+     * @param pushes    Number of pushes of the solution
+     * @param startTime Time the search started at
+     * @return Result of the search, with the entries of the transposition table in use as the states stored, and
+     * all nodes attributed to the current thread.
+     */
+    private SolverResult result(@NotNull SolverResult.Status status, int pushes, long startTime) {
+        return new SolverResult(status, pushes, nodes, stored, System.currentTimeMillis() - startTime,
+                Collections.singletonMap(Thread.currentThread().getName(), nodes));
+    }
+}
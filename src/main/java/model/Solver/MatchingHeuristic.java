@@ -0,0 +1,255 @@
+package model.Solver;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Admissible lower bound on the number of pushes left, found by assigning every crate to its own destination such
+ * that the total push distance is minimal.
+ * <p>
+ * The assignment is solved with the Hungarian algorithm over {@link GoalDistances}. The row and column potentials are
+ * kept between calls, so when a single crate moves only that crate has to be re-assigned, in O(n<sup>2</sup>) instead
+ * of O(n<sup>3</sup>). This only holds when there are exactly as many crates as destinations; otherwise every move
+ * solves the assignment from scratch. A {@link Snapshot} of the assignment lets a search return to an earlier position
+ * and move a different crate from there, without solving from scratch either.
+ * <p>
+ * If there is no assignment where every crate can reach its destination, the level is deadlocked and the value is
+ * {@link #INFINITY}.
+ * <p>
+ * Holds the current assignment, so an instance must only be used by one thread at a time.
+ */
+public final class MatchingHeuristic {
+    /**
+     * Value of a position which can never be solved.
+     */
+    public static final int INFINITY = Integer.MAX_VALUE;
+
+    /**
+     * Cost used in place of {@link GoalDistances#UNREACHABLE}. Larger than any real total, but small enough to be
+     * summed without overflow.
+     */
+    private static final long UNREACHABLE_COST = 1L << 32;
+
+    private final GoalDistances distances;
+    private final int numGoals;
+
+    private int[] crates = new int[0];
+    private long[] u = new long[1];
+    private final long[] v;
+    private final int[] assignedCrate;
+    private final int[] way;
+    private final long[] minv;
+    private final boolean[] used;
+    private long value = 0;
+
+    /**
+     * Copy of the crates, potentials and assignment of a heuristic, to be restored later.
+     */
+    static final class Snapshot {
+        private final int[] crates;
+        private final long[] u;
+        private final long[] v;
+        private final int[] assignedCrate;
+        private final long value;
+
+        private Snapshot(@NotNull MatchingHeuristic h) {
+            this.crates = h.crates.clone();
+            this.u = h.u.clone();
+            this.v = h.v.clone();
+            this.assignedCrate = h.assignedCrate.clone();
+            this.value = h.value;
+        }
+    }
+
+    /**
+     * @param distances Distance tables of the board
+     */
+    public MatchingHeuristic(@NotNull GoalDistances distances) {
+        this.distances = distances;
+        this.numGoals = distances.getNumGoals();
+
+        // arrays over destinations are 1-based, with slot 0 used as the virtual start of each augmenting path
+        v = new long[numGoals + 1];
+        assignedCrate = new int[numGoals + 1];
+        way = new int[numGoals + 1];
+        minv = new long[numGoals + 1];
+        used = new boolean[numGoals + 1];
+    }
+
+    /**
+     * Solves the assignment from scratch.
+     *
+     * @param crates Cell indices of crates
+     * @return Lower bound on the number of pushes left, or {@link #INFINITY} if deadlocked.
+     */
+    public int reset(@NotNull int[] crates) {
+        this.crates = crates.clone();
+        if (crates.length > numGoals) {
+            value = UNREACHABLE_COST;
+            return INFINITY;
+        }
+
+        u = new long[crates.length + 1];
+        Arrays.fill(v, 0);
+        Arrays.fill(assignedCrate, 0);
+        for (int i = 1; i <= crates.length; ++i) {
+            augment(i);
+        }
+
+        return computeValue();
+    }
+
+    /**
+     * Moves one crate and re-assigns it, keeping the assignment of all other crates as a starting point.
+     *
+     * @param from Current cell index of the crate
+     * @param to   New cell index of the crate
+     * @return Lower bound on the number of pushes left, or {@link #INFINITY} if deadlocked.
+     * @throws IllegalArgumentException if there is no crate at {@code from}.
+     */
+    public int moveCrate(int from, int to) {
+        int row = -1;
+        for (int i = 0; i < crates.length; ++i) {
+            if (crates[i] == from) {
+                row = i + 1;
+                break;
+            }
+        }
+        if (row == -1) {
+            throw new IllegalArgumentException("No crate at cell " + from);
+        }
+
+        crates[row - 1] = to;
+        if (crates.length != numGoals) {
+            return reset(crates);
+        }
+
+        for (int j = 1; j <= numGoals; ++j) {
+            if (assignedCrate[j] == row) {
+                assignedCrate[j] = 0;
+                break;
+            }
+        }
+
+        // the costs of this row have changed, so lower its potential until every edge is feasible again
+        long newU = Long.MAX_VALUE;
+        for (int j = 1; j <= numGoals; ++j) {
+            newU = Math.min(newU, cost(row, j) - v[j]);
+        }
+        u[row] = newU;
+
+        augment(row);
+        return computeValue();
+    }
+
+    /**
+     * @return Copy of the current assignment, in O(n).
+     */
+    @NotNull
+    Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Returns to an assignment taken from a heuristic over the same distance tables, in O(n). The snapshot itself is
+     * left unchanged, so it can be restored again.
+     *
+     * @param snapshot Assignment to return to
+     * @return Lower bound on the number of pushes left, or {@link #INFINITY} if deadlocked.
+     */
+    int restore(@NotNull Snapshot snapshot) {
+        crates = snapshot.crates.clone();
+        u = snapshot.u.clone();
+        System.arraycopy(snapshot.v, 0, v, 0, v.length);
+        System.arraycopy(snapshot.assignedCrate, 0, assignedCrate, 0, assignedCrate.length);
+        value = snapshot.value;
+        return getValue();
+    }
+
+    /**
+     * @return Value of the current assignment.
+     */
+    public int getValue() {
+        return value >= UNREACHABLE_COST ? INFINITY : (int) value;
+    }
+
+    /**
+     * @return Whether some crate cannot be assigned to any destination it can reach.
+     */
+    public boolean isDeadlocked() {
+        return value >= UNREACHABLE_COST;
+    }
+
+    /**
+     * @param row 1-based crate index
+     * @param col 1-based destination index
+     * @return Cost of assigning the crate to the destination.
+     */
+    private long cost(int row, int col) {
+        int d = distances.get(col - 1, crates[row - 1]);
+        return d == GoalDistances.UNREACHABLE ? UNREACHABLE_COST : d;
+    }
+
+    /**
+     * Finds a shortest augmenting path from an unassigned crate, and flips the assignment along it.
+     *
+     * @param row 1-based index of the unassigned crate
+     */
+    private void augment(int row) {
+        assignedCrate[0] = row;
+        int j0 = 0;
+        Arrays.fill(minv, Long.MAX_VALUE);
+        Arrays.fill(used, false);
+
+        do {
+            used[j0] = true;
+            final int i0 = assignedCrate[j0];
+            long delta = Long.MAX_VALUE;
+            int j1 = 0;
+
+            for (int j = 1; j <= numGoals; ++j) {
+                if (!used[j]) {
+                    long cur = cost(i0, j) - u[i0] - v[j];
+                    if (cur < minv[j]) {
+                        minv[j] = cur;
+                        way[j] = j0;
+                    }
+                    if (minv[j] < delta) {
+                        delta = minv[j];
+                        j1 = j;
+                    }
+                }
+            }
+
+            for (int j = 0; j <= numGoals; ++j) {
+                if (used[j]) {
+                    u[assignedCrate[j]] += delta;
+                    v[j] -= delta;
+                } else {
+                    minv[j] -= delta;
+                }
+            }
+            j0 = j1;
+        } while (assignedCrate[j0] != 0);
+
+        do {
+            final int j1 = way[j0];
+            assignedCrate[j0] = assignedCrate[j1];
+            j0 = j1;
+        } while (j0 != 0);
+    }
+
+    /**
+     * @return Total cost of the current assignment, also stored into {@link #value}.
+     */
+    private int computeValue() {
+        value = 0;
+        for (int j = 1; j <= numGoals; ++j) {
+            if (assignedCrate[j] != 0) {
+                value += cost(assignedCrate[j], j);
+            }
+        }
+        return getValue();
+    }
+}
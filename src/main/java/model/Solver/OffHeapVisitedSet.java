@@ -0,0 +1,307 @@
+package model.Solver;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-threaded {@link VisitedSet} laid out like {@link PackedVisitedSet}, but with both the encoded states and the
+ * open-addressing table held outside the Java heap, so that the garbage collector never has to scan or copy them and
+ * the set can grow far beyond the heap size.
+ * <p>
+ * Memory comes either from direct buffers, which count against {@code -XX:MaxDirectMemorySize}, or from a temporary
+ * file in a given directory which is mapped into memory, so the operating system can page it out. The table is split
+ * into pages, since a single buffer holds at most 2 GiB.
+ * <p>
+ * Direct memory is returned once the set is closed and its buffers have been garbage collected; a mapped file is
+ * deleted on {@link #close()}.
+ */
+public class OffHeapVisitedSet implements VisitedSet, Closeable {
+    private static final int CHUNK_BITS = 22;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int PAGE_BITS = 24;
+    private static final long PAGE_SLOTS = 1L << PAGE_BITS;
+    private static final int ADDRESS_BITS = 40;
+    private static final long ADDRESS_MASK = (1L << ADDRESS_BITS) - 1;
+    private static final double MAX_LOAD = 0.6;
+
+    private final StateCodec codec;
+    private final byte[] scratch;
+    private final Path file;
+    private final FileChannel channel;
+    private long mappedBytes = 0;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private List<ByteBuffer> table;
+    private long tableSlots = 1 << 10;
+    private long size = 0;
+    private int chunkPos = CHUNK_SIZE;
+    private long usedBytes = 0;
+
+    /**
+     * Creates a set backed by direct buffers.
+     *
+     * @param codec Codec of the board whose states will be stored
+     */
+    public OffHeapVisitedSet(@NotNull StateCodec codec) {
+        this.codec = codec;
+        this.scratch = new byte[codec.getMaxPackedBytes()];
+        this.file = null;
+        this.channel = null;
+        this.table = allocateTable(tableSlots);
+    }
+
+    /**
+     * Creates a set backed by a memory-mapped temporary file.
+     *
+     * @param codec     Codec of the board whose states will be stored
+     * @param directory Directory to create the file in
+     * @throws IOException if the file cannot be created.
+     */
+    public OffHeapVisitedSet(@NotNull StateCodec codec, @NotNull Path directory) throws IOException {
+        this.codec = codec;
+        this.scratch = new byte[codec.getMaxPackedBytes()];
+        this.file = Files.createTempFile(directory, "visited", ".bin");
+        this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.table = allocateTable(tableSlots);
+    }
+
+    @Override
+    public boolean add(@NotNull SearchState s) {
+        final int length = codec.pack(s.getCrates(), s.getPlayer(), scratch);
+        return add(scratch, 0, length);
+    }
+
+    /**
+     * Adds an encoded state into the set.
+     *
+     * @param bytes  Buffer holding the encoded state
+     * @param offset Offset of the encoded state
+     * @param length Length of the encoded state
+     * @return Whether the state was not in the set before.
+     * @throws IllegalArgumentException if the state is longer than half a chunk.
+     * @throws UncheckedIOException     if the mapped file cannot be extended.
+     */
+    public boolean add(@NotNull byte[] bytes, int offset, int length) {
+        if (length > CHUNK_SIZE / 2) {
+            throw new IllegalArgumentException("Encoded state is too long: " + length + " bytes");
+        }
+
+        final int hash = StateCodec.hash(bytes, offset, length);
+        final long tag = (long) (hash >>> 8) << ADDRESS_BITS;
+        final long mask = tableSlots - 1;
+
+        long slot = hash & mask;
+        long entry;
+        while ((entry = getSlot(table, slot)) != 0) {
+            if ((entry & ~ADDRESS_MASK) == tag && matches(entry & ADDRESS_MASK, bytes, offset, length)) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        putSlot(table, slot, tag | append(bytes, offset, length));
+        if (++size > tableSlots * MAX_LOAD) {
+            grow();
+        }
+        return true;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return Average number of bytes of memory used per stored state, including the table.
+     */
+    public double getBytesPerState() {
+        return size == 0 ? 0 : (usedBytes + 8.0 * tableSlots) / size;
+    }
+
+    /**
+     * @return Number of bytes held outside the heap by the chunks and the table.
+     */
+    public long getOffHeapBytes() {
+        return (long) chunks.size() * CHUNK_SIZE + 8 * tableSlots;
+    }
+
+    /**
+     * Drops all buffers, and deletes the mapped file if there is one. The set must not be used afterwards.
+     *
+     * @throws IOException if the mapped file cannot be closed or deleted.
+     */
+    @Override
+    public void close() throws IOException {
+        chunks.clear();
+        table = new ArrayList<>();
+        if (channel != null) {
+            channel.close();
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * @param bytes Number of bytes, at most 2 GiB
+     * @return A zeroed buffer of the given size, in native byte order.
+     */
+    private ByteBuffer allocate(long bytes) {
+        if (channel == null) {
+            return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+        }
+
+        try {
+            // mapping beyond the end extends the file with zeros
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, mappedBytes, bytes);
+            mappedBytes += bytes;
+            return buffer.order(ByteOrder.nativeOrder());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to extend " + file, e);
+        }
+    }
+
+    /**
+     * @param slots Number of slots, a power of two
+     * @return Pages of an empty table.
+     */
+    private List<ByteBuffer> allocateTable(long slots) {
+        final List<ByteBuffer> pages = new ArrayList<>();
+        for (long start = 0; start < slots; start += PAGE_SLOTS) {
+            pages.add(allocate(8 * Math.min(PAGE_SLOTS, slots - start)));
+        }
+        return pages;
+    }
+
+    private static long getSlot(@NotNull List<ByteBuffer> pages, long slot) {
+        return pages.get((int) (slot >>> PAGE_BITS)).getLong((int) (slot & (PAGE_SLOTS - 1)) << 3);
+    }
+
+    private static void putSlot(@NotNull List<ByteBuffer> pages, long slot, long entry) {
+        pages.get((int) (slot >>> PAGE_BITS)).putLong((int) (slot & (PAGE_SLOTS - 1)) << 3, entry);
+    }
+
+    /**
+     * Copies an encoded state into the chunks.
+     *
+     * @return Address of the state, offset by one so that zero can mark an empty slot.
+     */
+    private long append(@NotNull byte[] bytes, int offset, int length) {
+        if (chunkPos + length + 5 > CHUNK_SIZE) {
+            chunks.add(allocate(CHUNK_SIZE));
+            chunkPos = 0;
+        }
+
+        final ByteBuffer chunk = chunks.get(chunks.size() - 1);
+        final long address = ((long) (chunks.size() - 1) << CHUNK_BITS) + chunkPos;
+
+        // prefix the state with its length, 7 bits per byte
+        int pos = chunkPos;
+        int remaining = length;
+        while ((remaining & ~0x7F) != 0) {
+            chunk.put(pos++, (byte) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        chunk.put(pos++, (byte) remaining);
+
+        for (int i = 0; i < length; ++i) {
+            chunk.put(pos + i, bytes[offset + i]);
+        }
+        usedBytes += pos + length - chunkPos;
+        chunkPos = pos + length;
+
+        return address + 1;
+    }
+
+    /**
+     * @return Whether the state stored at {@code address} equals the given bytes.
+     */
+    private boolean matches(long address, @NotNull byte[] bytes, int offset, int length) {
+        final ByteBuffer chunk = chunkOf(address);
+        int pos = positionOf(address);
+
+        int storedLength = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = chunk.get(pos++);
+            storedLength |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+
+        if (storedLength != length) {
+            return false;
+        }
+        for (int i = 0; i < length; ++i) {
+            if (chunk.get(pos + i) != bytes[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param address Address of a state, offset by one
+     * @return Chunk holding the state.
+     */
+    private ByteBuffer chunkOf(long address) {
+        return chunks.get((int) ((address - 1) >>> CHUNK_BITS));
+    }
+
+    /**
+     * @param address Address of a state, offset by one
+     * @return Position of the length prefix of the state within its chunk.
+     */
+    private static int positionOf(long address) {
+        return (int) ((address - 1) & (CHUNK_SIZE - 1));
+    }
+
+    /**
+     * Doubles the table, re-inserting every slot. The bytes of the states are not moved. In a mapped file, the old
+     * table is left unused rather than reclaimed.
+     */
+    private void grow() {
+        final List<ByteBuffer> old = table;
+        final long oldSlots = tableSlots;
+        tableSlots *= 2;
+        table = allocateTable(tableSlots);
+        final long mask = tableSlots - 1;
+
+        for (long i = 0; i < oldSlots; ++i) {
+            final long entry = getSlot(old, i);
+            if (entry == 0) {
+                continue;
+            }
+
+            final ByteBuffer chunk = chunkOf(entry & ADDRESS_MASK);
+            int pos = positionOf(entry & ADDRESS_MASK);
+            int length = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = chunk.get(pos++);
+                length |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            // StateCodec hashes arrays, so copy the stored bytes into the scratch buffer first
+            for (int j = 0; j < length; ++j) {
+                scratch[j] = chunk.get(pos + j);
+            }
+            long slot = StateCodec.hash(scratch, 0, length) & mask;
+            while (getSlot(table, slot) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            putSlot(table, slot, entry);
+        }
+    }
+}
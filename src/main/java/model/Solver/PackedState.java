@@ -0,0 +1,56 @@
+package model.Solver;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * A search state in the encoding of {@link StateCodec}. Equality and hashing only look at the encoded bytes.
+ * <p>
+ * The bytes can also be written to disk as they are, since they only depend on the board.
+ */
+public final class PackedState {
+    private final byte[] bytes;
+    private final int hash;
+
+    /**
+     * @param bytes Encoded state, owned by this instance afterwards
+     */
+    PackedState(@NotNull byte[] bytes) {
+        this.bytes = bytes;
+        this.hash = StateCodec.hash(bytes, 0, bytes.length);
+    }
+
+    /**
+     * @param bytes Encoded state, e.g. read back from disk
+     * @return State holding a copy of the bytes.
+     */
+    public static PackedState fromBytes(@NotNull byte[] bytes) {
+        return new PackedState(bytes.clone());
+    }
+
+    /**
+     * @return Encoded state. Callers must not modify the array.
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PackedState)) {
+            return false;
+        }
+
+        PackedState that = (PackedState) o;
+        return hash == that.hash && Arrays.equals(bytes, that.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
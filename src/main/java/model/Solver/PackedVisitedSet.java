@@ -0,0 +1,195 @@
+package model.Solver;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-threaded {@link VisitedSet} which stores states in the encoding of {@link StateCodec}, without any per-state
+ * objects.
+ * <p>
+ * Encoded states are appended one after another into large byte chunks. An open-addressing table of {@code long}s
+ * refers to them: the lower bits of each slot hold the position of the state in the chunks, and the upper bits hold
+ * part of its hash, so most mismatching slots are skipped without comparing any bytes.
+ */
+public class PackedVisitedSet implements VisitedSet {
+    private static final int CHUNK_BITS = 20;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int ADDRESS_BITS = 40;
+    private static final long ADDRESS_MASK = (1L << ADDRESS_BITS) - 1;
+    private static final double MAX_LOAD = 0.6;
+
+    private final StateCodec codec;
+    private final byte[] scratch;
+    private final List<byte[]> chunks = new ArrayList<>();
+
+    private long[] table = new long[1 << 10];
+    private long size = 0;
+    private int chunkPos = CHUNK_SIZE;
+    private long usedBytes = 0;
+
+    /**
+     * @param codec Codec of the board whose states will be stored
+     */
+    public PackedVisitedSet(@NotNull StateCodec codec) {
+        this.codec = codec;
+        this.scratch = new byte[codec.getMaxPackedBytes()];
+    }
+
+    @Override
+    public boolean add(@NotNull SearchState s) {
+        final int length = codec.pack(s.getCrates(), s.getPlayer(), scratch);
+        return add(scratch, 0, length);
+    }
+
+    /**
+     * Adds an encoded state into the set.
+     *
+     * @param bytes  Buffer holding the encoded state
+     * @param offset Offset of the encoded state
+     * @param length Length of the encoded state
+     * @return Whether the state was not in the set before.
+     * @throws IllegalArgumentException if the state is longer than half a chunk.
+     */
+    public boolean add(@NotNull byte[] bytes, int offset, int length) {
+        if (length > CHUNK_SIZE / 2) {
+            throw new IllegalArgumentException("Encoded state is too long: " + length + " bytes");
+        }
+
+        final int hash = StateCodec.hash(bytes, offset, length);
+        final long tag = (long) (hash >>> 8) << ADDRESS_BITS;
+        final int mask = table.length - 1;
+
+        int slot = hash & mask;
+        while (table[slot] != 0) {
+            if ((table[slot] & ~ADDRESS_MASK) == tag && matches(table[slot] & ADDRESS_MASK, bytes, offset, length)) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        table[slot] = tag | append(bytes, offset, length);
+        if (++size > table.length * MAX_LOAD) {
+            grow();
+        }
+        return true;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return Average number of bytes of memory used per stored state, including the table.
+     */
+    public double getBytesPerState() {
+        return size == 0 ? 0 : (usedBytes + 8.0 * table.length) / size;
+    }
+
+    /**
+     * Copies an encoded state into the chunks.
+     *
+     * @return Address of the state, offset by one so that zero can mark an empty slot.
+     */
+    private long append(@NotNull byte[] bytes, int offset, int length) {
+        if (chunkPos + length + 5 > CHUNK_SIZE) {
+            chunks.add(new byte[CHUNK_SIZE]);
+            chunkPos = 0;
+        }
+
+        final byte[] chunk = chunks.get(chunks.size() - 1);
+        final long address = ((long) (chunks.size() - 1) << CHUNK_BITS) + chunkPos;
+
+        // prefix the state with its length, 7 bits per byte
+        int pos = chunkPos;
+        int remaining = length;
+        while ((remaining & ~0x7F) != 0) {
+            chunk[pos++] = (byte) ((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        chunk[pos++] = (byte) remaining;
+
+        System.arraycopy(bytes, offset, chunk, pos, length);
+        usedBytes += pos + length - chunkPos;
+        chunkPos = pos + length;
+
+        return address + 1;
+    }
+
+    /**
+     * @return Whether the state stored at {@code address} equals the given bytes.
+     */
+    private boolean matches(long address, @NotNull byte[] bytes, int offset, int length) {
+        final byte[] chunk = chunkOf(address);
+        int pos = positionOf(address);
+
+        int storedLength = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = chunk[pos++];
+            storedLength |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+
+        if (storedLength != length) {
+            return false;
+        }
+        for (int i = 0; i < length; ++i) {
+            if (chunk[pos + i] != bytes[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param address Address of a state, offset by one
+     * @return Chunk holding the state.
+     */
+    private byte[] chunkOf(long address) {
+        return chunks.get((int) ((address - 1) >>> CHUNK_BITS));
+    }
+
+    /**
+     * @param address Address of a state, offset by one
+     * @return Position of the length prefix of the state within its chunk.
+     */
+    private static int positionOf(long address) {
+        return (int) ((address - 1) & (CHUNK_SIZE - 1));
+    }
+
+    /**
+     * Doubles the table, re-inserting every slot. The bytes of the states are not moved.
+     */
+    private void grow() {
+        final long[] old = table;
+        table = new long[old.length * 2];
+        final int mask = table.length - 1;
+
+        for (long entry : old) {
+            if (entry == 0) {
+                continue;
+            }
+
+            final byte[] chunk = chunkOf(entry & ADDRESS_MASK);
+            int pos = positionOf(entry & ADDRESS_MASK);
+            int length = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = chunk[pos++];
+                length |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            int slot = StateCodec.hash(chunk, pos, length) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = entry;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package model.Solver;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Multi-threaded breadth-first search over push space.
+ * <p>
+ * Each layer of the search is split recursively across a {@link ForkJoinPool}, so idle threads steal unexpanded
+ * slices of the frontier from busy ones. All threads share a single {@link StripedVisitedSet}. Since layers are
+ * still expanded in order, the solution found uses the minimum number of pushes, same as {@link BfsSolver}.
+ */
+public class ParallelSolver extends Solver {
+    /**
+     * Number of frontier states below which a slice is expanded directly instead of being split further.
+     */
+    private static final int SPLIT_THRESHOLD = 64;
+
+    private final int parallelism;
+    private final VisitedSet visited;
+
+    private final Queue<Worker> workers = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Worker> worker = ThreadLocal.withInitial(() -> {
+        Worker w = new Worker();
+        workers.add(w);
+        return w;
+    });
+    private volatile boolean found = false;
+
+    /**
+     * Per-thread scratch state and statistics.
+     */
+    private class Worker {
+        private final String name = Thread.currentThread().getName();
+        private final PushGenerator generator = new PushGenerator(board);
+        private final List<SearchState> successors = new ArrayList<>();
+        private final List<SearchState> next = new ArrayList<>();
+        private long nodes = 0;
+    }
+
+    /**
+     * Expands a slice of the frontier, splitting it in halves until it is small enough.
+     */
+    private class ExpandTask extends RecursiveAction {
+        private final List<SearchState> frontier;
+        private final int from;
+        private final int to;
+
+        private ExpandTask(@NotNull List<SearchState> frontier, int from, int to) {
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ExpandTask(frontier, from, mid), new ExpandTask(frontier, mid, to));
+                return;
+            }
+
+            final Worker w = worker.get();
+            for (int i = from; i < to && !found && !isCancelled(); ++i) {
+                ++w.nodes;
+                w.successors.clear();
+                w.generator.expand(frontier.get(i), w.successors);
+
+                for (SearchState succ : w.successors) {
+                    if (!visited.add(succ)) {
+                        continue;
+                    }
+                    if (board.isSolved(succ.getCrates())) {
+                        found = true;
+                        return;
+                    }
+                    w.next.add(succ);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param board Board to solve
+     */
+    public ParallelSolver(@NotNull Board board) {
+        this(board, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param board       Board to solve
+     * @param parallelism Number of threads to search with
+     */
+    public ParallelSolver(@NotNull Board board, int parallelism) {
+        this(board, parallelism, new StripedVisitedSet(parallelism));
+    }
+
+    /**
+     * @param board       Board to solve
+     * @param parallelism Number of threads to search with
+     * @param visited     Thread-safe set to record visited states in
+     */
+    public ParallelSolver(@NotNull Board board, int parallelism, @NotNull VisitedSet visited) {
+        super(board);
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+
+        this.parallelism = parallelism;
+        this.visited = visited;
+    }
+
+    @Override
+    public SolverResult solve() {
+        final long startTime = System.currentTimeMillis();
+
+        SearchState initial = board.getInitialState();
+        visited.add(initial);
+        if (board.isSolved(initial.getCrates())) {
+            return result(SolverResult.Status.SOLVED, 0, startTime);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<SearchState> frontier = Collections.singletonList(initial);
+
+            for (int depth = 1; !frontier.isEmpty(); ++depth) {
+                pool.invoke(new ExpandTask(frontier, 0, frontier.size()));
+
+                if (found) {
+                    return result(SolverResult.Status.SOLVED, depth, startTime);
+                }
+                if (isCancelled()) {
+                    return result(SolverResult.Status.CANCELLED, -1, startTime);
+                }
+
+                frontier = collectNextLayer();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        return result(SolverResult.Status.UNSOLVABLE, -1, startTime);
+    }
+
+    /**
+     * Gathers the states generated by every worker in the last layer, and clears the per-worker buffers.
+     *
+     * @return States in the next layer.
+     */
+    private List<SearchState> collectNextLayer() {
+        int size = 0;
+        for (Worker w : workers) {
+            size += w.next.size();
+        }
+
+        List<SearchState> next = new ArrayList<>(size);
+        for (Worker w : workers) {
+            next.addAll(w.next);
+            w.next.clear();
+        }
+        return next;
+    }
+
+    /**
+     * @param status    Outcome of the search
+     * @param pushes    Number of pushes of the solution
+     * @param startTime Time the search started at
+     * @return Result of the search, with node counts of every worker thread.
+     */
+    private SolverResult result(@NotNull SolverResult.Status status, int pushes, long startTime) {
+        Map<String, Long> nodesPerThread = new LinkedHashMap<>();
+        long nodes = 0;
+        for (Worker w : workers) {
+            nodesPerThread.put(w.name, w.nodes);
+            nodes += w.nodes;
+        }
+
+        return new SolverResult(status, pushes, nodes, visited.size(), System.currentTimeMillis() - startTime, nodesPerThread);
+    }
+}
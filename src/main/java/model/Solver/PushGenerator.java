@@ -0,0 +1,249 @@
+package model.Solver;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Generates the successors of a {@link SearchState} by trying every push the player can walk to. Can also generate
+ * predecessors by trying every pull, for searching backwards from the solved position.
+ * <p>
+ * Holds scratch buffers sized to the board, so an instance must only be used by one thread at a time.
+ */
+final class PushGenerator {
+    private final Board board;
+    private final int[] offsets;
+    private final boolean tunnelMacros;
+
+    private final int[] reached;
+    private final int[] crateMark;
+    private final int[] queue;
+    private int reachStamp = 0;
+    private int crateStamp = 0;
+
+    private final int[] childReached;
+    private int childStamp = 0;
+
+    PushGenerator(@NotNull Board board) {
+        this(board, false);
+    }
+
+    /**
+     * @param board        Board to generate pushes on
+     * @param tunnelMacros Whether a crate pushed into a {@link Board#isTunnel(int, int) tunnel} is pushed on through
+     *                     it as a single move, in which case a successor can be more than one push away
+     */
+    PushGenerator(@NotNull Board board, boolean tunnelMacros) {
+        this.board = board;
+        this.tunnelMacros = tunnelMacros;
+        this.offsets = board.getOffsets();
+        this.reached = new int[board.size()];
+        this.crateMark = new int[board.size()];
+        this.queue = new int[board.size()];
+        this.childReached = new int[board.size()];
+    }
+
+    /**
+     * Appends every state reachable with a single push into {@code out}.
+     * <p>
+     * Pushes into dead squares are never generated. With tunnel macros, the crate is pushed on in the same direction
+     * for as long as it is in a tunnel and the next cell is free, and the successor is that many pushes away.
+     *
+     * @param s   State to expand
+     * @param out List to append successors to
+     */
+    void expand(@NotNull SearchState s, @NotNull List<SearchState> out) {
+        final int[] crates = s.getCrates();
+        markCrates(crates);
+        final int stamp = reachStamp = nextStamp(reachStamp, reached);
+        floodFill(s.getPlayer(), reached, stamp);
+
+        for (int i = 0; i < crates.length; ++i) {
+            final int c = crates[i];
+            for (int k = 0; k < offsets.length; ++k) {
+                final int d = offsets[k];
+                int target = c + d;
+                if (reached[c - d] != stamp || !isFree(target)) {
+                    continue;
+                }
+                if (tunnelMacros) {
+                    while (board.isTunnel(target, k) && isFree(target + d)) {
+                        target += d;
+                    }
+                }
+
+                // move the crate in the occupancy marks only for the duration of the fill
+                crateMark[c] = 0;
+                crateMark[target] = crateStamp;
+                final int player = floodFill(target - d, childReached, childStamp = nextStamp(childStamp, childReached));
+                crateMark[target] = 0;
+                crateMark[c] = crateStamp;
+
+                out.add(new SearchState(movedCrate(crates, i, target), player));
+            }
+        }
+    }
+
+    /**
+     * @param cell Cell index
+     * @return Whether a crate can be pushed onto the cell, i.e. it is a floor cell which is not dead and not marked as
+     * holding a crate.
+     */
+    private boolean isFree(int cell) {
+        return board.isFloor(cell) && !board.isDead(cell) && crateMark[cell] != crateStamp;
+    }
+
+    /**
+     * Appends every state from which a single push leads to {@code s} into {@code out}.
+     * <p>
+     * A pull moves the player one cell away from an adjacent crate, dragging the crate into the cell the player was
+     * standing on.
+     *
+     * @param s   State to expand
+     * @param out List to append predecessors to
+     */
+    void expandReverse(@NotNull SearchState s, @NotNull List<SearchState> out) {
+        final int[] crates = s.getCrates();
+        markCrates(crates);
+        final int stamp = reachStamp = nextStamp(reachStamp, reached);
+        floodFill(s.getPlayer(), reached, stamp);
+
+        for (int i = 0; i < crates.length; ++i) {
+            final int c = crates[i];
+            for (int d : offsets) {
+                final int from = c - d;
+                final int to = from - d;
+                if (reached[from] != stamp || !board.isFloor(to) || crateMark[to] == crateStamp) {
+                    continue;
+                }
+
+                crateMark[c] = 0;
+                crateMark[from] = crateStamp;
+                final int player = floodFill(to, childReached, childStamp = nextStamp(childStamp, childReached));
+                crateMark[from] = 0;
+                crateMark[c] = crateStamp;
+
+                out.add(new SearchState(movedCrate(crates, i, from), player));
+            }
+        }
+    }
+
+    /**
+     * Appends one state for every separate region the player could be standing in, given the crates.
+     *
+     * @param crates Sorted cell indices of crates
+     * @param out    List to append states to
+     */
+    void allRegions(@NotNull int[] crates, @NotNull List<SearchState> out) {
+        markCrates(crates);
+        final int stamp = reachStamp = nextStamp(reachStamp, reached);
+
+        for (int i = 0; i < board.size(); ++i) {
+            if (board.isFloor(i) && crateMark[i] != crateStamp && reached[i] != stamp) {
+                // cells are visited in ascending order, so i is the smallest cell of its region
+                floodFill(i, reached, stamp);
+                out.add(new SearchState(crates.clone(), i));
+            }
+        }
+    }
+
+    /**
+     * Creates a state with the player at {@code player}, normalizing the player to its reachable region.
+     *
+     * @param crates Sorted cell indices of crates, owned by the returned state
+     * @param player Cell index of the player
+     * @return Normalized state.
+     */
+    SearchState normalize(@NotNull int[] crates, int player) {
+        return new SearchState(crates, normalizePlayer(crates, player));
+    }
+
+    /**
+     * @param crates Cell indices of crates
+     * @param player Cell index of the player
+     * @return Normalized cell index of the player, i.e. the smallest cell it can walk to.
+     */
+    int normalizePlayer(@NotNull int[] crates, int player) {
+        markCrates(crates);
+        return floodFill(player, childReached, childStamp = nextStamp(childStamp, childReached));
+    }
+
+    /**
+     * Marks the given crates as occupied for subsequent calls to {@link #floodFill(int, int[], int)}.
+     *
+     * @param crates Cell indices of crates
+     */
+    private void markCrates(@NotNull int[] crates) {
+        crateStamp = nextStamp(crateStamp, crateMark);
+        for (int c : crates) {
+            crateMark[c] = crateStamp;
+        }
+    }
+
+    /**
+     * @param stamp Current stamp of a table
+     * @param table Table marked with the stamp
+     * @return The next stamp to use for the table. The table is cleared when the stamp wraps around.
+     */
+    private static int nextStamp(int stamp, @NotNull int[] table) {
+        if (stamp == Integer.MAX_VALUE) {
+            Arrays.fill(table, 0);
+            return 1;
+        }
+        return stamp + 1;
+    }
+
+    /**
+     * Marks every cell the player can walk to from {@code start}, treating marked crates as obstacles.
+     *
+     * @param start   Cell index of the player
+     * @param reached Table to mark reachable cells in
+     * @param stamp   Value to mark reachable cells with
+     * @return The smallest reachable cell index.
+     */
+    private int floodFill(int start, @NotNull int[] reached, int stamp) {
+        int head = 0;
+        int tail = 0;
+        int min = start;
+
+        reached[start] = stamp;
+        queue[tail++] = start;
+        while (head < tail) {
+            final int x = queue[head++];
+            if (x < min) {
+                min = x;
+            }
+
+            for (int d : offsets) {
+                final int y = x + d;
+                if (reached[y] != stamp && board.isFloor(y) && crateMark[y] != crateStamp) {
+                    reached[y] = stamp;
+                    queue[tail++] = y;
+                }
+            }
+        }
+        return min;
+    }
+
+    /**
+     * @param crates Sorted cell indices of crates
+     * @param i      Index into {@code crates} of the crate to move
+     * @param target New cell index of the crate
+     * @return Copy of {@code crates} with the crate moved, still in sorted order.
+     */
+    private static int[] movedCrate(@NotNull int[] crates, int i, int target) {
+        final int[] result = crates.clone();
+        int j = i;
+        while (j > 0 && result[j - 1] > target) {
+            result[j] = result[j - 1];
+            --j;
+        }
+        while (j < result.length - 1 && result[j + 1] < target) {
+            result[j] = result[j + 1];
+            ++j;
+        }
+        result[j] = target;
+        return result;
+    }
+}
@@ -0,0 +1,60 @@
+package model.Solver;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * A position in push space: where every crate is, and which region the player can walk around in.
+ * <p>
+ * Two positions where the player can walk to the same cells are equivalent, so the player is always stored as the
+ * smallest cell index reachable by walking. Crates are stored in ascending order of cell index, since crates are
+ * interchangeable.
+ */
+public final class SearchState {
+    private final int[] crates;
+    private final int player;
+    private final int hash;
+
+    /**
+     * @param crates Sorted cell indices of crates. The array is owned by this instance afterwards.
+     * @param player Normalized cell index of the player
+     */
+    SearchState(@NotNull int[] crates, int player) {
+        this.crates = crates;
+        this.player = player;
+        this.hash = 31 * Arrays.hashCode(crates) + player;
+    }
+
+    /**
+     * @return Sorted cell indices of crates. Callers must not modify the array.
+     */
+    int[] getCrates() {
+        return crates;
+    }
+
+    /**
+     * @return Normalized cell index of the player.
+     */
+    public int getPlayer() {
+        return player;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SearchState)) {
+            return false;
+        }
+
+        SearchState that = (SearchState) o;
+        return hash == that.hash && player == that.player && Arrays.equals(crates, that.crates);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,43 @@
+package model.Solver;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Base class of all solvers. A solver searches push space for the shortest solution of a {@link Board}.
+ * <p>
+ * A solver instance performs a single search. It can be cancelled from another thread with {@link #cancel()}.
+ */
+public abstract class Solver {
+    protected final Board board;
+    private volatile boolean cancelled = false;
+
+    /**
+     * @param board Board to solve
+     */
+    protected Solver(@NotNull Board board) {
+        this.board = board;
+    }
+
+    /**
+     * Runs the search to completion, or until cancelled.
+     *
+     * @return Outcome of the search.
+     */
+    public abstract SolverResult solve();
+
+    /**
+     * Requests the search to stop as soon as possible. {@link #solve()} will then return a
+     * {@link SolverResult.Status#CANCELLED} result.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return Whether the search has been cancelled, either by {@link #cancel()} or by interrupting the thread
+     * running the search.
+     */
+    protected boolean isCancelled() {
+        return cancelled || Thread.currentThread().isInterrupted();
+    }
+}
@@ -0,0 +1,88 @@
+package model.Solver;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outcome and statistics of a single solver run.
+ */
+public final class SolverResult {
+    /**
+     * Outcome of a solver run.
+     */
+    public enum Status {
+        SOLVED, UNSOLVABLE, CANCELLED
+    }
+
+    private final Status status;
+    private final int pushes;
+    private final long nodes;
+    private final long states;
+    private final long timeMillis;
+    private final Map<String, Long> nodesPerThread;
+
+    /**
+     * @param status         Outcome of the run
+     * @param pushes         Minimum number of pushes to solve the level, or -1 if not solved
+     * @param nodes          Number of states expanded
+     * @param states         Number of distinct states stored by the search
+     * @param timeMillis     Wall-clock time taken, in milliseconds
+     * @param nodesPerThread Number of states expanded by each thread, keyed by thread name
+     */
+    SolverResult(@NotNull Status status, int pushes, long nodes, long states, long timeMillis, @NotNull Map<String, Long> nodesPerThread) {
+        this.status = status;
+        this.pushes = pushes;
+        this.nodes = nodes;
+        this.states = states;
+        this.timeMillis = timeMillis;
+        this.nodesPerThread = Collections.unmodifiableMap(new LinkedHashMap<>(nodesPerThread));
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isSolved() {
+        return status == Status.SOLVED;
+    }
+
+    /**
+     * @return Minimum number of pushes needed to solve the level, or -1 if the level was not solved.
+     */
+    public int getPushes() {
+        return pushes;
+    }
+
+    /**
+     * @return Total number of states expanded.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return Number of distinct states stored by the search, which is what dominates its memory use.
+     */
+    public long getStates() {
+        return states;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    /**
+     * @return Number of states expanded by each thread which took part in the search, keyed by thread name.
+     */
+    public Map<String, Long> getNodesPerThread() {
+        return nodesPerThread;
+    }
+
+    @Override
+    public String toString() {
+        return status + " pushes=" + pushes + " nodes=" + nodes + " states=" + states + " time=" + timeMillis + "ms threads=" + nodesPerThread;
+    }
+}
@@ -0,0 +1,82 @@
+package model.Solver;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+
+/**
+ * The solvers which can be picked by name, e.g. from the command line.
+ */
+public enum SolverType {
+    BFS("bfs") {
+        @Override
+        public Solver create(@NotNull Board board) {
+            return new BfsSolver(board);
+        }
+    },
+    PARALLEL("parallel") {
+        @Override
+        public Solver create(@NotNull Board board) {
+            return new ParallelSolver(board);
+        }
+    },
+    BIDIRECTIONAL("bidirectional") {
+        @Override
+        public Solver create(@NotNull Board board) {
+            return new BidirectionalSolver(board);
+        }
+    },
+    ASTAR("astar") {
+        @Override
+        public Solver create(@NotNull Board board) {
+            return new AStarSolver(board);
+        }
+    },
+    IDASTAR("idastar") {
+        @Override
+        public Solver create(@NotNull Board board) {
+            return new IdaStarSolver(board);
+        }
+    },
+    EXTERNAL("external") {
+        @Override
+        public Solver create(@NotNull Board board) {
+            return new ExternalBfsSolver(board);
+        }
+    };
+
+    private final String name;
+
+    SolverType(@NotNull String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param board Board to solve
+     * @return A new solver of this type for the board.
+     */
+    public abstract Solver create(@NotNull Board board);
+
+    /**
+     * @return Name of this solver type, as accepted by {@link #fromName(String)}.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @param name Name of a solver type, case-insensitive
+     * @return The solver type with the given name, or {@code null} if there is none.
+     */
+    @Nullable
+    public static SolverType fromName(@NotNull String name) {
+        final String lower = name.toLowerCase(Locale.ROOT);
+        for (SolverType t : values()) {
+            if (t.name.equals(lower)) {
+                return t;
+            }
+        }
+        return null;
+    }
+}
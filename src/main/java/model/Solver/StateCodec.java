@@ -0,0 +1,227 @@
+package model.Solver;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Converts search states of a {@link Board} to and from a compact, canonical byte encoding.
+ * <p>
+ * Only floor cells can hold crates or the player, so cells are first renumbered into floor ordinals, which keep the
+ * same relative order as cell indices. An encoded state consists of:
+ * <ol>
+ * <li>A variable-length integer holding the floor ordinal of the normalized player cell, shifted left by one, with
+ * the lowest bit selecting the crate format.</li>
+ * <li>Either a bitset with one bit per floor cell, set where a crate is; or the floor ordinals of the crates in
+ * ascending order, each stored as a variable-length gap from the previous one.</li>
+ * </ol>
+ * Whichever crate format is shorter is used, so every state has exactly one encoding, and two encoded states are
+ * equal if and only if their bytes are equal.
+ */
+public final class StateCodec {
+    private static final int FORMAT_BITSET = 0;
+    private static final int FORMAT_GAPS = 1;
+
+    private final int[] floorOrdinal;
+    private final int[] floorCells;
+    private final int numCrates;
+    private final int bitsetBytes;
+    private final int maxPackedBytes;
+
+    /**
+     * @param board Board whose states will be encoded
+     */
+    public StateCodec(@NotNull Board board) {
+        floorOrdinal = new int[board.size()];
+        int numFloor = 0;
+        for (int i = 0; i < board.size(); ++i) {
+            floorOrdinal[i] = board.isFloor(i) ? numFloor++ : -1;
+        }
+
+        floorCells = new int[numFloor];
+        for (int i = 0; i < board.size(); ++i) {
+            if (floorOrdinal[i] != -1) {
+                floorCells[floorOrdinal[i]] = i;
+            }
+        }
+
+        numCrates = board.getInitialState().getCrates().length;
+        bitsetBytes = (numFloor + 7) / 8;
+        maxPackedBytes = varIntSize((long) numFloor << 1) + Math.max(bitsetBytes, numCrates * varIntSize(numFloor));
+    }
+
+    /**
+     * @return Upper bound of the length of any encoded state.
+     */
+    public int getMaxPackedBytes() {
+        return maxPackedBytes;
+    }
+
+    /**
+     * @return Length of an encoded state which uses the bitset format.
+     */
+    public int getBitsetBytes() {
+        return varIntSize((long) floorCells.length << 1) + bitsetBytes;
+    }
+
+    /**
+     * Encodes a state into a buffer.
+     *
+     * @param crates Sorted cell indices of crates
+     * @param player Normalized cell index of the player
+     * @param out    Buffer of at least {@link #getMaxPackedBytes()} bytes
+     * @return Number of bytes written.
+     */
+    public int pack(@NotNull int[] crates, int player, @NotNull byte[] out) {
+        int gapBytes = 0;
+        int prev = -1;
+        for (int c : crates) {
+            final int ordinal = floorOrdinal[c];
+            gapBytes += varIntSize(ordinal - prev - 1);
+            prev = ordinal;
+        }
+
+        final int format = gapBytes < bitsetBytes ? FORMAT_GAPS : FORMAT_BITSET;
+        int pos = putVarInt(out, 0, ((long) floorOrdinal[player] << 1) | format);
+
+        if (format == FORMAT_GAPS) {
+            prev = -1;
+            for (int c : crates) {
+                final int ordinal = floorOrdinal[c];
+                pos = putVarInt(out, pos, ordinal - prev - 1);
+                prev = ordinal;
+            }
+        } else {
+            for (int i = 0; i < bitsetBytes; ++i) {
+                out[pos + i] = 0;
+            }
+            for (int c : crates) {
+                final int ordinal = floorOrdinal[c];
+                out[pos + (ordinal >>> 3)] |= 1 << (ordinal & 7);
+            }
+            pos += bitsetBytes;
+        }
+
+        return pos;
+    }
+
+    /**
+     * @param s State to encode
+     * @return Encoded state.
+     */
+    public PackedState pack(@NotNull SearchState s) {
+        byte[] buffer = new byte[maxPackedBytes];
+        int length = pack(s.getCrates(), s.getPlayer(), buffer);
+        return new PackedState(Arrays.copyOf(buffer, length));
+    }
+
+    /**
+     * Decodes a state from a buffer.
+     *
+     * @param in        Buffer holding the encoded state
+     * @param offset    Offset of the encoded state in the buffer
+     * @param cratesOut Array of at least as many elements as crates, which receives the sorted cell indices of crates
+     * @return Normalized cell index of the player.
+     */
+    public int unpack(@NotNull byte[] in, int offset, @NotNull int[] cratesOut) {
+        long header = 0;
+        int shift = 0;
+        int pos = offset;
+        byte b;
+        do {
+            b = in[pos++];
+            header |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+
+        final int player = floorCells[(int) (header >>> 1)];
+
+        if ((header & 1) == FORMAT_GAPS) {
+            int prev = -1;
+            for (int i = 0; i < numCrates; ++i) {
+                int gap = 0;
+                shift = 0;
+                do {
+                    b = in[pos++];
+                    gap |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+
+                prev += gap + 1;
+                cratesOut[i] = floorCells[prev];
+            }
+        } else {
+            int n = 0;
+            for (int i = 0; i < bitsetBytes && n < numCrates; ++i) {
+                int bits = in[pos + i] & 0xFF;
+                while (bits != 0) {
+                    final int bit = Integer.numberOfTrailingZeros(bits);
+                    cratesOut[n++] = floorCells[(i << 3) + bit];
+                    bits &= bits - 1;
+                }
+            }
+        }
+
+        return player;
+    }
+
+    /**
+     * @param packed Encoded state
+     * @return Decoded state.
+     */
+    public SearchState unpack(@NotNull PackedState packed) {
+        int[] crates = new int[numCrates];
+        int player = unpack(packed.getBytes(), 0, crates);
+        return new SearchState(crates, player);
+    }
+
+    /**
+     * Hashes a range of bytes. Used by everything which stores encoded states, so equal states always land in the
+     * same bucket.
+     *
+     * @param bytes  Buffer holding the encoded state
+     * @param offset Offset of the encoded state
+     * @param length Length of the encoded state
+     * @return Hash of the bytes.
+     */
+    static int hash(@NotNull byte[] bytes, int offset, int length) {
+        int h = 0x811C9DC5;
+        for (int i = offset; i < offset + length; ++i) {
+            h = (h ^ bytes[i]) * 0x01000193;
+        }
+        // spread the entropy into the upper bits as well, which are used to pick slots and stripes
+        h ^= h >>> 15;
+        h *= 0x2C1B3C6D;
+        h ^= h >>> 12;
+        return h;
+    }
+
+    /**
+     * @param value Non-negative value
+     * @return Number of bytes {@code value} takes when stored as a variable-length integer.
+     */
+    private static int varIntSize(long value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            ++size;
+        }
+        return size;
+    }
+
+    /**
+     * Stores a non-negative value using 7 bits per byte, with the highest bit set on every byte but the last.
+     *
+     * @param out   Buffer to write to
+     * @param pos   Offset to write at
+     * @param value Non-negative value
+     * @return Offset after the written bytes.
+     */
+    private static int putVarInt(@NotNull byte[] out, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[pos++] = (byte) value;
+        return pos;
+    }
+}
@@ -0,0 +1,55 @@
+package model.Solver;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe {@link VisitedSet} which spreads states over a fixed number of independent stripes.
+ * <p>
+ * Each stripe is a concurrent set whose insertions into empty bins are a single compare-and-swap, so threads never
+ * block each other unless they hash into the same bin. Splitting the set into stripes keeps each table small, so that
+ * a resize only stalls the threads which happen to hit that stripe.
+ */
+public class StripedVisitedSet implements VisitedSet {
+    private final Set<SearchState>[] stripes;
+    private final int mask;
+
+    /**
+     * @param concurrency Expected number of threads accessing this set
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public StripedVisitedSet(int concurrency) {
+        int n = Integer.highestOneBit(Math.max(1, concurrency) * 4 - 1) << 1;
+        stripes = new Set[n];
+        for (int i = 0; i < n; ++i) {
+            stripes[i] = ConcurrentHashMap.newKeySet();
+        }
+        mask = n - 1;
+    }
+
+    @Override
+    public boolean add(@NotNull SearchState s) {
+        return stripeOf(s).add(s);
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (Set<SearchState> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * @param s State to look up
+     * @return Stripe which holds the state. The high bits of the hash are used, since the low bits select the bin
+     * within the stripe.
+     */
+    private Set<SearchState> stripeOf(@NotNull SearchState s) {
+        int h = s.hashCode();
+        return stripes[(h ^ (h >>> 16)) * 0x9E3779B9 >>> 16 & mask];
+    }
+}
@@ -0,0 +1,41 @@
+package model.Solver;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link VisitedSet} which only stores the canonical orientation of each state under the symmetries of the board, so
+ * that mirror images of a state seen before are not searched again. Passes states through unchanged if the board is
+ * not symmetric.
+ * <p>
+ * Single-threaded, like {@link BoardSymmetry}.
+ */
+public class SymmetricVisitedSet implements VisitedSet {
+    private final BoardSymmetry symmetry;
+    private final VisitedSet states;
+
+    /**
+     * @param board  Board whose states will be stored
+     * @param states Set to store the canonical states in
+     */
+    public SymmetricVisitedSet(@NotNull Board board, @NotNull VisitedSet states) {
+        this.symmetry = new BoardSymmetry(board);
+        this.states = states;
+    }
+
+    /**
+     * @return Number of symmetries of the board, including the identity, so 1 if the board is not symmetric.
+     */
+    public int getSymmetries() {
+        return symmetry.getOrder();
+    }
+
+    @Override
+    public boolean add(@NotNull SearchState s) {
+        return states.add(symmetry.canonical(s));
+    }
+
+    @Override
+    public long size() {
+        return states.size();
+    }
+}
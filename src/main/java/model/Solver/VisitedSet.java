@@ -0,0 +1,21 @@
+package model.Solver;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A set of states which have already been seen by a search.
+ */
+public interface VisitedSet {
+    /**
+     * Adds a state into the set.
+     *
+     * @param s State to add
+     * @return Whether the state was not in the set before.
+     */
+    boolean add(@NotNull SearchState s);
+
+    /**
+     * @return Number of states in the set.
+     */
+    long size();
+}
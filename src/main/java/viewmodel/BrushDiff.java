@@ -0,0 +1,153 @@
+package viewmodel;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The cells changed by one edit in {@link LevelEditorCanvas}, holding the brushes they had before the edit so that it
+ * can be undone.
+ * <p>
+ * Cells are identified by their index in row-major order. Changed cells which are next to each other in that order and
+ * had the same brush are stored together as one run, so filling a large area takes a few runs per row rather than
+ * one entry per cell.
+ */
+final class BrushDiff {
+    private static final LevelEditorCanvas.Brush[] BRUSHES = LevelEditorCanvas.Brush.values();
+
+    /**
+     * Triples of the first cell, the number of cells and the ordinal of the brush of each run, in ascending order of
+     * cells.
+     */
+    private final int[] runs;
+    private final int numCells;
+    private final int playerRow;
+    private final int playerCol;
+
+    private BrushDiff(@NotNull int[] runs, int numCells, int playerRow, int playerCol) {
+        this.runs = runs;
+        this.numCells = numCells;
+        this.playerRow = playerRow;
+        this.playerCol = playerCol;
+    }
+
+    /**
+     * @return Number of runs.
+     */
+    int getNumRuns() {
+        return runs.length / 3;
+    }
+
+    /**
+     * @param run Index of a run
+     * @return Index of the first cell of the run.
+     */
+    int getStart(int run) {
+        return runs[run * 3];
+    }
+
+    /**
+     * @param run Index of a run
+     * @return Number of cells in the run.
+     */
+    int getLength(int run) {
+        return runs[run * 3 + 1];
+    }
+
+    /**
+     * @param run Index of a run
+     * @return Brush the cells of the run had before the edit.
+     */
+    @NotNull
+    LevelEditorCanvas.Brush getBrush(int run) {
+        return BRUSHES[runs[run * 3 + 2]];
+    }
+
+    /**
+     * @return Number of cells changed by the edit.
+     */
+    int getNumCells() {
+        return numCells;
+    }
+
+    /**
+     * @return Row of the player before the edit, or -1 if there was none.
+     */
+    int getPlayerRow() {
+        return playerRow;
+    }
+
+    /**
+     * @return Column of the player before the edit, or -1 if there was none.
+     */
+    int getPlayerCol() {
+        return playerCol;
+    }
+
+    /**
+     * Collects the changed cells of an edit, in any order.
+     */
+    static final class Builder {
+        private long[] entries = new long[16];
+        private int size = 0;
+
+        /**
+         * Adds a changed cell. Each cell must only be added once per edit, with the brush it had before the edit.
+         *
+         * @param index Index of the cell
+         * @param old   Brush of the cell before the edit
+         */
+        void add(int index, @NotNull LevelEditorCanvas.Brush old) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            entries[size++] = ((long) index << 3) | old.ordinal();
+        }
+
+        /**
+         * @return Whether no cells have been added.
+         */
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Encodes the added cells into runs, and clears the builder.
+         *
+         * @param playerRow Row of the player before the edit, or -1 if there was none
+         * @param playerCol Column of the player before the edit, or -1 if there was none
+         * @return The diff.
+         */
+        @NotNull
+        BrushDiff build(int playerRow, int playerCol) {
+            Arrays.sort(entries, 0, size);
+
+            int[] runs = new int[48];
+            int n = 0;
+            for (int i = 0; i < size; ) {
+                final int start = (int) (entries[i] >>> 3);
+                final int brush = (int) (entries[i] & 7);
+
+                int length = 1;
+                while (i + length < size
+                        && entries[i + length] >>> 3 == start + length
+                        && (entries[i + length] & 7) == brush) {
+                    ++length;
+                }
+
+                if (n + 3 > runs.length) {
+                    runs = Arrays.copyOf(runs, runs.length * 2);
+                }
+                runs[n++] = start;
+                runs[n++] = length;
+                runs[n++] = brush;
+                i += length;
+            }
+
+            final BrushDiff diff = new BrushDiff(Arrays.copyOf(runs, n), size, playerRow, playerCol);
+            entries = new long[16];
+            size = 0;
+            return diff;
+        }
+    }
+}
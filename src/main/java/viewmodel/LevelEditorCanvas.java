@@ -1,26 +1,44 @@
 package viewmodel;
 
 import javafx.application.Platform;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.control.Alert;
 import javafx.stage.FileChooser;
+import model.LevelFile;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import static model.DaemonThreads.daemonThreadFactory;
 import static viewmodel.Config.LEVEL_EDITOR_TILE_SIZE;
 
 /**
  * Extends the Canvas class to provide functionality for generating maps and saving them.
  */
 public class LevelEditorCanvas extends Canvas {
+    private static final int MAX_UNDO = 100;
+
+    /**
+     * Writes saved maps, so that the application thread does not wait for the disk.
+     */
+    private static final ExecutorService EXPORTER =
+            Executors.newSingleThreadExecutor(daemonThreadFactory("level-export"));
+
     private int rows;
     private int cols;
 
@@ -30,6 +48,50 @@ public class LevelEditorCanvas extends Canvas {
     private int oldPlayerRow = -1;
     private int oldPlayerCol = -1;
 
+    //Running counts of the map contents, kept up to date by every change of a cell, and published to the properties
+    //once per operation
+    private int playerCount = 0;
+    private int crateCount = 0;
+    private int destCount = 0;
+    private final IntegerProperty numPlayers = new SimpleIntegerProperty(0);
+    private final IntegerProperty numCrates = new SimpleIntegerProperty(0);
+    private final IntegerProperty numDests = new SimpleIntegerProperty(0);
+    private final StringProperty invalidReason = new SimpleStringProperty("");
+
+    //Checks whether the map can be solved once edits have settled
+    private final SolvabilityChecker solvability = new SolvabilityChecker(this::snapshotForCheck);
+
+    //Cells changed since the last render, so that only they are redrawn
+    private boolean[] dirty = new boolean[0];
+    private int[] dirtyCells = new int[16];
+    private int numDirty = 0;
+    private boolean fullRenderPending = false;
+    private boolean renderScheduled = false;
+
+    //Last cell painted by the current stroke of the mouse
+    private int strokeRow = -1;
+    private int strokeCol = -1;
+
+    //Edits which can be undone, newest last, and the changes of the edit in progress
+    private final Deque<BrushDiff> undoStack = new ArrayDeque<>();
+    private final BrushDiff.Builder currentEdit = new BrushDiff.Builder();
+    private final BooleanProperty canUndo = new SimpleBooleanProperty(false);
+    private int[] editStamp = new int[0];
+    private int editNumber = 1;
+    private boolean editOpen = false;
+    private int editPlayerRow = -1;
+    private int editPlayerCol = -1;
+    private boolean strokeActive = false;
+
+    //Where the mouse was pressed for the rectangle and copy tools, and the copied region
+    private final ObjectProperty<Tool> tool = new SimpleObjectProperty<>(Tool.PAINT);
+    private double anchorX;
+    private double anchorY;
+    private Brush[][] clipboard;
+
+    //Format of the rows of saved files, chosen next to the tools
+    private final ObjectProperty<LevelFile.Format> saveFormat = new SimpleObjectProperty<>(LevelFile.Format.PLAIN);
+
     /**
      * Call the super constructor. Also resets the map to all {@link Brush#TILE}.
      * Hint: each square cell in the grid has size {@link Config#LEVEL_EDITOR_TILE_SIZE}
@@ -74,14 +136,313 @@ public class LevelEditorCanvas extends Canvas {
             Arrays.fill(brushes, Brush.TILE);
         }
 
+        playerCount = 0;
+        crateCount = 0;
+        destCount = 0;
+        updateValidation();
+
+        dirty = new boolean[rows * cols];
+        numDirty = 0;
+        strokeRow = -1;
+        strokeCol = -1;
+        fullRenderPending = true;
+
+        undoStack.clear();
+        canUndo.set(false);
+        editStamp = new int[rows * cols];
+        editNumber = 1;
+        editOpen = false;
+        strokeActive = false;
+        if (!currentEdit.isEmpty()) {
+            currentEdit.build(-1, -1);
+        }
+
+        renderCanvas();
+    }
+
+    public IntegerProperty numPlayersProperty() {
+        return numPlayers;
+    }
+
+    public IntegerProperty numCratesProperty() {
+        return numCrates;
+    }
+
+    public IntegerProperty numDestsProperty() {
+        return numDests;
+    }
+
+    /**
+     * @return Property holding why the map cannot be saved, or an empty string if it can. Updated whenever the map
+     * changes.
+     */
+    public StringProperty invalidReasonProperty() {
+        return invalidReason;
+    }
+
+    /**
+     * @return Property holding whether the map can be solved, as found by the latest check.
+     */
+    public ObjectProperty<SolvabilityChecker.Verdict> solvabilityProperty() {
+        return solvability.verdictProperty();
+    }
+
+    /**
+     * @return Property holding a description of the latest solvability check, including the minimal number of pushes
+     * and the time the search took.
+     */
+    public StringProperty solvabilityMessageProperty() {
+        return solvability.messageProperty();
+    }
+
+    /**
+     * @return Property holding the tool used by {@link #mousePressed(Brush, double, double)} and the other mouse
+     * handlers.
+     */
+    public ObjectProperty<Tool> toolProperty() {
+        return tool;
+    }
+
+    /**
+     * @return Format of the rows of saved level files, plain by default.
+     */
+    public ObjectProperty<LevelFile.Format> saveFormatProperty() {
+        return saveFormat;
+    }
+
+    /**
+     * @return Property holding whether there is an edit to undo.
+     */
+    public BooleanProperty canUndoProperty() {
+        return canUndo;
+    }
+
+    /**
+     * Replaces the brush of a cell as part of the current edit, so that it can be undone.
+     *
+     * @param r     Row of the cell
+     * @param c     Column of the cell
+     * @param brush The new brush of the cell
+     */
+    private void putBrush(int r, int c, Brush brush) {
+        final Brush old = map[r][c];
+        if (old == brush) {
+            return;
+        }
+
+        beginEdit();
+        final int i = r * cols + c;
+        if (editStamp[i] != editNumber) {
+            editStamp[i] = editNumber;
+            currentEdit.add(i, old);
+        }
+
+        writeBrush(r, c, brush);
+    }
+
+    /**
+     * Replaces the brush of a cell, updating the counts of players, crates and destinations, and queueing the cell to
+     * be redrawn.
+     *
+     * @param r     Row of the cell
+     * @param c     Column of the cell
+     * @param brush The new brush of the cell
+     */
+    private void writeBrush(int r, int c, Brush brush) {
+        final Brush old = map[r][c];
+        if (old == brush) {
+            return;
+        }
+
+        map[r][c] = brush;
+        count(old, -1);
+        count(brush, 1);
+        markDirty(r, c);
+
+        // the player has been painted over, so there is no player to move when the next one is placed
+        if (r == oldPlayerRow && c == oldPlayerCol && !brush.hasPlayer()) {
+            oldPlayerRow = -1;
+            oldPlayerCol = -1;
+        }
+    }
+
+    /**
+     * Starts recording an edit, unless one is already being recorded.
+     */
+    private void beginEdit() {
+        if (!editOpen) {
+            editOpen = true;
+            editPlayerRow = oldPlayerRow;
+            editPlayerCol = oldPlayerCol;
+        }
+    }
+
+    /**
+     * Pushes the edit being recorded onto the undo stack, if it changed anything.
+     */
+    private void commitEdit() {
+        if (!editOpen) {
+            return;
+        }
+
+        editOpen = false;
+        ++editNumber;
+        if (!currentEdit.isEmpty()) {
+            undoStack.addLast(currentEdit.build(editPlayerRow, editPlayerCol));
+            if (undoStack.size() > MAX_UNDO) {
+                undoStack.removeFirst();
+            }
+        }
+        canUndo.set(!undoStack.isEmpty());
+    }
+
+    /**
+     * Finishes an operation on the map: the edit is committed unless a stroke of the mouse is still in progress, and
+     * the changes are rendered.
+     */
+    private void finishOperation() {
+        if (!strokeActive) {
+            commitEdit();
+        }
+        updateValidation();
         renderCanvas();
     }
 
     /**
-     * Render the map using {@link MapRenderer}
+     * Undoes the last edit. Does nothing if there is none.
+     */
+    public void undo() {
+        commitEdit();
+
+        final BrushDiff diff = undoStack.pollLast();
+        if (diff == null) {
+            return;
+        }
+
+        for (int run = 0; run < diff.getNumRuns(); ++run) {
+            final Brush brush = diff.getBrush(run);
+            final int end = diff.getStart(run) + diff.getLength(run);
+            for (int i = diff.getStart(run); i < end; ++i) {
+                writeBrush(i / cols, i % cols, brush);
+            }
+        }
+        oldPlayerRow = diff.getPlayerRow();
+        oldPlayerCol = diff.getPlayerCol();
+        strokeRow = -1;
+        strokeCol = -1;
+
+        canUndo.set(!undoStack.isEmpty());
+        updateValidation();
+        renderCanvas();
+    }
+
+    /**
+     * Publishes the running counts, and why the map is invalid, to their properties.
+     */
+    private void updateValidation() {
+        numPlayers.set(playerCount);
+        numCrates.set(crateCount);
+        numDests.set(destCount);
+        invalidReason.set(getInvalidReason());
+
+        if (invalidReason.get().isEmpty()) {
+            solvability.submit();
+        } else {
+            solvability.cancel();
+        }
+    }
+
+    /**
+     * @return Copy of the map in the format of a level file, or {@code null} if it cannot be saved.
+     */
+    private char[][] snapshotForCheck() {
+        if (!getInvalidReason().isEmpty()) {
+            return null;
+        }
+
+        final char[][] rep = new char[rows][cols];
+        for (int r = 0; r < rows; ++r) {
+            for (int c = 0; c < cols; ++c) {
+                rep[r][c] = map[r][c].getRep();
+            }
+        }
+        return rep;
+    }
+
+    /**
+     * Adds the contents of a brush to the running counts.
+     *
+     * @param brush Brush to count
+     * @param delta 1 if the brush was added, or -1 if it was removed
+     */
+    private void count(Brush brush, int delta) {
+        if (brush.hasPlayer()) {
+            playerCount += delta;
+        }
+        if (brush.hasCrate()) {
+            crateCount += delta;
+        }
+        if (brush.hasDest()) {
+            destCount += delta;
+        }
+    }
+
+    /**
+     * Render the map using {@link MapRenderer}. Redraws the whole map after it has been reset, and only the changed
+     * cells otherwise.
+     * <p>
+     * At most one render is pending at any time, so all changes made before it runs, e.g. within one pulse of a mouse
+     * drag, are drawn together.
      */
     private void renderCanvas() {
-        Platform.runLater(() -> MapRenderer.render(this, map));
+        if (renderScheduled) {
+            return;
+        }
+
+        renderScheduled = true;
+        Platform.runLater(() -> {
+            renderScheduled = false;
+
+            if (fullRenderPending) {
+                MapRenderer.render(this, map);
+            } else {
+                for (int i = 0; i < numDirty; ++i) {
+                    final int r = dirtyCells[i] / cols;
+                    final int c = dirtyCells[i] % cols;
+                    MapRenderer.renderCell(this, map[r][c], r, c);
+                }
+            }
+
+            for (int i = 0; i < numDirty; ++i) {
+                dirty[dirtyCells[i]] = false;
+            }
+            numDirty = 0;
+            fullRenderPending = false;
+        });
+    }
+
+    /**
+     * Queues a cell to be redrawn by the next render.
+     *
+     * @param r Row of the cell
+     * @param c Column of the cell
+     */
+    private void markDirty(int r, int c) {
+        final int i = r * cols + c;
+        if (fullRenderPending || dirty[i]) {
+            return;
+        }
+        // redrawing everything is cheaper than tracking most of the cells one by one
+        if (numDirty >= dirty.length / 4) {
+            fullRenderPending = true;
+            return;
+        }
+
+        dirty[i] = true;
+        if (numDirty == dirtyCells.length) {
+            dirtyCells = Arrays.copyOf(dirtyCells, numDirty * 2);
+        }
+        dirtyCells[numDirty++] = i;
     }
 
     /**
@@ -107,18 +468,292 @@ public class LevelEditorCanvas extends Canvas {
         int mappedR = (int) Math.floor(y) / LEVEL_EDITOR_TILE_SIZE;
         int mappedC = (int) Math.floor(x) / LEVEL_EDITOR_TILE_SIZE;
 
+        strokeRow = -1;
+        strokeCol = -1;
+        if (x < 0 || y < 0 || mappedR >= rows || mappedC >= cols) {
+            return;
+        }
+        strokeRow = mappedR;
+        strokeCol = mappedC;
+        beginEdit();
+
         if (brush.equals(Brush.PLAYER_ON_DEST) || brush.equals(Brush.PLAYER_ON_TILE)) {
             if (oldPlayerCol != -1 && oldPlayerRow != -1) {
-                map[oldPlayerRow][oldPlayerCol] = togglePlayerOnTile(map[oldPlayerRow][oldPlayerCol]);
+                putBrush(oldPlayerRow, oldPlayerCol, togglePlayerOnTile(map[oldPlayerRow][oldPlayerCol]));
             }
 
             oldPlayerRow = mappedR;
             oldPlayerCol = mappedC;
         }
 
-        map[mappedR][mappedC] = brush;
+        putBrush(mappedR, mappedC, brush);
 
-        renderCanvas();
+        finishOperation();
+    }
+
+    /**
+     * Continues a stroke of the mouse started by {@link #setTile(Brush, double, double)}, painting every cell on the
+     * straight line from the last painted cell to the one under the mouse, so that fast drags leave no gaps. The player
+     * brush only moves the player to the cell under the mouse.
+     *
+     * @param brush The currently selected brush
+     * @param x     Mouse drag coordinate x
+     * @param y     Mouse drag coordinate y
+     */
+    public void dragTile(Brush brush, double x, double y) {
+        if (x < 0 || y < 0) {
+            return;
+        }
+        final int toR = (int) Math.floor(y) / LEVEL_EDITOR_TILE_SIZE;
+        final int toC = (int) Math.floor(x) / LEVEL_EDITOR_TILE_SIZE;
+        if (toR >= rows || toC >= cols || (toR == strokeRow && toC == strokeCol)) {
+            return;
+        }
+        if (strokeRow == -1 || brush.hasPlayer()) {
+            setTile(brush, x, y);
+            return;
+        }
+
+        // Bresenham's line from the last painted cell, which is already painted
+        final int dr = Math.abs(toR - strokeRow);
+        final int dc = Math.abs(toC - strokeCol);
+        final int stepR = toR > strokeRow ? 1 : -1;
+        final int stepC = toC > strokeCol ? 1 : -1;
+        int r = strokeRow;
+        int c = strokeCol;
+        int error = dc - dr;
+        while (r != toR || c != toC) {
+            final int e2 = 2 * error;
+            if (e2 > -dr) {
+                error -= dr;
+                c += stepC;
+            }
+            if (e2 < dc) {
+                error += dc;
+                r += stepR;
+            }
+            putBrush(r, c, brush);
+        }
+
+        strokeRow = toR;
+        strokeCol = toC;
+
+        finishOperation();
+    }
+
+    /**
+     * Fills the area of same brush cells connected to the clicked cell, horizontally or vertically, with a brush.
+     * Since there can only be 1 player, the player brush only places the player on the clicked cell.
+     *
+     * @param brush The currently selected brush
+     * @param x     Mouse click coordinate x
+     * @param y     Mouse click coordinate y
+     */
+    public void floodFill(Brush brush, double x, double y) {
+        if (brush.hasPlayer()) {
+            setTile(brush, x, y);
+            return;
+        }
+        final int startR = (int) Math.floor(y) / LEVEL_EDITOR_TILE_SIZE;
+        final int startC = (int) Math.floor(x) / LEVEL_EDITOR_TILE_SIZE;
+        if (x < 0 || y < 0 || startR >= rows || startC >= cols) {
+            return;
+        }
+
+        final Brush target = map[startR][startC];
+        if (target == brush) {
+            return;
+        }
+
+        final int[] queue = new int[rows * cols];
+        int head = 0;
+        int tail = 0;
+        putBrush(startR, startC, brush);
+        queue[tail++] = startR * cols + startC;
+
+        // every queued cell has already been filled, so no cell is queued twice
+        while (head < tail) {
+            final int r = queue[head] / cols;
+            final int c = queue[head] % cols;
+            ++head;
+
+            if (r > 0 && map[r - 1][c] == target) {
+                putBrush(r - 1, c, brush);
+                queue[tail++] = queue[head - 1] - cols;
+            }
+            if (r + 1 < rows && map[r + 1][c] == target) {
+                putBrush(r + 1, c, brush);
+                queue[tail++] = queue[head - 1] + cols;
+            }
+            if (c > 0 && map[r][c - 1] == target) {
+                putBrush(r, c - 1, brush);
+                queue[tail++] = queue[head - 1] - 1;
+            }
+            if (c + 1 < cols && map[r][c + 1] == target) {
+                putBrush(r, c + 1, brush);
+                queue[tail++] = queue[head - 1] + 1;
+            }
+        }
+
+        finishOperation();
+    }
+
+    /**
+     * Fills the rectangle between two corners with a brush. Corners outside the map are moved to its edge. Since there
+     * can only be 1 player, the player brush only places the player on the second corner.
+     *
+     * @param brush The currently selected brush
+     * @param x0    Coordinate x of the first corner
+     * @param y0    Coordinate y of the first corner
+     * @param x1    Coordinate x of the second corner
+     * @param y1    Coordinate y of the second corner
+     */
+    public void fillRectangle(Brush brush, double x0, double y0, double x1, double y1) {
+        if (brush.hasPlayer()) {
+            setTile(brush, x1, y1);
+            return;
+        }
+
+        final int top = Math.min(toRow(y0), toRow(y1));
+        final int bottom = Math.max(toRow(y0), toRow(y1));
+        final int left = Math.min(toCol(x0), toCol(x1));
+        final int right = Math.max(toCol(x0), toCol(x1));
+        for (int r = top; r <= bottom; ++r) {
+            for (int c = left; c <= right; ++c) {
+                putBrush(r, c, brush);
+            }
+        }
+
+        finishOperation();
+    }
+
+    /**
+     * Copies the rectangle between two corners, to be placed by {@link #paste(double, double)}. Corners outside the
+     * map are moved to its edge. The player is left out, since there can only be 1 player.
+     *
+     * @param x0 Coordinate x of the first corner
+     * @param y0 Coordinate y of the first corner
+     * @param x1 Coordinate x of the second corner
+     * @param y1 Coordinate y of the second corner
+     */
+    public void copyRegion(double x0, double y0, double x1, double y1) {
+        final int top = Math.min(toRow(y0), toRow(y1));
+        final int bottom = Math.max(toRow(y0), toRow(y1));
+        final int left = Math.min(toCol(x0), toCol(x1));
+        final int right = Math.max(toCol(x0), toCol(x1));
+
+        clipboard = new Brush[bottom - top + 1][right - left + 1];
+        for (int r = top; r <= bottom; ++r) {
+            for (int c = left; c <= right; ++c) {
+                final Brush b = map[r][c];
+                clipboard[r - top][c - left] = b.hasPlayer() ? togglePlayerOnTile(b) : b;
+            }
+        }
+    }
+
+    /**
+     * Places the region copied by {@link #copyRegion(double, double, double, double)} with its top left corner on the
+     * clicked cell. The parts which do not fit into the map are left out. Does nothing if nothing has been copied.
+     *
+     * @param x Mouse click coordinate x
+     * @param y Mouse click coordinate y
+     */
+    public void paste(double x, double y) {
+        if (clipboard == null || x < 0 || y < 0) {
+            return;
+        }
+
+        final int top = (int) Math.floor(y) / LEVEL_EDITOR_TILE_SIZE;
+        final int left = (int) Math.floor(x) / LEVEL_EDITOR_TILE_SIZE;
+        for (int r = top; r < rows && r - top < clipboard.length; ++r) {
+            for (int c = left; c < cols && c - left < clipboard[r - top].length; ++c) {
+                putBrush(r, c, clipboard[r - top][c - left]);
+            }
+        }
+
+        finishOperation();
+    }
+
+    /**
+     * Handles a press of the mouse with the current tool, starting an edit which lasts until the mouse is released.
+     *
+     * @param brush The currently selected brush
+     * @param x     Mouse coordinate x
+     * @param y     Mouse coordinate y
+     */
+    public void mousePressed(Brush brush, double x, double y) {
+        commitEdit();
+        strokeActive = true;
+
+        switch (tool.get()) {
+            case PAINT:
+                setTile(brush, x, y);
+                break;
+            case FILL:
+                floodFill(brush, x, y);
+                break;
+            case RECTANGLE:
+            case COPY:
+                anchorX = x;
+                anchorY = y;
+                break;
+            case PASTE:
+                paste(x, y);
+                break;
+        }
+    }
+
+    /**
+     * Handles a drag of the mouse with the current tool.
+     *
+     * @param brush The currently selected brush
+     * @param x     Mouse coordinate x
+     * @param y     Mouse coordinate y
+     */
+    public void mouseDragged(Brush brush, double x, double y) {
+        if (tool.get() == Tool.PAINT) {
+            dragTile(brush, x, y);
+        }
+    }
+
+    /**
+     * Handles a release of the mouse with the current tool, and commits the edit started when it was pressed.
+     *
+     * @param brush The currently selected brush
+     * @param x     Mouse coordinate x
+     * @param y     Mouse coordinate y
+     */
+    public void mouseReleased(Brush brush, double x, double y) {
+        strokeActive = false;
+
+        switch (tool.get()) {
+            case RECTANGLE:
+                fillRectangle(brush, anchorX, anchorY, x, y);
+                break;
+            case COPY:
+                copyRegion(anchorX, anchorY, x, y);
+                break;
+            default:
+                break;
+        }
+
+        commitEdit();
+    }
+
+    /**
+     * @param y Coordinate y
+     * @return Row at the coordinate, moved to the nearest row of the map if outside.
+     */
+    private int toRow(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / LEVEL_EDITOR_TILE_SIZE)));
+    }
+
+    /**
+     * @param x Coordinate x
+     * @return Column at the coordinate, moved to the nearest column of the map if outside.
+     */
+    private int toCol(double x) {
+        return Math.max(0, Math.min(cols - 1, (int) Math.floor(x / LEVEL_EDITOR_TILE_SIZE)));
     }
 
     /**
@@ -154,66 +789,56 @@ public class LevelEditorCanvas extends Canvas {
 
         File f = getTargetSaveDirectory();
         if (f != null) {
-            exportToFile(f);
+            // encoding takes a few milliseconds even for large maps, and copies the map, so later edits are not saved
+            final byte[] data = encode(saveFormat.get());
+            EXPORTER.execute(() -> exportToFile(f, data));
         }
     }
 
     /**
-     * Exports the current game canvas to a text file.
+     * Exports an encoded map to a text file. The file is replaced atomically, so it is never left half written. Shows
+     * an Alert if the file cannot be written.
      *
-     * @param f File to export to.
+     * @param f    File to export to.
+     * @param data Contents of the level file, from {@link #encode(LevelFile.Format)}.
      */
-    private void exportToFile(@NotNull File f) {
+    private void exportToFile(@NotNull File f, @NotNull byte[] data) {
         try {
-            if (f.exists()) {
-                f.delete();
-            }
-
-            if (!f.createNewFile()) {
-                System.err.println("Unable to create new file!");
-                return;
-            }
-
-            try (BufferedWriter bf  = new BufferedWriter(new PrintWriter(f))) {
-                bf.write(Integer.valueOf(rows).toString());
-                bf.newLine();
-                bf.write(Integer.valueOf(cols).toString());
-                bf.newLine();
-
-                for (int i = 0; i < rows; ++i) {
-                    Arrays.stream(map[i]).map(Brush::getRep).forEachOrdered(it -> {
-                        try {
-                            bf.write(it);
-                        } catch (IOException e) {
-                            System.err.println("Unable to write data!");
-                            e.printStackTrace();
-
-                            if (!f.delete()) {
-                                System.err.println("Unable to delete file!");
-                            }
-                        }
-                    });
-
-                    bf.newLine();
-                }
-            }
+            LevelFile.write(f.toPath(), data);
         } catch (IOException e) {
             System.err.println("Unable to write data!");
             e.printStackTrace();
+            Platform.runLater(() -> {
+                Alert a = new Alert(Alert.AlertType.WARNING);
+                a.setTitle("Error");
+                a.setHeaderText("Could not save map!");
+                a.setContentText(e.getMessage());
+                a.show();
+            });
         }
     }
 
+    /**
+     * @param format Format of the rows
+     * @return The current map as the contents of a level file.
+     */
+    private byte[] encode(LevelFile.Format format) {
+        final Brush[][] map = this.map;
+        return LevelFile.encode(rows, cols, (r, c) -> map[r][c].getRep(), format);
+    }
+
     /**
      * Hint: {@link FileChooser} is needed. Also add an extension filter with the following information:
      * description: "Normal text file"
      * extension: "*.txt"
+     * <p>
+     * The description follows {@link #saveFormatProperty()}, which decides how the rows are written.
      *
      * @return The directory the user chose to save the map in.
      */
     private File getTargetSaveDirectory() {
         FileChooser chooser = new FileChooser();
-        chooser.setSelectedExtensionFilter(new FileChooser.ExtensionFilter("Normal text file", Collections.singletonList("*.txt")));
-
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(saveFormat.get().toString(), Collections.singletonList("*.txt")));
         return chooser.showSaveDialog(null);
     }
 
@@ -230,28 +855,7 @@ public class LevelEditorCanvas extends Canvas {
      * @return If the map is invalid
      */
     private boolean isInvalidMap() {
-        String reasonText = "";
-
-        List<Brush> cells = Arrays.stream(map).flatMap(Arrays::stream).collect(Collectors.toList());
-        long numOfPlayers = cells.parallelStream()
-                .filter(it -> it.equals(Brush.PLAYER_ON_DEST) || it.equals(Brush.PLAYER_ON_TILE))
-                .count();
-        long numOfCrates = cells.parallelStream()
-                .filter(it -> it.equals(Brush.CRATE_ON_DEST) || it.equals(Brush.CRATE_ON_TILE))
-                .count();
-        long numOfDests = cells.parallelStream()
-                .filter(it -> it.equals(Brush.DEST) || it.equals(Brush.CRATE_ON_DEST) || it.equals(Brush.PLAYER_ON_DEST))
-                .count();
-
-        if (numOfCrates < 1 || numOfDests < 1) {
-            reasonText = "Please create at least 1 crate and destination.";
-        } else if (numOfCrates != numOfDests) {
-            reasonText = "Imbalanced number of crates and destinations";
-        } else if (numOfPlayers != 1) {
-            reasonText = "Please add a player.";
-        } else if (rows < 3 || cols < 3) {
-            reasonText = "Minimum size is 3 rows and 3 cols";
-        }
+        final String reasonText = getInvalidReason();
 
         if (!reasonText.isEmpty()) {
             Alert a = new Alert(Alert.AlertType.WARNING);
@@ -264,6 +868,46 @@ public class LevelEditorCanvas extends Canvas {
         return !reasonText.isEmpty();
     }
 
+    /**
+     * Checks the conditions of {@link #isInvalidMap()} using the running counts, without scanning the map.
+     *
+     * @return Why the map is invalid, or an empty string if it is valid.
+     */
+    private String getInvalidReason() {
+        if (crateCount < 1 || destCount < 1) {
+            return "Please create at least 1 crate and destination.";
+        } else if (crateCount != destCount) {
+            return "Imbalanced number of crates and destinations";
+        } else if (playerCount != 1) {
+            return "Please add a player.";
+        } else if (rows < 3 || cols < 3) {
+            return "Minimum size is 3 rows and 3 cols";
+        }
+        return "";
+    }
+
+    /**
+     * Represents what pressing, dragging and releasing the mouse does to the map
+     */
+    public enum Tool {
+        PAINT("Paint"),
+        FILL("Flood fill"),
+        RECTANGLE("Rectangle"),
+        COPY("Copy"),
+        PASTE("Paste");
+
+        private final String text;
+
+        Tool(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
     /**
      * Represents the currently selected brush when the user is making a new map
      */
@@ -301,6 +945,27 @@ public class LevelEditorCanvas extends Canvas {
         char getRep() {
             return rep;
         }
+
+        /**
+         * @return Whether the brush places a player.
+         */
+        public boolean hasPlayer() {
+            return this == PLAYER_ON_TILE || this == PLAYER_ON_DEST;
+        }
+
+        /**
+         * @return Whether the brush places a crate.
+         */
+        public boolean hasCrate() {
+            return this == CRATE_ON_TILE || this == CRATE_ON_DEST;
+        }
+
+        /**
+         * @return Whether the brush places a destination, occupied or not.
+         */
+        public boolean hasDest() {
+            return this == DEST || this == CRATE_ON_DEST || this == PLAYER_ON_DEST;
+        }
     }
 
 
@@ -5,11 +5,13 @@ import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
 import model.Map.Cell;
 import model.Map.Occupant.Crate;
+import model.Map.Occupant.Occupant;
 import model.Map.Occupant.Player;
 import model.Map.Occupiable.DestTile;
 import model.Map.Occupiable.Occupiable;
 import model.Map.Occupiable.Tile;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.net.URISyntaxException;
 import java.net.URL;
@@ -128,6 +130,21 @@ public class MapRenderer {
         }
     }
 
+    /**
+     * Render a single cell of a level editor map onto the canvas, which must already have the size of the map.
+     *
+     * @param canvas The canvas to be rendered onto
+     * @param brush  The brush of the cell
+     * @param r      Row of the cell
+     * @param c      Column of the cell
+     */
+    static void renderCell(@NotNull Canvas canvas, @NotNull LevelEditorCanvas.Brush brush, int r, int c) {
+        Image image = BRUSH_IMAGE_MAP.get(brush);
+        assert image != null;
+
+        canvas.getGraphicsContext2D().drawImage(image, c * LEVEL_EDITOR_TILE_SIZE, r * LEVEL_EDITOR_TILE_SIZE);
+    }
+
     /**
      * Render the map onto the canvas. This method can be used in GamePlayPane and LevelSelectPane
      * <p>
@@ -155,6 +172,32 @@ public class MapRenderer {
         }
     }
 
+    /**
+     * Render the map onto the canvas, reading the terrain and occupants of the map directly instead of through
+     * {@link model.Map.Map#getCells()}. This method can be used in GamePlayPane and LevelSelectPane
+     *
+     * @param canvas The canvas to be rendered onto
+     * @param map    The map holding the current state of the game
+     */
+    public static void render(@NotNull Canvas canvas, @NotNull model.Map.Map map) {
+        canvas.setWidth(map.getCols() * LEVEL_EDITOR_TILE_SIZE);
+        canvas.setHeight(map.getRows() * LEVEL_EDITOR_TILE_SIZE);
+
+        for (int r = 0; r < map.getRows(); ++r) {
+            for (int c = 0; c < map.getCols(); ++c) {
+                Image image;
+
+                if (map.isWall(r, c)) {
+                    image = wall;
+                } else {
+                    image = getTileImage(map.isDest(r, c) ? DestTile.class : Tile.class, map.getOccupant(r, c));
+                }
+
+                canvas.getGraphicsContext2D().drawImage(image, c * LEVEL_EDITOR_TILE_SIZE, r * LEVEL_EDITOR_TILE_SIZE);
+            }
+        }
+    }
+
     /**
      * Returns the image for a given tile.
      *
@@ -162,13 +205,24 @@ public class MapRenderer {
      * @return Image of the tile.
      */
     private static @NotNull Image getTileImage(@NotNull final Tile t) {
+        return getTileImage(t instanceof DestTile ? DestTile.class : Tile.class, t.getOccupant().orElse(null));
+    }
+
+    /**
+     * Returns the image for a kind of tile holding an occupant.
+     *
+     * @param type     Kind of tile to display.
+     * @param occupant Occupant of the tile, or null if it is empty.
+     * @return Image of the tile.
+     */
+    private static @NotNull Image getTileImage(@NotNull final Class<? extends Tile> type, @Nullable final Occupant occupant) {
         Image image;
-        if (t.getOccupant().orElse(null) instanceof Crate) {
-            image = IMAGE_MAPPING.get(t.getClass()).tileWithCrate;
-        } else if (t.getOccupant().orElse(null) instanceof Player) {
-            image = IMAGE_MAPPING.get(t.getClass()).tileWithPlayer;
-        } else if (!t.getOccupant().isPresent()) {
-            image = IMAGE_MAPPING.get(t.getClass()).tile;
+        if (occupant instanceof Crate) {
+            image = IMAGE_MAPPING.get(type).tileWithCrate;
+        } else if (occupant instanceof Player) {
+            image = IMAGE_MAPPING.get(type).tileWithPlayer;
+        } else if (occupant == null) {
+            image = IMAGE_MAPPING.get(type).tile;
         } else {
             throw new IllegalArgumentException("No asset for unknown occupant type");
         }
@@ -0,0 +1,246 @@
+package viewmodel;
+
+import javafx.application.Platform;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import model.Exceptions.InvalidMapException;
+import model.Map.Map;
+import model.Solver.Board;
+import model.Solver.Solver;
+import model.Solver.SolverResult;
+import model.Solver.SolverType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static model.DaemonThreads.daemonThreadFactory;
+
+/**
+ * Checks in the background whether the map in the level editor can be solved.
+ * <p>
+ * Every change of the map calls {@link #submit()}. The check only starts once no change has been made for a while,
+ * so that a stroke of the mouse does not start a search per cell. Any check already running is cancelled by the next
+ * change, and its result discarded.
+ * <p>
+ * The map is copied by the snapshot supplier on the publishing executor, which is the application thread by
+ * default; the search runs on a thread of its own. Results are published to the properties on the publishing
+ * executor as well, so they can be bound to the UI.
+ */
+public class SolvabilityChecker {
+    /**
+     * Outcome of the latest check.
+     */
+    public enum Verdict {
+        /**
+         * The map has not been checked, because it cannot be saved.
+         */
+        NONE,
+        /**
+         * The map has changed, and is waiting to be checked or being checked.
+         */
+        CHECKING,
+        SOLVABLE,
+        UNSOLVABLE,
+        /**
+         * The search did not finish in time.
+         */
+        TIMED_OUT
+    }
+
+    private static final long DEFAULT_DELAY_MILLIS = 500;
+    private static final long DEFAULT_TIMEOUT_MILLIS = 10000;
+
+    /**
+     * Waits for changes to settle and cancels searches running out of time.
+     */
+    private static final ScheduledExecutorService TIMER =
+            Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("solvability-timer"));
+
+    /**
+     * Runs the searches, one at a time, so a cancelled search has stopped before the next one starts.
+     */
+    private static final ExecutorService SEARCHER =
+            Executors.newSingleThreadExecutor(daemonThreadFactory("solvability-check"));
+
+    private final Supplier<char[][]> snapshot;
+    private final Executor publisher;
+    private final long delayMillis;
+    private final long timeoutMillis;
+
+    private final ObjectProperty<Verdict> verdict = new SimpleObjectProperty<>(Verdict.NONE);
+    private final StringProperty message = new SimpleStringProperty("");
+
+    //Incremented by every change, so that checks of older maps can tell they are stale
+    private volatile long generation = 0;
+    private ScheduledFuture<?> pending;
+    private volatile Solver running;
+
+    /**
+     * Creates a checker which copies the map and publishes results on the application thread.
+     *
+     * @param snapshot Copies the map in the format of a level file, or returns {@code null} if the map cannot be saved
+     */
+    public SolvabilityChecker(@NotNull Supplier<char[][]> snapshot) {
+        this(snapshot, Platform::runLater, DEFAULT_DELAY_MILLIS, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param snapshot      Copies the map in the format of a level file, or returns {@code null} if the map cannot be
+     *                      saved
+     * @param publisher     Executor on which the map is copied and the properties are updated
+     * @param delayMillis   Time without changes after which the map is checked
+     * @param timeoutMillis Time limit of a single search
+     */
+    public SolvabilityChecker(@NotNull Supplier<char[][]> snapshot, @NotNull Executor publisher, long delayMillis, long timeoutMillis) {
+        this.snapshot = snapshot;
+        this.publisher = publisher;
+        this.delayMillis = delayMillis;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * @return Property holding the outcome of the latest check.
+     */
+    public ObjectProperty<Verdict> verdictProperty() {
+        return verdict;
+    }
+
+    /**
+     * @return Property holding a description of the latest check, e.g. the minimal number of pushes and the time the
+     * search took.
+     */
+    public StringProperty messageProperty() {
+        return message;
+    }
+
+    /**
+     * Notes that the map has changed. Cancels the check in progress, if any, and schedules a new one. Must be called
+     * on the publishing executor.
+     */
+    public void submit() {
+        final long gen = ++generation;
+        cancelRunning();
+
+        verdict.set(Verdict.CHECKING);
+        message.set("Checking solvability...");
+        pending = TIMER.schedule(() -> publisher.execute(() -> start(gen)), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cancels the check in progress, if any, without scheduling a new one. Must be called on the publishing executor.
+     */
+    public void cancel() {
+        ++generation;
+        cancelRunning();
+
+        verdict.set(Verdict.NONE);
+        message.set("");
+    }
+
+    private void cancelRunning() {
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+
+        final Solver solver = running;
+        if (solver != null) {
+            solver.cancel();
+        }
+    }
+
+    /**
+     * Copies the map, and starts searching it, unless it has changed since the check was scheduled. Runs on the
+     * publishing executor.
+     *
+     * @param gen Generation of the map to check
+     */
+    private void start(long gen) {
+        if (gen != generation) {
+            return;
+        }
+        pending = null;
+
+        final char[][] rep = snapshot.get();
+        if (rep == null) {
+            verdict.set(Verdict.NONE);
+            message.set("");
+            return;
+        }
+
+        SEARCHER.execute(() -> search(gen, rep));
+    }
+
+    /**
+     * Searches a copy of the map, and publishes the result. Runs on the search thread.
+     *
+     * @param gen Generation of the map
+     * @param rep The map
+     */
+    private void search(long gen, @NotNull char[][] rep) {
+        if (gen != generation) {
+            return;
+        }
+
+        final Map map = new Map();
+        try {
+            map.initialize(rep.length, rep.length == 0 ? 0 : rep[0].length, rep);
+        } catch (InvalidMapException e) {
+            publish(gen, Verdict.NONE, e.getMessage());
+            return;
+        }
+
+        final Solver solver = SolverType.ASTAR.create(Board.fromMap(map));
+        running = solver;
+        // a change made between the check above and publishing the solver would not have cancelled it
+        if (gen != generation) {
+            solver.cancel();
+        }
+
+        final ScheduledFuture<?> timeout = TIMER.schedule(solver::cancel, timeoutMillis, TimeUnit.MILLISECONDS);
+        final SolverResult result;
+        try {
+            result = solver.solve();
+        } finally {
+            timeout.cancel(false);
+            running = null;
+        }
+
+        switch (result.getStatus()) {
+            case SOLVED:
+                publish(gen, Verdict.SOLVABLE, String.format("Solvable in %d pushes (%d ms)", result.getPushes(), result.getTimeMillis()));
+                break;
+            case UNSOLVABLE:
+                publish(gen, Verdict.UNSOLVABLE, String.format("Unsolvable (%d ms)", result.getTimeMillis()));
+                break;
+            case CANCELLED:
+                publish(gen, Verdict.TIMED_OUT, String.format("Solvability unknown: timed out after %d ms", result.getTimeMillis()));
+                break;
+        }
+    }
+
+    /**
+     * Publishes the result of a check, unless the map has changed since.
+     *
+     * @param gen  Generation of the map checked
+     * @param v    Outcome of the check
+     * @param text Description of the outcome
+     */
+    private void publish(long gen, @NotNull Verdict v, @Nullable String text) {
+        publisher.execute(() -> {
+            if (gen == generation) {
+                verdict.set(v);
+                message.set(text == null ? "" : text);
+            }
+        });
+    }
+}
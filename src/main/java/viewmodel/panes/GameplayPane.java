@@ -84,7 +84,7 @@ public class GameplayPane extends BorderPane {
             b.getStyleClass().add("big-button");
         }
 
-        undoButton.setDisable(true);
+        undoButton.setDisable(LevelManager.getInstance().getGameLevel().getMap().getHistory().isEmpty());
     }
 
     /**
@@ -105,7 +105,7 @@ public class GameplayPane extends BorderPane {
         undoButton.setOnAction(event -> {
             LevelManager lvl = LevelManager.getInstance();
 
-            lvl.getGameLevel().getMap().getHistory().restore();
+            lvl.undoMove();
 
             renderCanvas();
 
@@ -118,28 +118,16 @@ public class GameplayPane extends BorderPane {
 
             switch (event.getCode()) {
                 case W:
-                    lvl.getGameLevel().getMap().getHistory().save(Map.Direction.UP);
-                    if (!lvl.getGameLevel().makeMove('w')) {
-                        lvl.getGameLevel().getMap().getHistory().pop();
-                    }
+                    lvl.makeMove(Map.Direction.UP);
                     break;
                 case A:
-                    lvl.getGameLevel().getMap().getHistory().save(Map.Direction.LEFT);
-                    if (!lvl.getGameLevel().makeMove('a')) {
-                        lvl.getGameLevel().getMap().getHistory().pop();
-                    }
+                    lvl.makeMove(Map.Direction.LEFT);
                     break;
                 case S:
-                    lvl.getGameLevel().getMap().getHistory().save(Map.Direction.DOWN);
-                    if (!lvl.getGameLevel().makeMove('s')) {
-                        lvl.getGameLevel().getMap().getHistory().pop();
-                    }
+                    lvl.makeMove(Map.Direction.DOWN);
                     break;
                 case D:
-                    lvl.getGameLevel().getMap().getHistory().save(Map.Direction.RIGHT);
-                    if (!lvl.getGameLevel().makeMove('d')) {
-                        lvl.getGameLevel().getMap().getHistory().pop();
-                    }
+                    lvl.makeMove(Map.Direction.RIGHT);
                     break;
                 default:
                     // not handled
@@ -154,6 +142,7 @@ public class GameplayPane extends BorderPane {
             }
 
             if (lvl.getGameLevel().isWin()) {
+                lvl.endSession();
                 if (audio.isEnabled()) {
                     audio.playWinSound();
                 }
@@ -192,7 +181,9 @@ public class GameplayPane extends BorderPane {
      */
     private void doQuitToMainMenu() {
         LevelManager manager = LevelManager.getInstance();
+        manager.saveReplay();
         manager.resetLevelTimer();
+        manager.endSession();
         manager.resetNumRestarts();
 
         SceneManager.getInstance().showMainMenuScene();
@@ -270,6 +261,8 @@ public class GameplayPane extends BorderPane {
      * Helper method for quitting to level select.
      */
     private void doReturnToLevelSelectMenu() {
+        LevelManager.getInstance().saveReplay();
+        LevelManager.getInstance().endSession();
         SceneManager.getInstance().showLevelSelectMenuScene();
         LevelManager.getInstance().resetNumRestarts();
     }
@@ -314,20 +307,11 @@ public class GameplayPane extends BorderPane {
     }
 
     /**
-     * Set the current level to the current level name, rerender the canvas, reset and start the timer, and
+     * Reset the current level to its initial position, rerender the canvas, reset and start the timer, and
      * increment the number of restarts
      */
     private void doRestartAction() {
-        try {
-            LevelManager.getInstance().setLevel(LevelManager.getInstance().currentLevelNameProperty().getValue());
-        } catch (FileNotFoundException | InvalidMapException e) {
-            Alert box = new Alert(Alert.AlertType.WARNING);
-            box.setHeaderText("Cannot open current map");
-            box.setContentText("You will be returned to the Main Menu.");
-            box.showAndWait();
-
-            SceneManager.getInstance().showMainMenuScene();
-        }
+        LevelManager.getInstance().restartLevel();
 
         renderCanvas();
 
@@ -347,6 +331,6 @@ public class GameplayPane extends BorderPane {
      * Hint: {@link MapRenderer}
      */
     private void renderCanvas() {
-        MapRenderer.render(gamePlayCanvas, LevelManager.getInstance().getGameLevel().getMap().getCells());
+        MapRenderer.render(gamePlayCanvas, LevelManager.getInstance().getGameLevel().getMap());
     }
 }
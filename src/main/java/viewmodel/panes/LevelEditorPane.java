@@ -1,12 +1,16 @@
 package viewmodel.panes;
 
+import javafx.beans.binding.Bindings;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListView;
 import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import model.LevelFile;
 import viewmodel.Config;
 import viewmodel.LevelEditorCanvas;
 import viewmodel.SceneManager;
@@ -32,8 +36,14 @@ public class LevelEditorPane extends BorderPane {
     private Button newGridButton;
     private ObservableList<Brush> brushList;
     private ListView<Brush> selectedBrush = new ListView<>();
+    private ComboBox<LevelFile.Format> formatBox;
     private Button saveButton;
     private VBox centerContainer;
+    private HBox toolBar;
+    private ComboBox<LevelEditorCanvas.Tool> toolBox;
+    private Button undoButton;
+    private Label validationLabel;
+    private Label solvabilityLabel;
 
     /**
      * Instantiate the member components and connect and style them. Also set the callbacks.
@@ -55,8 +65,14 @@ public class LevelEditorPane extends BorderPane {
         colBox = new BorderPane(null, null, colField, null, colText);
         newGridButton = new Button("New Grid");
         brushList = FXCollections.observableList(Arrays.asList(Brush.values()));
+        formatBox = new ComboBox<>(FXCollections.observableList(Arrays.asList(LevelFile.Format.values())));
         saveButton = new Button("Save");
         centerContainer = new VBox(20);
+        toolBar = new HBox(20);
+        toolBox = new ComboBox<>(FXCollections.observableList(Arrays.asList(LevelEditorCanvas.Tool.values())));
+        undoButton = new Button("Undo");
+        validationLabel = new Label();
+        solvabilityLabel = new Label();
 
         connectComponents();
         styleComponents();
@@ -85,8 +101,19 @@ public class LevelEditorPane extends BorderPane {
         selectedBrush.setItems(brushList);
         selectedBrush.getSelectionModel().select(0);
 
+        toolBar.getChildren().addAll(
+                toolBox,
+                undoButton,
+                formatBox,
+                validationLabel,
+                solvabilityLabel
+        );
+        toolBox.setValue(LevelEditorCanvas.Tool.PAINT);
+        formatBox.setValue(LevelFile.Format.PLAIN);
+
         this.setLeft(leftContainer);
         this.setCenter(centerContainer);
+        this.setBottom(toolBar);
     }
 
     /**
@@ -96,6 +123,8 @@ public class LevelEditorPane extends BorderPane {
         leftContainer.getStyleClass().add("side-menu");
         centerContainer.getStyleClass().add("big-vbox");
 
+        toolBar.getStyleClass().add("bottom-menu");
+
         for (Button b : Arrays.asList(returnButton, newGridButton, saveButton)) {
             b.getStyleClass().add("big-button");
         }
@@ -110,13 +139,34 @@ public class LevelEditorPane extends BorderPane {
      * The save button should save the current LevelEditorCanvas to file.
      * The new grid button should change the LevelEditorCanvas size based on the entered values
      * The return button should switch back to the main menu scene
-     * The LevelEditorCanvas, upon mouse click, should call {@link LevelEditorCanvas#setTile(Brush, double, double)},
-     * passing in the currently selected brush and mouse click coordinates
+     * The LevelEditorCanvas, upon mouse press, drag and release, should call
+     * {@link LevelEditorCanvas#mousePressed(Brush, double, double)} and the like, passing in the currently selected
+     * brush and mouse coordinates
      */
     private void setCallbacks() {
         saveButton.setOnAction(event -> levelEditor.saveToFile());
         newGridButton.setOnAction(event -> levelEditor.changeSize(rowField.getValue(), colField.getValue()));
         returnButton.setOnAction(event -> SceneManager.getInstance().showMainMenuScene());
-        levelEditor.setOnMouseClicked(event -> levelEditor.setTile(selectedBrush.getSelectionModel().getSelectedItem(), event.getX(), event.getY()));
+        levelEditor.setOnMousePressed(event -> levelEditor.mousePressed(selectedBrush.getSelectionModel().getSelectedItem(), event.getX(), event.getY()));
+        levelEditor.setOnMouseDragged(event -> levelEditor.mouseDragged(selectedBrush.getSelectionModel().getSelectedItem(), event.getX(), event.getY()));
+        levelEditor.setOnMouseReleased(event -> levelEditor.mouseReleased(selectedBrush.getSelectionModel().getSelectedItem(), event.getX(), event.getY()));
+
+        levelEditor.toolProperty().bind(toolBox.valueProperty());
+        levelEditor.saveFormatProperty().bind(formatBox.valueProperty());
+        undoButton.setOnAction(event -> levelEditor.undo());
+        undoButton.disableProperty().bind(levelEditor.canUndoProperty().not());
+
+        // the counts are kept up to date by the canvas, so this does not rescan the map
+        validationLabel.textProperty().bind(Bindings.createStringBinding(
+                () -> String.format("Players: %d  Crates: %d  Destinations: %d  %s",
+                        levelEditor.numPlayersProperty().get(),
+                        levelEditor.numCratesProperty().get(),
+                        levelEditor.numDestsProperty().get(),
+                        levelEditor.invalidReasonProperty().get().isEmpty() ? "Ready to save" : levelEditor.invalidReasonProperty().get()),
+                levelEditor.numPlayersProperty(),
+                levelEditor.numCratesProperty(),
+                levelEditor.numDestsProperty(),
+                levelEditor.invalidReasonProperty()));
+        solvabilityLabel.textProperty().bind(levelEditor.solvabilityMessageProperty());
     }
 }
@@ -1,18 +1,30 @@
 package viewmodel.panes;
 
 import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.collections.FXCollections;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
+import javafx.scene.control.Tooltip;
 import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.DirectoryChooser;
 import model.Exceptions.InvalidMapException;
 import model.LevelManager;
+import model.LevelMetrics;
 import model.Map.Cell;
+import model.Solver.SolverResult;
 import viewmodel.MapRenderer;
 import viewmodel.SceneManager;
+import viewmodel.customNodes.NumberTextField;
 
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -20,11 +32,61 @@ import java.net.URISyntaxException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Represents the main menu in the game
  */
 public class LevelSelectPane extends BorderPane {
+    /**
+     * What the levels can be sorted and filtered by.
+     */
+    public enum SortKey {
+        NAME("Name", null, ""),
+        PUSHES("Pushes", m -> m.getStatus() == SolverResult.Status.SOLVED ? m.getPushes() : Double.POSITIVE_INFINITY, " pushes"),
+        NODES("Solver nodes", LevelMetrics::getNodes, " nodes"),
+        CRATES("Crates", LevelMetrics::getNumCrates, " crates"),
+        DEAD_SQUARES("Dead squares", m -> Math.round(m.getDeadSquareRatio() * 100), "% dead");
+
+        private final String text;
+        private final ToDoubleFunction<LevelMetrics> value;
+        private final String unit;
+
+        SortKey(String text, ToDoubleFunction<LevelMetrics> value, String unit) {
+            this.text = text;
+            this.value = value;
+            this.unit = unit;
+        }
+
+        /**
+         * @param m Metrics of a level, or {@code null} if the level has not been analysed yet
+         * @return Value of the metric, where levels which were not solved or not analysed count as infinitely hard.
+         */
+        double valueOf(LevelMetrics m) {
+            return m == null || value == null ? Double.POSITIVE_INFINITY : value.applyAsDouble(m);
+        }
+
+        /**
+         * @param m Metrics of a level
+         * @return Value of the metric as shown next to the level name.
+         */
+        String format(LevelMetrics m) {
+            if (value == null) {
+                return "";
+            }
+            final double v = valueOf(m);
+            return Double.isInfinite(v) ? " (" + m + ")" : String.format(" (%.0f%s)", v, unit);
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
     private VBox leftContainer;
     private Button returnButton;
     private Button playButton;
@@ -32,6 +94,14 @@ public class LevelSelectPane extends BorderPane {
     private ListView<String> levelsListView;
     private VBox centerContainer;
     private Canvas levelPreview;
+    private HBox toolBar;
+    private Label sortText;
+    private ComboBox<SortKey> sortBox;
+    private Label maxText;
+    private NumberTextField maxField;
+    private FilteredList<String> filteredLevels;
+    private SortedList<String> sortedLevels;
+    private boolean refreshScheduled = false;
 
     /**
      * Instantiate the member components and connect and style them. Also set the callbacks.
@@ -42,9 +112,16 @@ public class LevelSelectPane extends BorderPane {
         returnButton = new Button("Return");
         playButton = new Button("Play");
         chooseMapDirButton = new Button("Choose map directory");
-        levelsListView = new ListView<>(LevelManager.getInstance().getLevelNames());
+        filteredLevels = new FilteredList<>(LevelManager.getInstance().getLevelNames());
+        sortedLevels = new SortedList<>(filteredLevels);
+        levelsListView = new ListView<>(sortedLevels);
         centerContainer = new VBox(20);
         levelPreview = new Canvas();
+        toolBar = new HBox(20);
+        sortText = new Label("Sort by");
+        sortBox = new ComboBox<>(FXCollections.observableList(Arrays.asList(SortKey.values())));
+        maxText = new Label("At most");
+        maxField = new NumberTextField("");
 
         connectComponents();
         styleComponents();
@@ -93,8 +170,17 @@ public class LevelSelectPane extends BorderPane {
                 levelPreview
         );
 
+        toolBar.getChildren().addAll(
+                sortText,
+                sortBox,
+                maxText,
+                maxField
+        );
+        sortBox.setValue(SortKey.NAME);
+
         this.setLeft(leftContainer);
         this.setCenter(centerContainer);
+        this.setBottom(toolBar);
     }
 
     /**
@@ -103,6 +189,7 @@ public class LevelSelectPane extends BorderPane {
     private void styleComponents() {
         leftContainer.getStyleClass().add("side-menu");
         centerContainer.getStyleClass().add("big-vbox");
+        toolBar.getStyleClass().add("bottom-menu");
 
         for (Button b : Arrays.asList(returnButton, chooseMapDirButton, playButton)) {
             b.getStyleClass().add("big-button");
@@ -121,6 +208,8 @@ public class LevelSelectPane extends BorderPane {
      * the gameplay scene, and start the level timer.
      * The listview, based on which item was clicked, should set the current level (see LevelManager), render the
      * preview (see {@link MapRenderer#render(Canvas, Cell[][])}}, and set the play button to enabled.
+     * <p>
+     * The list is sorted and filtered again whenever the metric, the limit, or the metrics of the levels change.
      */
     private void setCallbacks() {
         returnButton.setOnAction(event -> SceneManager.getInstance().showMainMenuScene());
@@ -149,7 +238,7 @@ public class LevelSelectPane extends BorderPane {
 
             try {
                 LevelManager.getInstance().setLevel(newValue);
-                MapRenderer.render(levelPreview, LevelManager.getInstance().getGameLevel().getMap().getCells());
+                MapRenderer.render(levelPreview, LevelManager.getInstance().getGameLevel().getMap());
 
                 playButton.setDisable(false);
             } catch (InvalidMapException | FileNotFoundException e) {
@@ -164,10 +253,65 @@ public class LevelSelectPane extends BorderPane {
 
                 Platform.runLater(() -> {
                     levelsListView.getSelectionModel().clearSelection();
-                    levelsListView.getItems().remove(newValue);
+                    LevelManager.getInstance().getLevelNames().remove(newValue);
                 });
             }
         });
+
+        levelsListView.setCellFactory(view -> new ListCell<String>() {
+            @Override
+            protected void updateItem(String item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                    setTooltip(null);
+                    return;
+                }
+
+                LevelMetrics m = LevelManager.getInstance().getLevelMetrics().get(item);
+                setText(m == null ? item : item + sortBox.getValue().format(m));
+                setTooltip(m == null ? null : new Tooltip(m.toString()));
+            }
+        });
+        // metrics arrive one level at a time, so re-sorting is batched
+        LevelManager.getInstance().getLevelMetrics().addListener((InvalidationListener) observable -> scheduleRefresh());
+        sortBox.valueProperty().addListener((observable, oldValue, newValue) -> refreshLevels());
+        maxField.textProperty().addListener((observable, oldValue, newValue) -> refreshLevels());
+    }
+
+    /**
+     * Refreshes the level list once the current event has been handled, unless that has already been requested.
+     */
+    private void scheduleRefresh() {
+        if (!refreshScheduled) {
+            refreshScheduled = true;
+            Platform.runLater(this::refreshLevels);
+        }
+    }
+
+    /**
+     * Sorts and filters the level list by the chosen metric, using the metrics known so far. Levels which have not
+     * been analysed yet are sorted last, and are not filtered out.
+     */
+    private void refreshLevels() {
+        refreshScheduled = false;
+
+        final SortKey key = sortBox.getValue() == null ? SortKey.NAME : sortBox.getValue();
+        final Map<String, LevelMetrics> metrics = LevelManager.getInstance().getLevelMetrics();
+
+        Comparator<String> byName = Comparator.naturalOrder();
+        sortedLevels.setComparator(key == SortKey.NAME ? byName
+                : Comparator.<String>comparingDouble(name -> key.valueOf(metrics.get(name))).thenComparing(byName));
+
+        final String max = maxField.getText();
+        Predicate<String> filter = null;
+        if (key != SortKey.NAME && max != null && !max.isEmpty()) {
+            final double limit = Double.parseDouble(max);
+            filter = name -> !metrics.containsKey(name) || key.valueOf(metrics.get(name)) <= limit;
+        }
+        filteredLevels.setPredicate(filter);
+
+        levelsListView.refresh();
     }
 
     /**
@@ -0,0 +1,69 @@
+package main;
+
+import model.Map.Map;
+import model.Solver.BfsSolver;
+import model.Solver.Board;
+import model.Solver.IdaStarSolver;
+import model.Solver.SolverResult;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportWriterTest {
+    /**
+     * Tests that CSV reports quote fields holding separators, and leave unknown values empty.
+     */
+    @Test
+    void testCsv() throws Exception {
+        Map map = new Map();
+        map.initialize(1, 4, new char[][]{"@cC.".toCharArray()});
+        SolverResult result = new BfsSolver(Board.fromMap(map)).solve();
+
+        StringWriter out = new StringWriter();
+        ReportWriter writer = ReportWriter.create("csv", out);
+        assertNotNull(writer);
+
+        writer.begin();
+        writer.write(LevelReport.invalid("a,b.txt", "Bad \"map\"", 3));
+        writer.write(LevelReport.valid("c.txt", 4));
+        writer.write(LevelReport.solved("d.txt", result, Arrays.asList(1, 3), 6));
+        writer.end();
+
+        assertEquals("file,valid,status,solvable,pushes,nodes,time_ms,iterations,thresholds,error\n"
+                + "\"a,b.txt\",false,invalid,,,0,3,,,\"Bad \"\"map\"\"\"\n"
+                + "c.txt,true,valid,,,0,4,,,\n"
+                + "d.txt,true,solved,true,1," + result.getNodes() + ",6,2,1 3,\n", out.toString());
+    }
+
+    /**
+     * Tests that JSON reports form a single array, and that solver results and the iterations of IDA* are reported.
+     */
+    @Test
+    void testJson() throws Exception {
+        Map map = new Map();
+        map.initialize(1, 4, new char[][]{"@cC.".toCharArray()});
+        IdaStarSolver solver = new IdaStarSolver(Board.fromMap(map));
+        SolverResult result = solver.solve();
+
+        StringWriter out = new StringWriter();
+        ReportWriter writer = ReportWriter.create("json", out);
+        assertNotNull(writer);
+
+        writer.begin();
+        writer.write(LevelReport.solved("one.txt", result, solver.getThresholds(), 5));
+        writer.write(LevelReport.invalid("x.txt", "line\nbreak", 1));
+        writer.end();
+
+        assertEquals("[\n"
+                + "{\"file\":\"one.txt\",\"valid\":true,\"status\":\"solved\",\"solvable\":true,\"pushes\":1,"
+                + "\"nodes\":" + result.getNodes() + ",\"timeMs\":5,\"iterations\":1,\"thresholds\":[1],"
+                + "\"error\":null},\n"
+                + "{\"file\":\"x.txt\",\"valid\":false,\"status\":\"invalid\",\"solvable\":null,\"pushes\":null,"
+                + "\"nodes\":0,\"timeMs\":1,\"iterations\":null,\"thresholds\":null,\"error\":\"line\\nbreak\"}\n"
+                + "]\n", out.toString());
+        assertNull(ReportWriter.create("xml", out));
+    }
+}
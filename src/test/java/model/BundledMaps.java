@@ -0,0 +1,39 @@
+package model;
+
+import model.Exceptions.InvalidMapException;
+
+import java.io.FileNotFoundException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * The maps shipped in {@code assets/maps}, as used by the tests.
+ */
+public final class BundledMaps {
+    private BundledMaps() {
+    }
+
+    /**
+     * @param name File name of a bundled map, e.g. "01-easy.txt"
+     * @return Path of the map.
+     */
+    public static Path path(String name) throws URISyntaxException {
+        URL url = Thread.currentThread().getContextClassLoader().getResource("assets/maps/" + name);
+        assertNotNull(url, name);
+        return Paths.get(url.toURI());
+    }
+
+    /**
+     * @param name File name of a bundled map, e.g. "01-easy.txt"
+     * @return A freshly loaded level of the map.
+     */
+    public static GameLevel load(String name) throws URISyntaxException, FileNotFoundException, InvalidMapException {
+        GameLevel level = new GameLevel();
+        level.loadMap(path(name).toString());
+        return level;
+    }
+}
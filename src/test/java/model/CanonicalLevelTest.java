@@ -0,0 +1,186 @@
+package model;
+
+import model.Map.Map;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CanonicalLevelTest {
+    private static final String[] LEVEL = {
+            "#######",
+            "#@....#",
+            "#.c.C.#",
+            "#..#..#",
+            "#.cC..#",
+            "#######"
+    };
+
+    /**
+     * @return The level with the given rows.
+     */
+    private static Map load(String[] rows) throws Exception {
+        char[][] rep = new char[rows.length][];
+        for (int r = 0; r < rows.length; ++r) {
+            rep[r] = rows[r].toCharArray();
+        }
+        Map map = new Map();
+        map.initialize(rows.length, rows[0].length(), rep);
+        return map;
+    }
+
+    /**
+     * @return Fingerprint of the canonical form of the level.
+     */
+    private static CanonicalLevel.Fingerprint fingerprint(String[] rows) throws Exception {
+        return CanonicalLevel.of(load(rows)).getFingerprint();
+    }
+
+    /**
+     * @return The rows turned a quarter clockwise.
+     */
+    private static String[] rotate(String[] rows) {
+        String[] rotated = new String[rows[0].length()];
+        for (int c = 0; c < rows[0].length(); ++c) {
+            StringBuilder row = new StringBuilder();
+            for (int r = rows.length - 1; r >= 0; --r) {
+                row.append(rows[r].charAt(c));
+            }
+            rotated[c] = row.toString();
+        }
+        return rotated;
+    }
+
+    /**
+     * @return The rows mirrored left to right.
+     */
+    private static String[] mirror(String[] rows) {
+        String[] mirrored = new String[rows.length];
+        for (int r = 0; r < rows.length; ++r) {
+            mirrored[r] = new StringBuilder(rows[r]).reverse().toString();
+        }
+        return mirrored;
+    }
+
+    /**
+     * Tests that all eight orientations of a level have the same fingerprint.
+     */
+    @Test
+    void testSymmetries() throws Exception {
+        CanonicalLevel.Fingerprint expected = fingerprint(LEVEL);
+        String[] rows = LEVEL;
+        for (int i = 0; i < 4; ++i) {
+            assertEquals(expected, fingerprint(rows));
+            assertEquals(expected, fingerprint(mirror(rows)));
+            rows = rotate(rows);
+        }
+    }
+
+    /**
+     * Tests that extra walls, walled-off areas and where the player stands within its region do not matter.
+     */
+    @Test
+    void testNormalization() throws Exception {
+        CanonicalLevel.Fingerprint expected = fingerprint(LEVEL);
+
+        assertEquals(expected, fingerprint(new String[]{
+                "##########",
+                "##########",
+                "###@....##",
+                "###.c.C.##",
+                "###..#..##",
+                "###.cC..##",
+                "##########"
+        }));
+        assertEquals(expected, fingerprint(new String[]{
+                "##########",
+                "#@....#..#",
+                "#.c.C.#..#",
+                "#..#..####",
+                "#.cC..#..#",
+                "##########"
+        }));
+        assertEquals(expected, fingerprint(new String[]{
+                "#######",
+                "#.....#",
+                "#.c.C.#",
+                "#..#..#",
+                "#.cC.@#",
+                "#######"
+        }));
+    }
+
+    /**
+     * Tests that levels which play differently have different fingerprints.
+     */
+    @Test
+    void testDistinct() throws Exception {
+        CanonicalLevel.Fingerprint expected = fingerprint(LEVEL);
+
+        // a crate moved
+        assertNotEquals(expected, fingerprint(new String[]{
+                "#######",
+                "#@....#",
+                "#..cC.#",
+                "#..#..#",
+                "#.cC..#",
+                "#######"
+        }));
+        // a crate and a destination the player cannot reach, which make the level unsolvable
+        assertNotEquals(expected, fingerprint(new String[]{
+                "##########",
+                "#@....#.C#",
+                "#.c.C.#c.#",
+                "#..#..####",
+                "#.cC..#..#",
+                "##########"
+        }));
+        // the player is on the other side of a crate it would have to push
+        assertNotEquals(fingerprint(new String[]{
+                "######",
+                "#@c.C#",
+                "######"
+        }), fingerprint(new String[]{
+                "######",
+                "#.c@C#",
+                "######"
+        }));
+    }
+
+    /**
+     * Tests that crates and destinations the player cannot reach are kept, each walled in on its own.
+     */
+    @Test
+    void testUnreachableContentsKept() throws Exception {
+        byte[] canonical = CanonicalLevel.of(load(new String[]{
+                "##########",
+                "#@....#.C#",
+                "#.c.C.#c.#",
+                "#..#..####",
+                "#.cC..#..#",
+                "##########"
+        })).toLevelFile();
+        String[] lines = new String(canonical, StandardCharsets.US_ASCII).split("\n");
+        Map map = load(Arrays.copyOfRange(lines, 2, lines.length));
+
+        assertEquals(3, map.getCrates().size());
+        assertEquals(3, map.getNumDestTiles());
+        assertArrayEquals(canonical, CanonicalLevel.of(map).toLevelFile());
+    }
+
+    /**
+     * Tests that the canonical form is a level file which is its own canonical form.
+     */
+    @Test
+    void testLevelFile() throws Exception {
+        String[] lines = new String(CanonicalLevel.of(load(LEVEL)).toLevelFile(), StandardCharsets.US_ASCII)
+                .split("\n");
+        String[] rows = Arrays.copyOfRange(lines, 2, lines.length);
+        assertEquals(Integer.parseInt(lines[0]), rows.length);
+
+        assertEquals(fingerprint(LEVEL), fingerprint(rows));
+        assertEquals(32, fingerprint(LEVEL).toString().length());
+    }
+}
@@ -0,0 +1,59 @@
+package model;
+
+import model.Solver.Board;
+import model.Solver.DeadlockPatterns;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameLevelTest {
+    /**
+     * Tests that a deadlocked block of crates which no crate is stuck in is learned in the background during live
+     * play, reported by the next check, and matched straight away once loaded again from the saved patterns.
+     */
+    @Test
+    void testDeadlockPatternsInLivePlay() throws Exception {
+        String[] rows = {
+                "#######",
+                "#.....#",
+                "#.cc..#",
+                "#.cc@.#",
+                "#CCCC.#",
+                "#######"
+        };
+        Path dir = Files.createTempDirectory("game-level-test");
+        Path level = dir.resolve("level.txt");
+        Files.write(level, Arrays.asList(String.valueOf(rows.length), String.valueOf(rows[0].length()), String.join("\n", rows)));
+        Path file = null;
+        try {
+            GameLevel game = new GameLevel();
+            game.setDeadlockPatternDirectory(dir);
+            game.loadMap(level.toString());
+            file = dir.resolve(DeadlockPatterns.fileName(Board.fromMap(game.getMap())));
+
+            // nothing is known about the block yet, so the first check only starts learning
+            assertFalse(game.isDeadlocked());
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (!Files.exists(file)) {
+                assertTrue(System.currentTimeMillis() < deadline, "Pattern was not saved");
+                Thread.sleep(10);
+            }
+            assertTrue(game.isDeadlocked());
+
+            GameLevel reloaded = new GameLevel();
+            reloaded.setDeadlockPatternDirectory(dir);
+            reloaded.loadMap(level.toString());
+            assertTrue(reloaded.isDeadlocked());
+        } finally {
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+            Files.delete(level);
+            Files.delete(dir);
+        }
+    }
+}
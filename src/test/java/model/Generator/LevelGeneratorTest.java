@@ -0,0 +1,68 @@
+package model.Generator;
+
+import model.GameLevel;
+import model.LevelFile;
+import model.Solver.Board;
+import model.Solver.SolverResult;
+import model.Solver.SolverType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LevelGeneratorTest {
+    /**
+     * Tests that the same seed gives the same level, and different seeds different levels.
+     */
+    @Test
+    void testDeterministic() {
+        LevelGenerator generator = new LevelGenerator(9, 9, 2, 4, 40);
+        GeneratedLevel a = generator.generate(42);
+        GeneratedLevel b = generator.generate(42);
+        GeneratedLevel c = generator.generate(43);
+        assertNotNull(a);
+        assertNotNull(b);
+        assertNotNull(c);
+
+        assertArrayEquals(a.toLevelFile(LevelFile.Format.PLAIN), b.toLevelFile(LevelFile.Format.PLAIN));
+        assertEquals(a.getNodes(), b.getNodes());
+        assertFalse(Arrays.equals(a.toLevelFile(LevelFile.Format.PLAIN), c.toLevelFile(LevelFile.Format.PLAIN)));
+    }
+
+    /**
+     * Tests that generated levels are written as level files which load, and are solved within the requested number
+     * of pushes.
+     */
+    @Test
+    void testLevelsLoadAndSolve() throws Exception {
+        LevelGenerator generator = new LevelGenerator(10, 12, 3, 10, 60);
+        Path dir = Files.createTempDirectory("generator-test");
+        Path file = dir.resolve("gen-0001.txt");
+        try {
+            for (long seed = 0; seed < 20; ++seed) {
+                GeneratedLevel level = generator.generate(seed);
+                assertNotNull(level);
+                assertEquals(10, level.getRows());
+                assertEquals(12, level.getCols());
+                assertTrue(level.getPushes() >= 10 && level.getPushes() <= 60);
+
+                LevelFile.write(file, level.toLevelFile(seed % 2 == 0 ? LevelFile.Format.PLAIN : LevelFile.Format.RLE));
+                GameLevel loaded = new GameLevel();
+                loaded.loadMap(file.toString());
+                assertEquals(3, loaded.getMap().getCrates().size());
+                assertEquals(3, loaded.getMap().getNumDestTiles());
+                assertFalse(loaded.isWin());
+
+                SolverResult result = SolverType.ASTAR.create(Board.fromMap(loaded.getMap())).solve();
+                assertEquals(SolverResult.Status.SOLVED, result.getStatus());
+                assertEquals(level.getPushes(), result.getPushes());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.delete(dir);
+        }
+    }
+}
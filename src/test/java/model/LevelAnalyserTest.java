@@ -0,0 +1,119 @@
+package model;
+
+import model.Solver.SolverResult;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LevelAnalyserTest {
+    private static final List<String> LEVELS = Arrays.asList("01-easy.txt", "05-normal.txt", "00-invalid.txt");
+
+    /**
+     * Copies some of the bundled levels into a new directory.
+     */
+    private static Path copyLevels() throws Exception {
+        Path dir = Files.createTempDirectory("analyser-test");
+        for (String name : LEVELS) {
+            Files.copy(BundledMaps.path(name), dir.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return dir;
+    }
+
+    private static void delete(Path dir) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path f : (Iterable<Path>) files::iterator) {
+                Files.delete(f);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    /**
+     * Waits until the given number of levels have been published.
+     */
+    private static void await(Map<String, LevelMetrics> published, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30000;
+        while (published.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, published.size());
+    }
+
+    /**
+     * Tests that levels are analysed in the background, that invalid levels are left out, and that a saved index
+     * gives the same metrics right away, until a level file changes.
+     */
+    @Test
+    void testAnalyseAndCache() throws Exception {
+        Path dir = copyLevels();
+        Path indexFile = dir.resolve("index.tsv");
+        try {
+            Map<String, LevelMetrics> published = new ConcurrentHashMap<>();
+            LevelAnalyser analyser = new LevelAnalyser(new LevelIndex(indexFile), Runnable::run, 30000);
+            analyser.start(dir, LEVELS, published::put);
+            await(published, 2);
+            Thread.sleep(200);
+            assertFalse(published.containsKey("00-invalid.txt"));
+
+            LevelMetrics easy = published.get("01-easy.txt");
+            assertEquals(SolverResult.Status.SOLVED, easy.getStatus());
+            assertEquals(4, easy.getNumCrates());
+            assertTrue(easy.getPushes() > 0);
+            assertTrue(easy.getNodes() > 0);
+            assertTrue(easy.getDeadSquareRatio() > 0 && easy.getDeadSquareRatio() < 1);
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!Files.exists(indexFile) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            // every valid level is in the saved index, so all of them are published before start returns
+            Map<String, LevelMetrics> cached = new ConcurrentHashMap<>();
+            LevelAnalyser reloaded = new LevelAnalyser(new LevelIndex(indexFile), Runnable::run, 30000);
+            reloaded.start(dir, Arrays.asList("01-easy.txt", "05-normal.txt"), cached::put);
+            assertEquals(2, cached.size());
+            assertEquals(easy.getPushes(), cached.get("01-easy.txt").getPushes());
+            assertEquals(easy.getNodes(), cached.get("01-easy.txt").getNodes());
+            assertEquals(published.get("05-normal.txt").getPushes(), cached.get("05-normal.txt").getPushes());
+
+            Path changed = dir.resolve("01-easy.txt");
+            Files.setLastModifiedTime(changed, FileTime.fromMillis(Files.getLastModifiedTime(changed).toMillis() + 5000));
+            assertNull(reloaded.getIndex().get(changed));
+            assertNotNull(reloaded.getIndex().get(dir.resolve("05-normal.txt")));
+        } finally {
+            delete(dir);
+        }
+    }
+
+    /**
+     * Tests that a level which cannot be solved in time is published as timed out, but not stored, so that it is
+     * analysed again later.
+     */
+    @Test
+    void testTimeout() throws Exception {
+        Path dir = Files.createTempDirectory("analyser-test");
+        try {
+            Files.copy(BundledMaps.path("13-extreme.txt"), dir.resolve("13-extreme.txt"));
+
+            Map<String, LevelMetrics> published = new ConcurrentHashMap<>();
+            LevelIndex index = new LevelIndex();
+            new LevelAnalyser(index, Runnable::run, 1).start(dir, Arrays.asList("13-extreme.txt"), published::put);
+            await(published, 1);
+            assertEquals(SolverResult.Status.CANCELLED, published.get("13-extreme.txt").getStatus());
+            assertEquals(-1, published.get("13-extreme.txt").getPushes());
+            assertNull(index.get(dir.resolve("13-extreme.txt")));
+        } finally {
+            delete(dir);
+        }
+    }
+}
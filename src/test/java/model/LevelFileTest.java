@@ -0,0 +1,111 @@
+package model;
+
+import model.Exceptions.InvalidMapException;
+import model.Exceptions.InvalidMapSizeException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LevelFileTest {
+    private static final String[] ROWS = {
+            "#######",
+            "#.....#",
+            "#.@cC.#",
+            "#.....#",
+            "#######"
+    };
+
+    /**
+     * @return The contents of {@link #ROWS} encoded in the given format.
+     */
+    private static byte[] encode(LevelFile.Format format) {
+        return LevelFile.encode(ROWS.length, ROWS[0].length(), (r, c) -> ROWS[r].charAt(c), format);
+    }
+
+    /**
+     * @return Class of the occupant of a cell, or {@code null} if it has none.
+     */
+    private static Class<?> occupantClass(GameLevel level, int r, int c) {
+        Object o = level.getMap().getOccupant(r, c);
+        return o == null ? null : o.getClass();
+    }
+
+    /**
+     * Tests that rows in either format are decoded into the cells they were encoded from, and that the run-length
+     * encoded format is shorter for rows with long runs.
+     */
+    @Test
+    void testRoundTrip() throws Exception {
+        String plain = new String(encode(LevelFile.Format.PLAIN), StandardCharsets.US_ASCII);
+        String rle = new String(encode(LevelFile.Format.RLE), StandardCharsets.US_ASCII);
+        assertEquals("5\n7\n" + String.join("\n", ROWS) + "\n", plain);
+        assertEquals("5\n7\n7#\n#5.#\n#.@cC.#\n#5.#\n7#\n", rle);
+
+        for (String text : new String[]{plain, rle}) {
+            String[] lines = text.split("\n");
+            for (int r = 0; r < ROWS.length; ++r) {
+                char[] row = new char[ROWS[r].length()];
+                LevelFile.decodeRow(lines[r + 2], r, row);
+                assertEquals(ROWS[r], new String(row));
+            }
+        }
+
+        char[] row = new char[12];
+        LevelFile.decodeRow("12#", 0, row);
+        assertEquals("############", new String(row));
+    }
+
+    /**
+     * Tests that short rows and rows ending with a count are rejected, and extra cells ignored.
+     */
+    @Test
+    void testDecodeInvalid() throws Exception {
+        assertThrows(InvalidMapSizeException.class, () -> LevelFile.decodeRow("#5.", 0, new char[7]));
+        assertThrows(InvalidMapException.class, () -> LevelFile.decodeRow("#5", 0, new char[7]));
+
+        char[] row = new char[3];
+        LevelFile.decodeRow("#9.#", 0, row);
+        assertEquals("#..", new String(row));
+    }
+
+    /**
+     * Tests that a written run-length encoded file replaces the old one, leaves no temporary file behind, and is
+     * loaded by {@link GameLevel} the same as the plain file.
+     */
+    @Test
+    void testWriteAndLoad() throws Exception {
+        Path dir = Files.createTempDirectory("level-file-test");
+        Path path = dir.resolve("level.txt");
+        try {
+            Files.write(path, "old".getBytes(StandardCharsets.US_ASCII));
+            LevelFile.write(path, encode(LevelFile.Format.RLE));
+            try (Stream<Path> files = Files.list(dir)) {
+                assertEquals(1, files.count());
+            }
+
+            GameLevel rle = new GameLevel();
+            rle.loadMap(path.toString());
+            LevelFile.write(path, encode(LevelFile.Format.PLAIN));
+            GameLevel plain = new GameLevel();
+            plain.loadMap(path.toString());
+
+            assertEquals(plain.getMap().getRows(), rle.getMap().getRows());
+            assertEquals(plain.getMap().getCols(), rle.getMap().getCols());
+            for (int r = 0; r < ROWS.length; ++r) {
+                for (int c = 0; c < ROWS[r].length(); ++c) {
+                    assertEquals(plain.getMap().isWall(r, c), rle.getMap().isWall(r, c));
+                    assertEquals(plain.getMap().isDest(r, c), rle.getMap().isDest(r, c));
+                    assertEquals(occupantClass(plain, r, c), occupantClass(rle, r, c));
+                }
+            }
+        } finally {
+            Files.deleteIfExists(path);
+            Files.delete(dir);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package model.Map;
+
+import model.BundledMaps;
+import model.GameLevel;
+import model.Map.Occupiable.Occupiable;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MapTest {
+    /**
+     * Keys of {@link GameLevel#makeMove(char)}, in the order of {@link Map.Direction}.
+     */
+    private static final char[] KEYS = {'w', 's', 'a', 'd'};
+
+    /**
+     * @return Occupant of every cell of the map, by class name.
+     */
+    private static String[][] occupants(Map map) {
+        Cell[][] cells = map.getCells();
+        String[][] occupants = new String[cells.length][cells[0].length];
+        for (int r = 0; r < cells.length; ++r) {
+            for (int c = 0; c < cells[r].length; ++c) {
+                occupants[r][c] = cells[r][c] instanceof Occupiable
+                        ? ((Occupiable) cells[r][c]).getOccupant().map(o -> o.getClass().getSimpleName()).orElse("")
+                        : "Wall";
+            }
+        }
+        return occupants;
+    }
+
+    /**
+     * Tests that resetting after random moves and undos gives the same map as loading it again.
+     */
+    @Test
+    void testReset() throws Exception {
+        String path = BundledMaps.path("08-normal.txt").toString();
+
+        GameLevel level = new GameLevel();
+        level.loadMap(path);
+        Map map = level.getMap();
+        Cell[][] cells = map.getCells();
+        String[][] initial = occupants(map);
+
+        Random random = new Random(3021);
+        for (int round = 0; round < 5; ++round) {
+            for (int i = 0; i < 300; ++i) {
+                Map.Direction d = Map.Direction.values()[random.nextInt(4)];
+                map.getHistory().save(d);
+                if (!level.makeMove(KEYS[d.ordinal()])) {
+                    map.getHistory().pop();
+                } else if (random.nextInt(5) == 0) {
+                    map.getHistory().restore();
+                }
+            }
+
+            level.reset();
+            assertArrayEquals(initial, occupants(map));
+            assertSame(cells, map.getCells());
+            assertTrue(map.getHistory().isEmpty());
+            assertEquals(0, level.numPushesProperty().get());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package model.Replay;
+
+import model.BundledMaps;
+import model.Exceptions.InvalidReplayException;
+import model.GameLevel;
+import model.Map.Map;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayTest {
+    /**
+     * @return Positions of the player and all crates, for comparing two maps.
+     */
+    private static List<String> positions(Map map) {
+        List<String> positions = map.getCrates().stream()
+                .map(c -> c.getR() + "," + c.getC())
+                .sorted()
+                .collect(Collectors.toList());
+        positions.add(0, map.getPlayer().getR() + "," + map.getPlayer().getC());
+        return positions;
+    }
+
+    /**
+     * Tests that replays survive a round trip through their text form.
+     */
+    @Test
+    void testParse() throws Exception {
+        ReplayRecorder recorder = new ReplayRecorder();
+        recorder.start(1000);
+        recorder.record(Map.Direction.UP, false, 1200);
+        recorder.record(Map.Direction.LEFT, true, 1500);
+        recorder.record(Map.Direction.DOWN, false, 1500);
+        recorder.record(Map.Direction.RIGHT, true, 2000);
+        recorder.undo();
+
+        Replay replay = recorder.toReplay();
+        assertEquals("1000 uLd 200,300,0", replay.toString());
+        assertEquals(1, replay.getNumPushes());
+
+        Replay parsed = Replay.parse(replay.toString());
+        assertEquals(replay.toString(), parsed.toString());
+        assertEquals(500, parsed.getTime(2));
+
+        assertEquals("5  ", Replay.parse("5  ").toString());
+        assertThrows(InvalidReplayException.class, () -> Replay.parse("0 uLx 1,2,3"));
+        assertThrows(InvalidReplayException.class, () -> Replay.parse("0 uL 1"));
+        assertThrows(InvalidReplayException.class, () -> Replay.parse("0 uL 1,-2"));
+        assertThrows(InvalidReplayException.class, () -> Replay.parse("zero u 1"));
+    }
+
+    /**
+     * Tests that a recorded random walk replays into the same position, and that moves with the wrong push flag or
+     * into walls are reported.
+     */
+    @Test
+    void testRecordAndPlay() throws Exception {
+        GameLevel level = BundledMaps.load("08-normal.txt");
+        ReplayRecorder recorder = new ReplayRecorder();
+        recorder.start(0);
+
+        Random random = new Random(3021);
+        for (int i = 0; i < 2000; ++i) {
+            Map.Direction d = Map.Direction.values()[random.nextInt(4)];
+            boolean push = Lurd.isPush(level.getMap(), d);
+            if (level.getMap().movePlayer(d)) {
+                recorder.record(d, push, i);
+            }
+        }
+        Replay replay = recorder.toReplay();
+        assertTrue(replay.size() > 0);
+        assertTrue(replay.getNumPushes() > 0);
+
+        GameLevel replayed = BundledMaps.load("08-normal.txt");
+        assertEquals(replay.size(), ReplayPlayer.play(replayed, replay));
+        assertEquals(positions(level.getMap()), positions(replayed.getMap()));
+        assertEquals(replay.size(), replayed.numPushesProperty().get());
+
+        int firstPush = 0;
+        while (!Lurd.isPush(replay.getMoves().charAt(firstPush))) {
+            ++firstPush;
+        }
+        String flipped = replay.getMoves().substring(0, firstPush)
+                + Character.toLowerCase(replay.getMoves().charAt(firstPush));
+        assertEquals(firstPush, ReplayPlayer.play(BundledMaps.load("08-normal.txt"), flipped));
+        assertEquals(0, ReplayPlayer.play(BundledMaps.load("01-easy.txt"), "rr"));
+    }
+
+    /**
+     * Tests that replays are appended to a file next to the level and read back in order.
+     */
+    @Test
+    void testReplayFile() throws Exception {
+        Path dir = Files.createTempDirectory("replay-test");
+        Path level = dir.resolve("01-easy.txt");
+        try {
+            assertEquals(dir.resolve("01-easy.lurd"), ReplayFile.pathOf(level));
+            assertTrue(ReplayFile.readAll(level).isEmpty());
+
+            ReplayFile.append(level, Replay.parse("1 uL 5,6"));
+            ReplayFile.append(level, Replay.parse("2 d 7"));
+
+            List<Replay> replays = ReplayFile.readAll(level);
+            assertEquals(2, replays.size());
+            assertEquals("1 uL 5,6", replays.get(0).toString());
+            assertEquals("2 d 7", replays.get(1).toString());
+        } finally {
+            Files.deleteIfExists(ReplayFile.pathOf(level));
+            Files.delete(dir);
+        }
+    }
+}
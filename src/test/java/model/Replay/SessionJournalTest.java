@@ -0,0 +1,104 @@
+package model.Replay;
+
+import model.Map.Map;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionJournalTest {
+    /**
+     * Tests that moves, undos and status updates are read back as the session they describe, and that ended sessions
+     * and records cut short are not resumed.
+     */
+    @Test
+    void testReadBack() throws Exception {
+        Path dir = Files.createTempDirectory("journal-test");
+        Path path = dir.resolve("session.journal");
+        Path level = Paths.get("maps", "01-easy.txt").toAbsolutePath();
+        try {
+            assertNull(SessionJournal.read(path));
+
+            try (SessionJournal journal = new SessionJournal(path)) {
+                journal.begin(level, 2);
+                journal.record(Map.Direction.DOWN, false);
+                journal.record(Map.Direction.UP, true);
+                journal.undo();
+                journal.status(5, 2);
+                journal.sync();
+                journal.record(Map.Direction.LEFT, true);
+            }
+
+            SessionJournal.Session session = SessionJournal.read(path);
+            assertNotNull(session);
+            assertEquals(level, session.getLevelFile());
+            assertEquals("dL", session.getMoves());
+            assertEquals(5, session.getElapsedSeconds());
+            assertEquals(2, session.getNumRestarts());
+
+            Files.write(path, "M rr".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+            assertEquals("dL", SessionJournal.read(path).getMoves());
+
+            try (SessionJournal journal = new SessionJournal(path)) {
+                journal.end();
+                assertNotNull(SessionJournal.read(path));
+                journal.sync();
+                assertNull(SessionJournal.read(path));
+
+                journal.begin(level, 0);
+                journal.sync();
+                assertEquals("", SessionJournal.read(path).getMoves());
+                assertEquals(0, SessionJournal.read(path).getNumRestarts());
+            }
+        } finally {
+            Files.deleteIfExists(path);
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * Tests that a long session, synced in batches with undos in between, is read back with every undo applied.
+     */
+    @Test
+    void testLongSession() throws Exception {
+        Path dir = Files.createTempDirectory("journal-test");
+        Path path = dir.resolve("session.journal");
+        try {
+            StringBuilder expected = new StringBuilder();
+            Random random = new Random(3021);
+
+            try (SessionJournal journal = new SessionJournal(path)) {
+                journal.begin(Paths.get("level.txt").toAbsolutePath(), 0);
+                for (int i = 0; i < 100000; ++i) {
+                    if (expected.length() != 0 && random.nextInt(10) == 0) {
+                        journal.undo();
+                        expected.setLength(expected.length() - 1);
+                    } else {
+                        Map.Direction d = Map.Direction.values()[random.nextInt(4)];
+                        boolean push = random.nextBoolean();
+                        journal.record(d, push);
+                        expected.append(Lurd.toChar(d, push));
+                    }
+                    if (i % 1000 == 0) {
+                        journal.status(i / 1000, 0);
+                        journal.sync();
+                    }
+                }
+            }
+
+            SessionJournal.Session session = SessionJournal.read(path);
+            assertNotNull(session);
+            assertEquals(expected.toString(), session.getMoves());
+            assertEquals(99, session.getElapsedSeconds());
+        } finally {
+            Files.deleteIfExists(path);
+            Files.delete(dir);
+        }
+    }
+}
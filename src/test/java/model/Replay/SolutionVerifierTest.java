@@ -0,0 +1,87 @@
+package model.Replay;
+
+import model.BundledMaps;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SolutionVerifierTest {
+    private static final String EASY_01 = "DuLLrUUdrR";
+    private static final String EASY_03 = "DrDrddLLrruulDLdRuuulDDuuuurDDDD";
+
+    /**
+     * Tests the verdicts of a single valid, incomplete, illegal and unloadable submission each.
+     */
+    @Test
+    void testVerify() throws Exception {
+        SolutionVerifier verifier = new SolutionVerifier(1);
+        Path easy = BundledMaps.path("01-easy.txt");
+
+        SolutionVerifier.Verdict solved = verifier.verify(new SolutionVerifier.Submission(easy, EASY_01));
+        assertEquals(SolutionVerifier.Verdict.Status.SOLVED, solved.getStatus());
+        assertEquals(10, solved.getMoves());
+        assertEquals(6, solved.getPushes());
+        assertEquals(-1, solved.getFirstIllegalMove());
+
+        SolutionVerifier.Verdict partial = verifier.verify(new SolutionVerifier.Submission(easy, "DuLL"));
+        assertEquals(SolutionVerifier.Verdict.Status.NOT_SOLVED, partial.getStatus());
+        assertEquals(3, partial.getPushes());
+
+        // the 'u' is a push in the real solution, and 'x' is not a move at all
+        SolutionVerifier.Verdict wrongCase = verifier.verify(new SolutionVerifier.Submission(easy, "DuLLruUdrR"));
+        assertEquals(SolutionVerifier.Verdict.Status.ILLEGAL_MOVE, wrongCase.getStatus());
+        assertEquals(5, wrongCase.getFirstIllegalMove());
+        SolutionVerifier.Verdict unknown = verifier.verify(new SolutionVerifier.Submission(easy, "Dx"));
+        assertEquals(1, unknown.getFirstIllegalMove());
+
+        SolutionVerifier.Verdict invalid = verifier.verify(new SolutionVerifier.Submission(BundledMaps.path("00-invalid.txt"), ""));
+        assertEquals(SolutionVerifier.Verdict.Status.INVALID_LEVEL, invalid.getStatus());
+        assertNotNull(invalid.getError());
+    }
+
+    /**
+     * Tests that a large interleaved batch gets the same verdicts as verifying each submission on a fresh verifier,
+     * so rewinding levels between submissions leaves nothing behind.
+     */
+    @Test
+    void testVerifyAll() throws Exception {
+        Path easy1 = BundledMaps.path("01-easy.txt");
+        Path easy3 = BundledMaps.path("03-easy.txt");
+
+        List<SolutionVerifier.Submission> batch = new ArrayList<>();
+        for (int i = 0; i < 500; ++i) {
+            switch (i % 4) {
+                case 0:
+                    batch.add(new SolutionVerifier.Submission(easy1, EASY_01));
+                    break;
+                case 1:
+                    batch.add(new SolutionVerifier.Submission(easy3, EASY_03));
+                    break;
+                case 2:
+                    batch.add(new SolutionVerifier.Submission(easy3, EASY_03.substring(0, i % EASY_03.length())));
+                    break;
+                default:
+                    batch.add(new SolutionVerifier.Submission(easy1, EASY_01.substring(0, 4) + "rrr"));
+                    break;
+            }
+        }
+
+        List<SolutionVerifier.Verdict> verdicts = new SolutionVerifier(4).verifyAll(batch);
+        assertEquals(batch.size(), verdicts.size());
+        for (int i = 0; i < batch.size(); ++i) {
+            SolutionVerifier.Verdict expected = new SolutionVerifier(1).verify(batch.get(i));
+            SolutionVerifier.Verdict actual = verdicts.get(i);
+
+            assertSame(batch.get(i), actual.getSubmission());
+            assertEquals(expected.getStatus(), actual.getStatus());
+            assertEquals(expected.getMoves(), actual.getMoves());
+            assertEquals(expected.getPushes(), actual.getPushes());
+        }
+        assertEquals(SolutionVerifier.Verdict.Status.SOLVED, verdicts.get(1).getStatus());
+        assertEquals(SolutionVerifier.Verdict.Status.ILLEGAL_MOVE, verdicts.get(3).getStatus());
+    }
+}
@@ -0,0 +1,535 @@
+package model.Solver;
+
+import model.BundledMaps;
+import model.Exceptions.InvalidMapException;
+import model.GameLevel;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the solvers in {@link model.Solver}.
+ */
+public class SolverTest {
+    /**
+     * Loads one of the bundled maps.
+     *
+     * @param name File name of the map, e.g. "01-easy.txt"
+     * @return Board of the map.
+     */
+    static Board loadBundledBoard(String name) throws URISyntaxException, FileNotFoundException, InvalidMapException {
+        return Board.fromMap(BundledMaps.load(name).getMap());
+    }
+
+    /**
+     * Creates a board from map rows.
+     *
+     * @param rows Rows of the map, in the map file format
+     * @return Board of the map.
+     */
+    static Board loadBoard(String... rows) throws IOException, InvalidMapException {
+        Path f = Files.createTempFile("solver", ".txt");
+        try {
+            Files.write(f, Arrays.asList(String.valueOf(rows.length), String.valueOf(rows[0].length()), String.join("\n", rows)));
+
+            GameLevel level = new GameLevel();
+            level.loadMap(f.toString());
+            return Board.fromMap(level.getMap());
+        } finally {
+            Files.delete(f);
+        }
+    }
+
+    /**
+     * Tests that the breadth-first solver finds the minimum number of pushes.
+     */
+    @Test
+    void testBfsSolvesBundledMaps() throws Exception {
+        SolverResult r = new BfsSolver(loadBundledBoard("01-easy.txt")).solve();
+        assertEquals(SolverResult.Status.SOLVED, r.getStatus());
+        assertEquals(6, r.getPushes());
+
+        r = new BfsSolver(loadBundledBoard("03-easy.txt")).solve();
+        assertEquals(SolverResult.Status.SOLVED, r.getStatus());
+        assertEquals(13, r.getPushes());
+    }
+
+    /**
+     * Tests that a level with a crate stuck in a corner is reported as unsolvable.
+     */
+    @Test
+    void testBfsReportsUnsolvable() throws Exception {
+        Board b = loadBoard(
+                "#####",
+                "#c..#",
+                "#.@C#",
+                "#####"
+        );
+        assertTrue(b.isDead(b.toIndex(1, 1)));
+
+        SolverResult r = new BfsSolver(b).solve();
+        assertEquals(SolverResult.Status.UNSOLVABLE, r.getStatus());
+        assertEquals(-1, r.getPushes());
+    }
+
+    /**
+     * Tests that the parallel solver agrees with the sequential solver, and reports nodes of every thread.
+     */
+    @Test
+    void testParallelMatchesBfs() throws Exception {
+        for (String name : Arrays.asList("02-easy.txt", "08-normal.txt", "13-extreme.txt")) {
+            Board b = loadBundledBoard(name);
+
+            SolverResult expected = new BfsSolver(b).solve();
+            SolverResult actual = new ParallelSolver(b, 4).solve();
+
+            assertEquals(expected.getStatus(), actual.getStatus(), name);
+            assertEquals(expected.getPushes(), actual.getPushes(), name);
+            assertFalse(actual.getNodesPerThread().isEmpty());
+            assertEquals(actual.getNodes(), actual.getNodesPerThread().values().stream().mapToLong(Long::longValue).sum());
+        }
+    }
+
+    /**
+     * Tests that the bidirectional solver agrees with the sequential solver, and reports where the searches met.
+     */
+    @Test
+    void testBidirectionalMatchesBfs() throws Exception {
+        for (String name : Arrays.asList("04-easy.txt", "11-hard.txt", "14-impossible.txt")) {
+            Board b = loadBundledBoard(name);
+
+            SolverResult expected = new BfsSolver(b).solve();
+            BidirectionalSolver solver = new BidirectionalSolver(b);
+            SolverResult actual = solver.solve();
+
+            assertEquals(expected.getStatus(), actual.getStatus(), name);
+            assertEquals(expected.getPushes(), actual.getPushes(), name);
+            assertNotNull(solver.getMeetingSide(), name);
+            assertEquals(actual.getStates(), solver.getForwardStates() + solver.getBackwardStates());
+        }
+    }
+
+    /**
+     * Tests that the bidirectional solver detects unsolvable levels.
+     */
+    @Test
+    void testBidirectionalReportsUnsolvable() throws Exception {
+        BidirectionalSolver solver = new BidirectionalSolver(loadBoard(
+                "#####",
+                "#c..#",
+                "#.@C#",
+                "#####"
+        ));
+
+        assertEquals(SolverResult.Status.UNSOLVABLE, solver.solve().getStatus());
+        assertNull(solver.getMeetingSide());
+    }
+
+    /**
+     * Tests that the A* solver agrees with the sequential solver.
+     */
+    @Test
+    void testAStarMatchesBfs() throws Exception {
+        for (String name : Arrays.asList("05-normal.txt", "10-hard.txt", "13-extreme.txt")) {
+            Board b = loadBundledBoard(name);
+
+            SolverResult expected = new BfsSolver(b).solve();
+            SolverResult actual = new AStarSolver(b).solve();
+
+            assertEquals(expected.getStatus(), actual.getStatus(), name);
+            assertEquals(expected.getPushes(), actual.getPushes(), name);
+            assertTrue(actual.getNodes() <= expected.getNodes(), name);
+        }
+    }
+
+    /**
+     * Tests that the IDA* solver agrees with the sequential solver, even with a tiny transposition table, and reports
+     * increasing thresholds ending at the solution.
+     */
+    @Test
+    void testIdaStarMatchesBfs() throws Exception {
+        for (String name : Arrays.asList("05-normal.txt", "08-normal.txt", "12-hard.txt")) {
+            Board b = loadBundledBoard(name);
+            SolverResult expected = new BfsSolver(b).solve();
+
+            for (int tableSize : new int[]{16, IdaStarSolver.DEFAULT_TABLE_SIZE}) {
+                IdaStarSolver solver = new IdaStarSolver(b, new GoalDistances(b), tableSize);
+                SolverResult actual = solver.solve();
+
+                assertEquals(expected.getStatus(), actual.getStatus(), name);
+                assertEquals(expected.getPushes(), actual.getPushes(), name);
+                assertTrue(actual.getStates() <= tableSize, name);
+
+                List<Integer> thresholds = solver.getThresholds();
+                assertEquals(solver.getIterations(), thresholds.size(), name);
+                assertEquals(expected.getPushes(), (int) thresholds.get(thresholds.size() - 1), name);
+                for (int i = 1; i < thresholds.size(); ++i) {
+                    assertTrue(thresholds.get(i - 1) < thresholds.get(i), name);
+                }
+            }
+        }
+
+        assertEquals(SolverResult.Status.UNSOLVABLE, new IdaStarSolver(loadBoard(
+                "######",
+                "#@c.C#",
+                "#..#.#",
+                "#cC#.#",
+                "######"
+        )).solve().getStatus());
+        Board easy = loadBundledBoard("01-easy.txt");
+        assertThrows(IllegalArgumentException.class, () -> new IdaStarSolver(easy, new GoalDistances(easy), 100));
+    }
+
+    /**
+     * Tests that pushing crates through tunnels as single moves finds the same solution with fewer nodes.
+     */
+    @Test
+    void testTunnelMacros() throws Exception {
+        Board corridor = loadBoard(
+                "#########",
+                "#@c....C#",
+                "#########"
+        );
+        AStarSolver solver = new AStarSolver(corridor);
+        SolverResult r = solver.solve();
+        assertEquals(5, r.getPushes());
+        assertEquals(1, r.getNodes());
+        assertEquals(1, solver.getGenerated());
+
+        Board b = loadBundledBoard("14-impossible.txt");
+        AStarSolver plain = new AStarSolver(b);
+        plain.setTunnelMacros(false);
+        SolverResult expected = plain.solve();
+        SolverResult actual = new AStarSolver(b).solve();
+        assertEquals(expected.getPushes(), actual.getPushes());
+        assertTrue(actual.getNodes() < expected.getNodes());
+    }
+
+    /**
+     * Tests that symmetries are found regardless of outer walls and crates, and that searching only canonical states
+     * stores fewer states but finds the same solution.
+     */
+    @Test
+    void testSymmetryReduction() throws Exception {
+        Board cross = loadBoard(
+                "##########",
+                "##.......#",
+                "##.C...C.#",
+                "##..c.c..#",
+                "##...@...#",
+                "##..c..c.#",
+                "##.C...C.#",
+                "##.......#",
+                "##########"
+        );
+        assertEquals(8, new BoardSymmetry(cross).getOrder());
+        assertEquals(1, new BoardSymmetry(loadBundledBoard("05-normal.txt")).getOrder());
+
+        SolverResult full = new BfsSolver(cross, new PackedVisitedSet(new StateCodec(cross))).solve();
+        SolverResult reduced = new BfsSolver(cross).solve();
+        assertEquals(SolverResult.Status.SOLVED, reduced.getStatus());
+        assertEquals(full.getPushes(), reduced.getPushes());
+        assertTrue(reduced.getStates() * 4 < full.getStates());
+
+        GoalDistances distances = new GoalDistances(cross);
+        SolverResult astar = new AStarSolver(cross, distances, true).solve();
+        assertEquals(full.getPushes(), astar.getPushes());
+        assertEquals(full.getPushes(), new AStarSolver(cross, distances, false).solve().getPushes());
+    }
+
+    /**
+     * Tests that moving a single crate in {@link MatchingHeuristic} gives the same value as solving from scratch, also
+     * after restoring an earlier snapshot.
+     */
+    @Test
+    void testMatchingHeuristicIncrementalUpdate() throws Exception {
+        Board b = loadBundledBoard("08-normal.txt");
+        GoalDistances distances = new GoalDistances(b);
+        MatchingHeuristic incremental = new MatchingHeuristic(distances);
+        MatchingHeuristic scratch = new MatchingHeuristic(distances);
+
+        List<Integer> floor = new ArrayList<>();
+        for (int i = 0; i < b.size(); ++i) {
+            if (b.isFloor(i) && !b.isDead(i)) {
+                floor.add(i);
+            }
+        }
+
+        Random random = new Random(3021);
+        Collections.shuffle(floor, random);
+        int[] crates = new int[b.getNumGoals()];
+        for (int i = 0; i < crates.length; ++i) {
+            crates[i] = floor.get(i);
+        }
+        assertEquals(scratch.reset(crates), incremental.reset(crates));
+        MatchingHeuristic.Snapshot snapshot = incremental.snapshot();
+        int[] snapshotCrates = crates.clone();
+
+        for (int i = 0; i < 500; ++i) {
+            if (i % 50 == 49) {
+                // go back to the last snapshot, and take a new one there
+                assertEquals(scratch.reset(snapshotCrates), incremental.restore(snapshot));
+                for (int c = 0; c < crates.length; ++c) {
+                    Collections.swap(floor, c, floor.indexOf(snapshotCrates[c]));
+                }
+                crates = snapshotCrates.clone();
+                snapshot = incremental.snapshot();
+            } else if (i % 10 == 0) {
+                snapshot = incremental.snapshot();
+                snapshotCrates = crates.clone();
+            }
+
+            int crate = random.nextInt(crates.length);
+            int target = floor.get(crates.length + random.nextInt(floor.size() - crates.length));
+            Collections.swap(floor, floor.indexOf(crates[crate]), floor.indexOf(target));
+
+            int actual = incremental.moveCrate(crates[crate], target);
+            crates[crate] = target;
+            assertEquals(scratch.reset(crates), actual);
+        }
+    }
+
+    /**
+     * Tests that {@link MatchingHeuristic} reports a deadlock when a crate cannot reach any destination.
+     */
+    @Test
+    void testMatchingHeuristicDeadlock() throws Exception {
+        Board b = loadBoard(
+                "######",
+                "#c...#",
+                "#.@cC#",
+                "#...C#",
+                "######"
+        );
+        MatchingHeuristic h = new MatchingHeuristic(new GoalDistances(b));
+
+        assertEquals(MatchingHeuristic.INFINITY, h.reset(b.getInitialState().getCrates()));
+        assertTrue(h.isDeadlocked());
+
+        // moving the cornered crate next to the destinations makes the position solvable again
+        assertEquals(4, h.moveCrate(b.toIndex(1, 1), b.toIndex(2, 2)));
+        assertFalse(h.isDeadlocked());
+    }
+
+    /**
+     * Tests that the external-memory solver agrees with the sequential solver when its memory budget forces many
+     * runs per layer, and that it cleans up its files.
+     */
+    @Test
+    void testExternalBfsMatchesBfs() throws Exception {
+        Path tempRoot = Files.createTempDirectory("solver-test");
+        try {
+            for (String name : Arrays.asList("02-easy.txt", "13-extreme.txt")) {
+                Board b = loadBundledBoard(name);
+
+                SolverResult expected = new BfsSolver(b).solve();
+                ExternalBfsSolver solver = new ExternalBfsSolver(b, tempRoot, 4 * 1024);
+                List<ExternalBfsSolver.LayerStats> reported = new ArrayList<>();
+                solver.setProgressListener(reported::add);
+                SolverResult actual = solver.solve();
+
+                assertEquals(expected.getStatus(), actual.getStatus(), name);
+                assertEquals(expected.getPushes(), actual.getPushes(), name);
+                assertEquals(reported, solver.getLayerStats());
+                assertTrue(reported.stream().anyMatch(it -> it.getRuns() > 1), name);
+                assertTrue(reported.stream().allMatch(it -> it.getBytesWritten() > 0), name);
+            }
+
+            SolverResult unsolvable = new ExternalBfsSolver(loadBoard(
+                    "#####",
+                    "#c..#",
+                    "#.@C#",
+                    "#####"
+            ), tempRoot, 4 * 1024).solve();
+            assertEquals(SolverResult.Status.UNSOLVABLE, unsolvable.getStatus());
+
+            try (Stream<Path> files = Files.list(tempRoot)) {
+                assertEquals(0, files.count());
+            }
+        } finally {
+            Files.delete(tempRoot);
+        }
+    }
+
+    /**
+     * Tests that every reachable state survives a round trip through {@link StateCodec}, and that
+     * {@link PackedVisitedSet} agrees with a set of {@link PackedState}s, for both crate formats.
+     */
+    @Test
+    void testPackedStateRoundTrip() throws Exception {
+        Board sparse = loadBoard(
+                "##########",
+                "#@.......#",
+                "#........#",
+                "#..C.....#",
+                "#........#",
+                "#......c.#",
+                "##########"
+        );
+        Board dense = loadBoard(
+                "#######",
+                "#.....#",
+                "#.CCC.#",
+                "#.C@C.#",
+                "#.ccc.#",
+                "#..cc.#",
+                "#######"
+        );
+        Set<Integer> formats = new HashSet<>();
+
+        for (Board b : Arrays.asList(loadBundledBoard("08-normal.txt"), sparse, dense)) {
+            StateCodec codec = new StateCodec(b);
+            PushGenerator generator = new PushGenerator(b);
+            PackedVisitedSet packedSet = new PackedVisitedSet(codec);
+            Set<PackedState> expectedSet = new HashSet<>();
+
+            Set<SearchState> seen = new HashSet<>();
+            List<SearchState> queue = new ArrayList<>(Collections.singletonList(b.getInitialState()));
+            seen.add(b.getInitialState());
+            for (int i = 0; i < queue.size(); ++i) {
+                SearchState s = queue.get(i);
+
+                PackedState packed = codec.pack(s);
+                assertTrue(packed.getBytes().length <= codec.getMaxPackedBytes());
+                assertEquals(s, codec.unpack(packed));
+                assertEquals(packed, PackedState.fromBytes(packed.getBytes()));
+                formats.add(packed.getBytes()[0] & 1);
+
+                assertTrue(packedSet.add(s));
+                assertFalse(packedSet.add(s));
+                assertTrue(expectedSet.add(packed));
+
+                List<SearchState> successors = new ArrayList<>();
+                generator.expand(s, successors);
+                for (SearchState succ : successors) {
+                    if (seen.add(succ)) {
+                        queue.add(succ);
+                    }
+                }
+            }
+
+            assertEquals(expectedSet.size(), packedSet.size());
+            assertTrue(packedSet.getBytesPerState() > 0);
+        }
+
+        assertEquals(new HashSet<>(Arrays.asList(0, 1)), formats);
+    }
+
+    /**
+     * Tests that both kinds of {@link OffHeapVisitedSet} store the same states as {@link PackedVisitedSet} through
+     * several table resizes, and that the mapped file is removed on close.
+     */
+    @Test
+    void testOffHeapVisitedSet() throws Exception {
+        Board b = loadBundledBoard("13-extreme.txt");
+        StateCodec codec = new StateCodec(b);
+        SolverResult expected = new BfsSolver(b, new PackedVisitedSet(codec)).solve();
+
+        Path dir = Files.createTempDirectory("solver-test");
+        try (OffHeapVisitedSet direct = new OffHeapVisitedSet(codec);
+             OffHeapVisitedSet mapped = new OffHeapVisitedSet(codec, dir)) {
+            for (OffHeapVisitedSet states : Arrays.asList(direct, mapped)) {
+                SolverResult actual = new BfsSolver(b, states).solve();
+                assertEquals(expected.getPushes(), actual.getPushes());
+                assertEquals(expected.getStates(), actual.getStates());
+                assertTrue(states.size() > 10_000);
+                assertFalse(states.add(b.getInitialState()));
+                assertTrue(states.getOffHeapBytes() > 0);
+            }
+            mapped.close();
+            try (Stream<Path> files = Files.list(dir)) {
+                assertEquals(0, files.count());
+            }
+        } finally {
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * Tests that a block of crates which cannot be moved is learned as a pattern, matched in other positions, and
+     * survives saving and loading.
+     */
+    @Test
+    void testDeadlockPatterns() throws Exception {
+        Board b = loadBoard(
+                "#######",
+                "#.....#",
+                "#.cc..#",
+                "#.cc@.#",
+                "#CCCC.#",
+                "#######"
+        );
+        int[] block = {b.toIndex(2, 2), b.toIndex(2, 3), b.toIndex(3, 2), b.toIndex(3, 3)};
+        Path dir = Files.createTempDirectory("solver-test");
+        Path file = dir.resolve(DeadlockPatterns.fileName(b));
+        try {
+            DeadlockPatterns patterns = new DeadlockPatterns(b, file);
+            assertFalse(patterns.matches(block, b.toIndex(1, 1)));
+            assertTrue(patterns.isDeadlocked(block, b.toIndex(1, 1)));
+            assertEquals(1, patterns.size());
+            patterns.save();
+
+            DeadlockPatterns loaded = new DeadlockPatterns(b, file);
+            assertEquals(1, loaded.size());
+            assertFalse(loaded.isModified());
+            // the same block with the player somewhere else in the room
+            assertTrue(loaded.matches(block, b.toIndex(4, 5)));
+        } finally {
+            Files.deleteIfExists(file);
+            Files.delete(dir);
+        }
+
+        for (String name : Arrays.asList("08-normal.txt", "10-hard.txt", "13-extreme.txt")) {
+            Board board = loadBundledBoard(name);
+            GoalDistances distances = new GoalDistances(board);
+            DeadlockPatterns patterns = new DeadlockPatterns(board);
+
+            SolverResult expected = new AStarSolver(board, distances).solve();
+            AStarSolver learning = new AStarSolver(board, distances);
+            learning.setDeadlockPatterns(patterns);
+            SolverResult learned = learning.solve();
+            AStarSolver warm = new AStarSolver(board, distances);
+            warm.setDeadlockPatterns(patterns);
+            SolverResult reused = warm.solve();
+
+            assertEquals(expected.getPushes(), learned.getPushes(), name);
+            assertEquals(expected.getPushes(), reused.getPushes(), name);
+            assertTrue(patterns.size() > 0, name);
+            assertTrue(reused.getNodes() < expected.getNodes(), name);
+        }
+    }
+
+    /**
+     * Tests that a cancelled solver stops without a result.
+     */
+    @Test
+    void testCancel() throws Exception {
+        Solver s = new ParallelSolver(loadBundledBoard("10-hard.txt"), 2);
+        s.cancel();
+
+        SolverResult r = s.solve();
+        assertEquals(SolverResult.Status.CANCELLED, r.getStatus());
+
+        s = new IdaStarSolver(loadBundledBoard("10-hard.txt"));
+        s.cancel();
+        assertEquals(SolverResult.Status.CANCELLED, s.solve().getStatus());
+
+        s = SolverType.EXTERNAL.create(loadBundledBoard("10-hard.txt"));
+        s.cancel();
+        assertEquals(SolverResult.Status.CANCELLED, s.solve().getStatus());
+    }
+}
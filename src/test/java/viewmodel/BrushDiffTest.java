@@ -0,0 +1,40 @@
+package viewmodel;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BrushDiffTest {
+    /**
+     * Tests that cells added in any order are merged into runs of neighbouring cells with the same brush.
+     */
+    @Test
+    void testRuns() {
+        BrushDiff.Builder builder = new BrushDiff.Builder();
+        for (int i = 99; i >= 10; --i) {
+            builder.add(i, i < 50 ? LevelEditorCanvas.Brush.TILE : LevelEditorCanvas.Brush.DEST);
+        }
+        builder.add(5, LevelEditorCanvas.Brush.WALL);
+        builder.add(3, LevelEditorCanvas.Brush.WALL);
+
+        BrushDiff diff = builder.build(1, 2);
+        assertTrue(builder.isEmpty());
+        assertEquals(92, diff.getNumCells());
+        assertEquals(1, diff.getPlayerRow());
+        assertEquals(2, diff.getPlayerCol());
+
+        assertEquals(4, diff.getNumRuns());
+        assertEquals(3, diff.getStart(0));
+        assertEquals(1, diff.getLength(0));
+        assertEquals(5, diff.getStart(1));
+        assertEquals(LevelEditorCanvas.Brush.WALL, diff.getBrush(1));
+        assertEquals(10, diff.getStart(2));
+        assertEquals(40, diff.getLength(2));
+        assertEquals(LevelEditorCanvas.Brush.TILE, diff.getBrush(2));
+        assertEquals(50, diff.getStart(3));
+        assertEquals(50, diff.getLength(3));
+        assertEquals(LevelEditorCanvas.Brush.DEST, diff.getBrush(3));
+
+        assertEquals(0, new BrushDiff.Builder().build(-1, -1).getNumRuns());
+    }
+}
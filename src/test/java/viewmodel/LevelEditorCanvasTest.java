@@ -11,6 +11,7 @@ import javafx.scene.control.ListView;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import model.LevelFile;
 import org.jetbrains.annotations.Nullable;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -203,10 +204,12 @@ public class LevelEditorCanvasTest extends ApplicationTest {
         // PLAYER_ON_TILE now on (2, 2)
 
         try {
-            Method m = LEVEL_EDITOR_CANVAS_CLAZZ.getDeclaredMethod("exportToFile", File.class);
+            Method encode = LEVEL_EDITOR_CANVAS_CLAZZ.getDeclaredMethod("encode", LevelFile.Format.class);
+            encode.setAccessible(true);
+            Method m = LEVEL_EDITOR_CANVAS_CLAZZ.getDeclaredMethod("exportToFile", File.class, byte[].class);
             m.setAccessible(true);
 
-            m.invoke(canvas, new File("output.txt"));
+            m.invoke(canvas, new File("output.txt"), encode.invoke(canvas, LevelFile.Format.PLAIN));
         } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
             fail();
         }
@@ -227,4 +230,126 @@ public class LevelEditorCanvasTest extends ApplicationTest {
             fail();
         }
     }
+
+    /**
+     * Tests that the counts of players, crates and destinations follow every change of a cell, and that the reason
+     * the map is invalid follows them.
+     */
+    @Test
+    void testValidationCounts() {
+        setBoardSize(3, 3);
+
+        final LevelEditorCanvas canvas = (LevelEditorCanvas) canvasNode;
+        assertEquals(0, canvas.numPlayersProperty().get());
+        assertEquals("Please create at least 1 crate and destination.", canvas.invalidReasonProperty().get());
+
+        interact(() -> {
+            canvas.setTile(LevelEditorCanvas.Brush.CRATE_ON_TILE, 0, 0);
+            canvas.setTile(LevelEditorCanvas.Brush.CRATE_ON_DEST, 32, 0);
+            canvas.setTile(LevelEditorCanvas.Brush.DEST, 64, 0);
+        });
+        assertEquals(2, canvas.numCratesProperty().get());
+        assertEquals(2, canvas.numDestsProperty().get());
+        assertEquals("Please add a player.", canvas.invalidReasonProperty().get());
+
+        interact(() -> {
+            canvas.setTile(LevelEditorCanvas.Brush.PLAYER_ON_TILE, 0, 32);
+            canvas.setTile(LevelEditorCanvas.Brush.PLAYER_ON_DEST, 32, 32);
+        });
+        assertEquals(1, canvas.numPlayersProperty().get());
+        assertEquals(3, canvas.numDestsProperty().get());
+        assertEquals("Imbalanced number of crates and destinations", canvas.invalidReasonProperty().get());
+
+        // painting over the player, then placing another, must not bring the old one back
+        interact(() -> {
+            canvas.setTile(LevelEditorCanvas.Brush.CRATE_ON_TILE, 32, 32);
+            canvas.setTile(LevelEditorCanvas.Brush.PLAYER_ON_TILE, 64, 64);
+        });
+        assertEquals(1, canvas.numPlayersProperty().get());
+        assertEquals(3, canvas.numCratesProperty().get());
+        assertEquals(2, canvas.numDestsProperty().get());
+
+        interact(() -> canvas.setTile(LevelEditorCanvas.Brush.WALL, 0, 0));
+        assertEquals(2, canvas.numCratesProperty().get());
+        assertEquals("", canvas.invalidReasonProperty().get());
+
+        setBoardSize(3, 3);
+        assertEquals(0, canvas.numCratesProperty().get());
+        assertEquals(0, canvas.numDestsProperty().get());
+    }
+
+    /**
+     * Tests that dragging paints every cell between the sampled mouse positions, and ignores positions outside the
+     * canvas.
+     */
+    @Test
+    void testDragTile() {
+        setBoardSize(5, 5);
+
+        final LevelEditorCanvas canvas = (LevelEditorCanvas) canvasNode;
+
+        interact(() -> {
+            canvas.setTile(LevelEditorCanvas.Brush.CRATE_ON_TILE, 0, 0);
+            canvas.dragTile(LevelEditorCanvas.Brush.CRATE_ON_TILE, 4 * 32 + 16, 0);
+            canvas.dragTile(LevelEditorCanvas.Brush.CRATE_ON_TILE, 6 * 32, 0);
+            canvas.dragTile(LevelEditorCanvas.Brush.CRATE_ON_TILE, -5, 0);
+        });
+        assertEquals(5, canvas.numCratesProperty().get());
+
+        interact(() -> {
+            canvas.setTile(LevelEditorCanvas.Brush.DEST, 0, 32);
+            canvas.dragTile(LevelEditorCanvas.Brush.DEST, 4 * 32, 4 * 32);
+        });
+        assertEquals(5, canvas.numDestsProperty().get());
+
+        interact(() -> {
+            canvas.setTile(LevelEditorCanvas.Brush.PLAYER_ON_TILE, 0, 4 * 32);
+            canvas.dragTile(LevelEditorCanvas.Brush.PLAYER_ON_TILE, 32, 4 * 32);
+            canvas.dragTile(LevelEditorCanvas.Brush.PLAYER_ON_TILE, 64, 4 * 32);
+        });
+        assertEquals(1, canvas.numPlayersProperty().get());
+    }
+
+    /**
+     * Tests flood fill, rectangle fill and copy/paste, and that undo takes back exactly one of them at a time.
+     */
+    @Test
+    void testToolsAndUndo() {
+        setBoardSize(5, 5);
+
+        final LevelEditorCanvas canvas = (LevelEditorCanvas) canvasNode;
+        assertFalse(canvas.canUndoProperty().get());
+
+        // a wall across the middle row splits the map into two areas
+        interact(() -> canvas.fillRectangle(LevelEditorCanvas.Brush.WALL, 0, 2 * 32, 10 * 32, 2 * 32 + 5));
+        interact(() -> canvas.floodFill(LevelEditorCanvas.Brush.DEST, 5, 5));
+        assertEquals(10, canvas.numDestsProperty().get());
+        assertTrue(canvas.canUndoProperty().get());
+
+        interact(() -> {
+            canvas.setTile(LevelEditorCanvas.Brush.CRATE_ON_TILE, 5, 3 * 32 + 5);
+            canvas.setTile(LevelEditorCanvas.Brush.PLAYER_ON_TILE, 32 + 5, 3 * 32 + 5);
+            canvas.copyRegion(0, 3 * 32, 32 + 5, 3 * 32 + 5);
+            canvas.paste(3 * 32, 4 * 32);
+        });
+        // the player is not copied
+        assertEquals(2, canvas.numCratesProperty().get());
+        assertEquals(1, canvas.numPlayersProperty().get());
+
+        interact(canvas::undo);
+        assertEquals(1, canvas.numCratesProperty().get());
+        interact(canvas::undo);
+        assertEquals(0, canvas.numPlayersProperty().get());
+        interact(canvas::undo);
+        assertEquals(0, canvas.numCratesProperty().get());
+        assertEquals(10, canvas.numDestsProperty().get());
+        interact(canvas::undo);
+        assertEquals(0, canvas.numDestsProperty().get());
+        interact(canvas::undo);
+        assertFalse(canvas.canUndoProperty().get());
+
+        // the whole map is tiles again, so it fills in one go
+        interact(() -> canvas.floodFill(LevelEditorCanvas.Brush.DEST, 5, 5));
+        assertEquals(25, canvas.numDestsProperty().get());
+    }
 }
@@ -0,0 +1,126 @@
+package viewmodel;
+
+import model.BundledMaps;
+import model.Exceptions.InvalidMapException;
+import model.LevelFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SolvabilityCheckerTest {
+    /**
+     * Stands in for the application thread.
+     */
+    private final ExecutorService fxThread = Executors.newSingleThreadExecutor();
+
+    private volatile char[][] map;
+
+    @AfterEach
+    void tearDown() {
+        fxThread.shutdownNow();
+    }
+
+    /**
+     * @return Cells of a level from the resources.
+     */
+    private static char[][] load(String name) throws Exception {
+        List<String> lines = Files.readAllLines(BundledMaps.path(name), StandardCharsets.UTF_8);
+
+        char[][] rep = new char[Integer.parseInt(lines.get(0).trim())][Integer.parseInt(lines.get(1).trim())];
+        for (int r = 0; r < rep.length; ++r) {
+            LevelFile.decodeRow(lines.get(r + 2), r, rep[r]);
+        }
+        return rep;
+    }
+
+    private static char[][] rows(String... rows) throws InvalidMapException {
+        char[][] rep = new char[rows.length][rows[0].length()];
+        for (int r = 0; r < rows.length; ++r) {
+            LevelFile.decodeRow(rows[r], r, rep[r]);
+        }
+        return rep;
+    }
+
+    /**
+     * Submits a change on the stand-in application thread.
+     */
+    private void submit(SolvabilityChecker checker) throws Exception {
+        fxThread.submit(checker::submit).get();
+    }
+
+    /**
+     * Waits until the latest check has finished.
+     *
+     * @return Outcome of the check.
+     */
+    private SolvabilityChecker.Verdict await(SolvabilityChecker checker, long timeoutMillis) throws Exception {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (System.currentTimeMillis() < deadline) {
+            SolvabilityChecker.Verdict v = fxThread.submit(() -> checker.verdictProperty().get()).get();
+            if (v != SolvabilityChecker.Verdict.CHECKING) {
+                return v;
+            }
+            Thread.sleep(10);
+        }
+        return SolvabilityChecker.Verdict.CHECKING;
+    }
+
+    /**
+     * Tests that solvable and unsolvable maps are reported with the minimal number of pushes, and that maps which
+     * cannot be saved are not checked.
+     */
+    @Test
+    void testVerdicts() throws Exception {
+        SolvabilityChecker checker = new SolvabilityChecker(() -> map, fxThread, 20, 10000);
+
+        map = rows("#####", "#@cC#", "#####");
+        submit(checker);
+        assertEquals(SolvabilityChecker.Verdict.CHECKING, checker.verdictProperty().get());
+        assertEquals(SolvabilityChecker.Verdict.SOLVABLE, await(checker, 5000));
+        assertTrue(checker.messageProperty().get().startsWith("Solvable in 1 pushes"), checker.messageProperty().get());
+
+        map = load("01-easy.txt");
+        submit(checker);
+        assertEquals(SolvabilityChecker.Verdict.SOLVABLE, await(checker, 5000));
+
+        map = rows("#####", "#c@C#", "#####");
+        submit(checker);
+        assertEquals(SolvabilityChecker.Verdict.UNSOLVABLE, await(checker, 5000));
+
+        map = null;
+        submit(checker);
+        assertEquals(SolvabilityChecker.Verdict.NONE, await(checker, 5000));
+        assertEquals("", checker.messageProperty().get());
+    }
+
+    /**
+     * Tests that a change cancels a long search, so that the new map is checked right away, and that a search out of
+     * time is reported as timed out.
+     */
+    @Test
+    void testCancelAndTimeout() throws Exception {
+        SolvabilityChecker checker = new SolvabilityChecker(() -> map, fxThread, 20, 10000);
+
+        map = load("13-extreme.txt");
+        submit(checker);
+        Thread.sleep(200);
+        map = rows("#####", "#@cC#", "#####");
+        long start = System.currentTimeMillis();
+        submit(checker);
+        assertEquals(SolvabilityChecker.Verdict.SOLVABLE, await(checker, 5000));
+        assertTrue(System.currentTimeMillis() - start < 5000);
+
+        SolvabilityChecker impatient = new SolvabilityChecker(() -> map, fxThread, 20, 1);
+        map = load("13-extreme.txt");
+        submit(impatient);
+        assertEquals(SolvabilityChecker.Verdict.TIMED_OUT, await(impatient, 5000));
+        assertTrue(impatient.messageProperty().get().contains("timed out"));
+    }
+}